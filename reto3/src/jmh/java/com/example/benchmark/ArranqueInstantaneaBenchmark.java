@@ -0,0 +1,106 @@
+package com.example.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.modelo.Libro;
+import com.example.repositorio.impl.PersistentBookRepository;
+import com.example.repositorio.impl.PoliticaSincronizacion;
+
+/**
+ * Arranque en frío del catálogo persistente, reproduciendo solo la bitácora o abriendo la
+ * instantánea mapeada. Los archivos se escriben una vez por prueba, con varias versiones de
+ * cada libro en la bitácora; cada disparo abre el repositorio, consulta y lo cierra.
+ * El puntaje es el tiempo de todo el arranque.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ArranqueInstantaneaBenchmark {
+
+    /**
+     * Cómo arranca el repositorio y qué consulta hace al terminar.
+     */
+    public enum Arranque {
+        /** Sin instantánea: reproduce la bitácora completa y consulta un libro. */
+        BITACORA,
+        /** Con instantánea: mapea el archivo y consulta un libro. */
+        INSTANTANEA,
+        /** Con instantánea: mapea el archivo y lista el catálogo, lo que obliga a cargarlo entero. */
+        INSTANTANEA_CALENTADA
+    }
+
+    @Param({"100000", "1000000"})
+    int libros;
+
+    @Param({"3"})
+    int actualizaciones;
+
+    @Param
+    Arranque arranque;
+
+    private Path directorio;
+    private Path bitacora;
+    private Path instantanea;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        directorio = Files.createTempDirectory("arranque");
+        bitacora = directorio.resolve("libros.log");
+        instantanea = arranque == Arranque.BITACORA ? null : directorio.resolve("libros.snap");
+        try (PersistentBookRepository repositorio = abrir()) {
+            for (int vuelta = 0; vuelta <= actualizaciones; vuelta++) {
+                for (int i = 0; i < libros; i++) {
+                    repositorio.save(new Libro("L" + i, "Título " + i, "Autor " + (i % 5000), "General", vuelta + 1));
+                }
+            }
+            if (instantanea != null) {
+                repositorio.tomarInstantanea();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void limpiar() throws IOException {
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            for (Path archivo : (Iterable<Path>) archivos.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(archivo);
+            }
+        }
+    }
+
+    @Benchmark
+    public Object arrancar() {
+        try (PersistentBookRepository repositorio = abrir()) {
+            if (arranque == Arranque.INSTANTANEA_CALENTADA) {
+                return repositorio.findAll();
+            }
+            return repositorio.findById("L" + (libros / 2));
+        }
+    }
+
+    private PersistentBookRepository abrir() {
+        return new PersistentBookRepository(bitacora, instantanea, PoliticaSincronizacion.POR_TIEMPO);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.modelo.Usuario;
+
+/**
+ * Préstamo y devolución medidos por separado.
+ * Ninguna de las dos operaciones puede repetirse indefinidamente sobre el mismo estado
+ * (el límite de préstamos por usuario lo impide), así que se mide en modo de disparo único
+ * sobre lotes de {@value #LOTE} llamadas, preparando cada lote antes de la iteración.
+ * El puntaje es el tiempo de todo el lote.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10, batchSize = CirculacionBenchmark.LOTE)
+@Measurement(iterations = 10, batchSize = CirculacionBenchmark.LOTE)
+@Fork(2)
+public class CirculacionBenchmark {
+    static final int LOTE = 3000;
+    private static final int HILOS_CONCURRENTES = 4;
+    private static final int PRESTAMOS_POR_USUARIO = 3;
+    private static final AtomicInteger SECUENCIA_USUARIOS = new AtomicInteger();
+
+    /**
+     * Usuarios nuevos y libros a prestar para cada iteración, por hilo.
+     * Cada usuario recibe exactamente el máximo de préstamos permitido, sobre libros distintos.
+     */
+    @State(Scope.Thread)
+    public static class LotePrestamo {
+        final String[] isbns = new String[LOTE];
+        final String[] usuarios = new String[LOTE];
+        int siguiente;
+
+        @Setup(Level.Iteration)
+        public void preparar(EstadoCatalogo estado) {
+            int inicio = 0;
+            String usuario = null;
+            for (int i = 0; i < LOTE; i++) {
+                if (i % PRESTAMOS_POR_USUARIO == 0) {
+                    int numero = SECUENCIA_USUARIOS.incrementAndGet();
+                    usuario = "B" + numero;
+                    estado.servicio.crearUsuario(new Usuario(usuario, "Benchmark " + numero));
+                    inicio = ThreadLocalRandom.current().nextInt(estado.libros);
+                }
+                usuarios[i] = usuario;
+                isbns[i] = estado.isbn((inicio + i % PRESTAMOS_POR_USUARIO) % estado.libros);
+            }
+            siguiente = 0;
+            alPreparar(estado);
+        }
+
+        void alPreparar(EstadoCatalogo estado) {
+        }
+    }
+
+    /**
+     * Lote cuyos préstamos ya están hechos, listos para devolver.
+     */
+    @State(Scope.Thread)
+    public static class LoteDevolucion extends LotePrestamo {
+        @Override
+        void alPreparar(EstadoCatalogo estado) {
+            for (int i = 0; i < LOTE; i++) {
+                estado.servicio.prestarLibro(isbns[i], usuarios[i]);
+            }
+        }
+    }
+
+    @Benchmark
+    public void prestarLibro(EstadoCatalogo estado, LotePrestamo lote) {
+        int i = lote.siguiente++;
+        estado.servicio.prestarLibro(lote.isbns[i], lote.usuarios[i]);
+    }
+
+    @Benchmark
+    @Threads(HILOS_CONCURRENTES)
+    public void prestarLibroConcurrente(EstadoCatalogo estado, LotePrestamo lote) {
+        prestarLibro(estado, lote);
+    }
+
+    @Benchmark
+    public void devolverLibro(EstadoCatalogo estado, LoteDevolucion lote) {
+        int i = lote.siguiente++;
+        estado.servicio.devolverLibro(lote.isbns[i], lote.usuarios[i]);
+    }
+
+    @Benchmark
+    @Threads(HILOS_CONCURRENTES)
+    public void devolverLibroConcurrente(EstadoCatalogo estado, LoteDevolucion lote) {
+        devolverLibro(estado, lote);
+    }
+}
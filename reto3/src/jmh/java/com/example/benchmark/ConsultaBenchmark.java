@@ -0,0 +1,70 @@
+package com.example.benchmark;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.modelo.Libro;
+import com.example.modelo.Prestamo;
+
+/**
+ * Consultas de solo lectura, con un hilo y con varios hilos concurrentes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ConsultaBenchmark {
+    private static final int HILOS_CONCURRENTES = 4;
+
+    @Benchmark
+    public List<Libro> buscarLibrosPorTitulo(EstadoCatalogo estado) {
+        return estado.servicio.buscarLibrosPorTitulo(tituloAleatorio(estado));
+    }
+
+    @Benchmark
+    @Threads(HILOS_CONCURRENTES)
+    public List<Libro> buscarLibrosPorTituloConcurrente(EstadoCatalogo estado) {
+        return estado.servicio.buscarLibrosPorTitulo(tituloAleatorio(estado));
+    }
+
+    @Benchmark
+    public List<Prestamo> findActiveByUserId(EstadoCatalogo estado) {
+        return estado.loanRepository.findActiveByUserId(usuarioAleatorio());
+    }
+
+    @Benchmark
+    @Threads(HILOS_CONCURRENTES)
+    public List<Prestamo> findActiveByUserIdConcurrente(EstadoCatalogo estado) {
+        return estado.loanRepository.findActiveByUserId(usuarioAleatorio());
+    }
+
+    @Benchmark
+    public List<Libro> listarLibros(EstadoCatalogo estado) {
+        return estado.servicio.listarLibros();
+    }
+
+    @Benchmark
+    @Threads(HILOS_CONCURRENTES)
+    public List<Libro> listarLibrosConcurrente(EstadoCatalogo estado) {
+        return estado.servicio.listarLibros();
+    }
+
+    private static String tituloAleatorio(EstadoCatalogo estado) {
+        return "Título " + ThreadLocalRandom.current().nextInt(estado.libros);
+    }
+
+    private static String usuarioAleatorio() {
+        return EstadoCatalogo.usuario(ThreadLocalRandom.current().nextInt(EstadoCatalogo.USUARIOS));
+    }
+}
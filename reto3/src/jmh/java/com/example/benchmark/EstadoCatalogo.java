@@ -0,0 +1,80 @@
+package com.example.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.modelo.Libro;
+import com.example.modelo.Prestamo;
+import com.example.modelo.Usuario;
+import com.example.repositorio.impl.BookRepositoryImpl;
+import com.example.repositorio.impl.LoanRepositoryImpl;
+import com.example.repositorio.impl.UserRepositoryImpl;
+import com.example.servicio.BibliotecaServicio;
+
+/**
+ * Biblioteca compartida por los benchmarks, sobre los repositorios en memoria reales.
+ * El catálogo y el historial de préstamos devueltos se parametrizan; cada usuario
+ * base además tiene préstamos activos para que las consultas por usuario no estén vacías.
+ */
+@State(Scope.Benchmark)
+public class EstadoCatalogo {
+    static final int USUARIOS = 1024;
+    static final int PRESTAMOS_ACTIVOS_POR_USUARIO = 2;
+    static final int EJEMPLARES = 1_000_000;
+
+    @Param({"1000", "100000"})
+    int libros;
+
+    @Param({"0", "100000"})
+    int historial;
+
+    BookRepositoryImpl bookRepository;
+    LoanRepositoryImpl loanRepository;
+    BibliotecaServicio servicio;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        bookRepository = new BookRepositoryImpl();
+        loanRepository = new LoanRepositoryImpl();
+        UserRepositoryImpl userRepository = new UserRepositoryImpl();
+        servicio = new BibliotecaServicio(bookRepository, loanRepository, userRepository);
+
+        List<Libro> catalogo = new ArrayList<>(libros);
+        for (int i = 0; i < libros; i++) {
+            catalogo.add(new Libro(isbn(i), "Título " + i, "Autor " + (i % 1000), "General", EJEMPLARES));
+        }
+        servicio.agregarLibros(catalogo);
+        for (int u = 0; u < USUARIOS; u++) {
+            servicio.crearUsuario(new Usuario(usuario(u), "Usuario " + u));
+        }
+
+        LocalDateTime inicio = LocalDateTime.now().minusYears(1);
+        List<Prestamo> devueltos = new ArrayList<>(historial);
+        for (int k = 0; k < historial; k++) {
+            LocalDateTime fecha = inicio.plusMinutes(k);
+            devueltos.add(new Prestamo("H" + k, isbn(k % libros), usuario(k % USUARIOS), fecha, fecha.plusDays(7)));
+        }
+        loanRepository.saveAll(devueltos);
+
+        for (int u = 0; u < USUARIOS; u++) {
+            for (int p = 0; p < PRESTAMOS_ACTIVOS_POR_USUARIO; p++) {
+                servicio.prestarLibro(isbn((u * PRESTAMOS_ACTIVOS_POR_USUARIO + p) % libros), usuario(u));
+            }
+        }
+    }
+
+    String isbn(int indice) {
+        return "L" + indice;
+    }
+
+    static String usuario(int indice) {
+        return "U" + indice;
+    }
+}
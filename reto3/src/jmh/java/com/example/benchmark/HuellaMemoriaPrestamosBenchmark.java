@@ -0,0 +1,123 @@
+package com.example.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.modelo.Prestamo;
+import com.example.repositorio.LoanRepository;
+import com.example.repositorio.impl.ColumnarLoanRepository;
+import com.example.repositorio.impl.LoanRepositoryImpl;
+
+/**
+ * Memoria ocupada por el historial de préstamos en {@link LoanRepositoryImpl} y en
+ * {@link ColumnarLoanRepository}. Cada disparo llena un repositorio nuevo; el puntaje es el
+ * tiempo de llenarlo. La memoria retenida por préstamo la informa {@link PerfiladorHuella}, y
+ * con {@code -prof gc} el resultado {@code gc.alloc.rate.norm} da los bytes asignados por llenado.
+ * Ejemplo: mvn -Pjmh verify -Djmh.argumentos="HuellaMemoriaPrestamosBenchmark -prof com.example.benchmark.PerfiladorHuella -prof gc"
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class HuellaMemoriaPrestamosBenchmark {
+
+    /**
+     * Repositorio de préstamos a medir.
+     */
+    public enum Implementacion {
+        MAPAS {
+            @Override
+            LoanRepository crear() {
+                return new LoanRepositoryImpl();
+            }
+        },
+        COLUMNAR {
+            @Override
+            LoanRepository crear() {
+                return new ColumnarLoanRepository();
+            }
+        };
+
+        abstract LoanRepository crear();
+    }
+
+    /** El repositorio llenado en la última iteración, hasta que el perfilador lo mide. */
+    private static final AtomicReference<LoanRepository> ULTIMO = new AtomicReference<>();
+
+    @Param({"2000000"})
+    int prestamos;
+
+    @Param({"50000"})
+    int usuarios;
+
+    @Param({"200000"})
+    int libros;
+
+    @Param
+    Implementacion implementacion;
+
+    private String[] idsUsuario;
+    private String[] isbns;
+
+    /**
+     * Los ID de usuario y los ISBN ya existen en el resto del sistema: se crean una vez y no
+     * cuentan en la huella del repositorio.
+     */
+    @Setup(Level.Trial)
+    public void preparar() {
+        idsUsuario = new String[usuarios];
+        isbns = new String[libros];
+        for (int i = 0; i < usuarios; i++) {
+            idsUsuario[i] = "U" + i;
+        }
+        for (int i = 0; i < libros; i++) {
+            isbns[i] = "L" + i;
+        }
+    }
+
+    /**
+     * Suelta el repositorio anterior si nadie lo midió, para no tener dos vivos a la vez.
+     */
+    @Setup(Level.Iteration)
+    public void vaciar() {
+        ULTIMO.set(null);
+    }
+
+    @Benchmark
+    public LoanRepository llenar() {
+        LoanRepository nuevo = implementacion.crear();
+        LocalDateTime inicio = LocalDateTime.now().minusYears(10);
+        for (int i = 0; i < prestamos; i++) {
+            LocalDateTime fecha = inicio.plusSeconds(i * 97L);
+            // Uno de cada cincuenta préstamos sigue activo; el resto es historial.
+            LocalDateTime devolucion = i % 50 == 0 ? null : fecha.plusDays(7);
+            nuevo.save(new Prestamo("P" + i, isbns[i % libros], idsUsuario[i % usuarios], fecha, devolucion));
+        }
+        ULTIMO.set(nuevo);
+        return nuevo;
+    }
+
+    /**
+     * Entrega el repositorio de la última iteración y deja de retenerlo.
+     * @return El repositorio, o null si ya se entregó
+     */
+    static LoanRepository soltarUltimo() {
+        return ULTIMO.getAndSet(null);
+    }
+}
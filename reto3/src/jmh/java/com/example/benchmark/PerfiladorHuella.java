@@ -0,0 +1,55 @@
+package com.example.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.util.Collection;
+import java.util.Collections;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+/**
+ * Perfilador de JMH para {@link HuellaMemoriaPrestamosBenchmark}. Al terminar cada iteración
+ * mide el heap ocupado tras una recolección con el repositorio llenado todavía vivo, lo suelta
+ * y vuelve a medir: la diferencia es la memoria que retiene el repositorio.
+ * Se activa con {@code -prof com.example.benchmark.PerfiladorHuella}.
+ */
+public class PerfiladorHuella implements InternalProfiler {
+    private final MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+
+    @Override
+    public String getDescription() {
+        return "Memoria retenida por préstamo guardado";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams,
+                                                       IterationParams iterationParams, IterationResult result) {
+        Object repositorio = HuellaMemoriaPrestamosBenchmark.soltarUltimo();
+        if (repositorio == null) {
+            return Collections.emptyList();
+        }
+        long conRepositorio = heapOcupado();
+        Reference.reachabilityFence(repositorio);
+        repositorio = null;
+        long sinRepositorio = heapOcupado();
+        long prestamos = Long.parseLong(benchmarkParams.getParam("prestamos"));
+        return Collections.singletonList(new ScalarResult("huella.bytesPorPrestamo",
+                (double) (conRepositorio - sinRepositorio) / prestamos, "B/prestamo", AggregationPolicy.AVG));
+    }
+
+    private long heapOcupado() {
+        memoria.gc();
+        return memoria.getHeapMemoryUsage().getUsed();
+    }
+}
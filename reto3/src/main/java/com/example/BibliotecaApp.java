@@ -1,34 +1,136 @@
 package com.example;
 
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Scanner;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 import com.example.exception.BibliotecaException;
+import com.example.http.ServidorHttp;
+import com.example.importacion.FormatoCatalogo;
+import com.example.importacion.ImportadorCatalogo;
+import com.example.importacion.ResultadoImportacion;
+import com.example.lote.ProcesadorLote;
+import com.example.lote.ResultadoLote;
+import com.example.metricas.RegistroMetricas;
 import com.example.modelo.Libro;
 import com.example.modelo.Prestamo;
+import com.example.modelo.Reserva;
 import com.example.modelo.Usuario;
 import com.example.repositorio.BookRepository;
 import com.example.repositorio.LoanRepository;
+import com.example.repositorio.OrdenLibros;
+import com.example.repositorio.UserRepository;
 import com.example.repositorio.impl.BookRepositoryImpl;
 import com.example.repositorio.impl.LoanRepositoryImpl;
+import com.example.repositorio.impl.MeteredBookRepository;
+import com.example.repositorio.impl.MeteredLoanRepository;
+import com.example.repositorio.impl.PersistentBookRepository;
+import com.example.repositorio.impl.PersistentLoanRepository;
+import com.example.repositorio.impl.PoliticaSincronizacion;
+import com.example.repositorio.impl.UserRepositoryImpl;
 import com.example.servicio.BibliotecaServicio;
+import com.example.servicio.BibliotecaServicioAsync;
+import com.example.servicio.GeneradorIdTemporal;
+import com.example.servicio.PrestamoConLibro;
 
 public class BibliotecaApp {
+    private static final int PUERTO_HTTP_POR_DEFECTO = 8080;
     private static final BibliotecaServicio biblioteca;
+    private static final BibliotecaServicioAsync bibliotecaAsync;
+    private static final ImportadorCatalogo importador;
     private static final Scanner scanner;
     private static final MenuManager menuManager;
 
     static {
-        BookRepository bookRepository = new BookRepositoryImpl();
-        LoanRepository loanRepository = new LoanRepositoryImpl();
-        biblioteca = new BibliotecaServicio(bookRepository, loanRepository);
+        BookRepository bookRepository;
+        LoanRepository loanRepository;
+        String directorioDatos = System.getProperty("biblioteca.datos");
+        if (directorioDatos == null) {
+            bookRepository = new BookRepositoryImpl();
+            loanRepository = new LoanRepositoryImpl();
+        } else {
+            Path directorio = Paths.get(directorioDatos);
+            PoliticaSincronizacion politica = PoliticaSincronizacion.valueOf(
+                    System.getProperty("biblioteca.sincronizacion", PoliticaSincronizacion.AGRUPADA.name()));
+            try {
+                Files.createDirectories(directorio);
+            } catch (IOException e) {
+                throw new BibliotecaException("No se pudo crear el directorio de datos: " + directorio, e);
+            }
+            PersistentBookRepository libros = new PersistentBookRepository(
+                    directorio.resolve("libros.log"), directorio.resolve("libros.snap"), politica);
+            PersistentLoanRepository prestamos = new PersistentLoanRepository(
+                    directorio.resolve("prestamos.log"), directorio.resolve("prestamos.snap"), politica);
+            long minutos = Long.getLong("biblioteca.instantanea.minutos", 10);
+            ScheduledExecutorService instantaneas = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread hilo = new Thread(r, "biblioteca-instantaneas");
+                hilo.setDaemon(true);
+                return hilo;
+            });
+            instantaneas.scheduleWithFixedDelay(() -> {
+                try {
+                    libros.tomarInstantanea();
+                    prestamos.tomarInstantanea();
+                } catch (BibliotecaException e) {
+                    System.err.println("Error al tomar la instantánea: " + e.getMessage());
+                }
+            }, minutos, minutos, TimeUnit.MINUTES);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                instantaneas.shutdown();
+                cerrar(libros, prestamos);
+            }));
+            bookRepository = libros;
+            loanRepository = prestamos;
+        }
+        UserRepository userRepository = new UserRepositoryImpl();
+        RegistroMetricas metricas = new RegistroMetricas();
+        bookRepository = new MeteredBookRepository(bookRepository, metricas);
+        loanRepository = new MeteredLoanRepository(loanRepository, metricas);
+        biblioteca = new BibliotecaServicio(bookRepository, loanRepository, userRepository,
+                new GeneradorIdTemporal(), metricas);
+        bibliotecaAsync = new BibliotecaServicioAsync(biblioteca);
+        ScheduledExecutorService vencimientos = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "biblioteca-reservas");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        vencimientos.scheduleWithFixedDelay(() -> {
+            try {
+                biblioteca.procesarReservasVencidas();
+            } catch (BibliotecaException e) {
+                System.err.println("Error al vencer reservas: " + e.getMessage());
+            }
+        }, 1, 1, TimeUnit.MINUTES);
+        importador = new ImportadorCatalogo(biblioteca);
         scanner = new Scanner(System.in);
         menuManager = new MenuManager();
     }
 
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--http")) {
+            iniciarServidorHttp(args.length > 1 ? Integer.parseInt(args[1]) : PUERTO_HTTP_POR_DEFECTO);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--lote")) {
+            ejecutarLote(args.length > 1 ? args[1] : "-");
+            return;
+        }
         try {
             menuManager.iniciar();
         } catch (Exception e) {
@@ -38,10 +140,52 @@ public class BibliotecaApp {
         }
     }
 
+    /**
+     * Atiende peticiones HTTP en lugar del menú de consola hasta que se detenga la JVM.
+     * Activa TCP_NODELAY salvo que la línea de comandos indique otra cosa.
+     */
+    private static void iniciarServidorHttp(int puerto) {
+        if (System.getProperty(ServidorHttp.PROPIEDAD_SIN_RETARDO) == null) {
+            System.setProperty(ServidorHttp.PROPIEDAD_SIN_RETARDO, "true");
+        }
+        ServidorHttp servidor = new ServidorHttp(biblioteca, puerto);
+        Runtime.getRuntime().addShutdownHook(new Thread(servidor::close));
+        servidor.iniciar();
+        System.out.println("Servidor HTTP escuchando en el puerto " + servidor.getPuerto());
+    }
+
+    /**
+     * Ejecuta un archivo de comandos, o la entrada estándar si el archivo es "-",
+     * y escribe los resultados en la salida estándar.
+     */
+    private static void ejecutarLote(String archivo) {
+        try (Reader entrada = archivo.equals("-")
+                ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+                : Files.newBufferedReader(Paths.get(archivo), StandardCharsets.UTF_8)) {
+            Writer salida = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+            ResultadoLote resultado = new ProcesadorLote(biblioteca).ejecutar(entrada, salida);
+            System.err.printf("Comandos: %d, exitosos: %d, fallidos: %d, tiempo: %d ms%n", resultado.getLeidos(),
+                    resultado.getExitosos(), resultado.getFallidos(), resultado.getMilisegundos());
+        } catch (IOException | BibliotecaException e) {
+            System.err.println("Error en la ejecución por lotes: " + e.getMessage());
+        }
+    }
+
+    private static void cerrar(Closeable... recursos) {
+        for (Closeable recurso : recursos) {
+            try {
+                recurso.close();
+            } catch (IOException | BibliotecaException e) {
+                System.err.println("Error al cerrar: " + e.getMessage());
+            }
+        }
+    }
+
     private static class MenuManager {
         private static final String SEPARADOR = "\n=== %s ===";
         private static final String ERROR = "Error: %s";
         private static final String EXITO = "Operación exitosa: %s";
+        private static final int TAMANO_PAGINA = 100;
 
         public void iniciar() {
             Menu menuPrincipal = crearMenuPrincipal();
@@ -55,8 +199,13 @@ public class BibliotecaApp {
                 .agregarOpcion("Crear Usuario", this::crearUsuario)
                 .agregarOpcion("Prestar Libro a un usuario", this::prestarLibro)
                 .agregarOpcion("Devolver Libro a la biblioteca", this::devolverLibro)
+                .agregarOpcion("Reservar Libro sin ejemplares disponibles", this::reservarLibro)
+                .agregarOpcion("Cancelar Reserva de un libro", this::cancelarReserva)
                 .agregarOpcion("Ver Inventario de libros disponibles", this::mostrarInventario)
                 .agregarOpcion("Ver Préstamos de un usuario", this::verPrestamosPorUsuario)
+                .agregarOpcion("Ver libros por categoría", this::verLibrosPorCategoria)
+                .agregarOpcion("Importar catálogo desde archivo", this::importarCatalogo)
+                .agregarOpcion("Ver métricas de operaciones", this::mostrarMetricas)
                 .agregarOpcion("Salir", () -> true);
         }
 
@@ -131,22 +280,92 @@ public class BibliotecaApp {
             return false;
         }
 
+        private boolean reservarLibro() {
+            try {
+                System.out.printf(SEPARADOR, "RESERVAR LIBRO");
+                String libroId = InputManager.leerTexto("ID del libro: ");
+                String usuarioId = InputManager.leerTexto("ID del usuario: ");
+
+                Reserva reserva = biblioteca.reservarLibro(libroId, usuarioId);
+                System.out.printf(EXITO, "Reserva registrada en la posición "
+                        + biblioteca.obtenerPosicionReserva(libroId, usuarioId)
+                        + ", vence el " + reserva.getFechaVencimiento().toLocalDate());
+            } catch (BibliotecaException e) {
+                System.err.printf(ERROR, e.getMessage());
+            }
+            return false;
+        }
+
+        private boolean cancelarReserva() {
+            try {
+                System.out.printf(SEPARADOR, "CANCELAR RESERVA");
+                String libroId = InputManager.leerTexto("ID del libro: ");
+                String usuarioId = InputManager.leerTexto("ID del usuario: ");
+
+                biblioteca.cancelarReserva(libroId, usuarioId);
+                System.out.printf(EXITO, "Reserva cancelada exitosamente");
+            } catch (BibliotecaException e) {
+                System.err.printf(ERROR, e.getMessage());
+            }
+            return false;
+        }
+
         private boolean mostrarInventario() {
             try {
                 System.out.printf(SEPARADOR, "INVENTARIO DE LIBROS");
-                List<Libro> libros = biblioteca.listarLibros();
-                
-                if (libros.isEmpty()) {
+                OrdenLibros orden = leerOrden(InputManager.leerTextoOpcional("\nOrden (TITULO/ISBN) [TITULO]: ", "TITULO"));
+                int tamanoPagina = leerTamanoPagina(InputManager.leerTextoOpcional(
+                        "Libros por página, 0 para mostrar todo sin pausas [" + TAMANO_PAGINA + "]: ",
+                        String.valueOf(TAMANO_PAGINA)));
+                boolean pausar = tamanoPagina > 0;
+
+                // La salida estándar no se cierra: solo se vacía el buffer después de cada página.
+                Writer salida = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+                long mostrados = new RenderizadorInventario(biblioteca).renderizar(orden,
+                        pausar ? tamanoPagina : BibliotecaServicio.MAX_TAMANO_PAGINA, salida,
+                        (total, hayMas) -> hayMas && (!pausar
+                                || !InputManager.leerLinea("Enter para continuar, 'q' para salir: ").equalsIgnoreCase("q")));
+                if (mostrados == 0) {
                     System.out.println("No hay libros en el inventario");
+                }
+            } catch (IOException | BibliotecaException e) {
+                System.err.printf(ERROR, e.getMessage());
+            }
+            return false;
+        }
+
+        private boolean verLibrosPorCategoria() {
+            try {
+                System.out.printf(SEPARADOR, "LIBROS POR CATEGORÍA");
+                System.out.println("\nCategoría (disponibles/total):");
+                biblioteca.listarFacetasCategoria().forEach(faceta -> System.out.println("- " + faceta));
+                String categoria = InputManager.leerTexto("Categoría: ");
+                List<Libro> libros = biblioteca.buscarLibrosPorCategoria(categoria, true);
+
+                if (libros.isEmpty()) {
+                    System.out.println("No hay libros disponibles en la categoría");
                 } else {
-                    System.out.println("\nLibros disponibles:");
-                    libros.forEach(libro -> {
-                        System.out.println("\nID: " + libro.getIsbn());
-                        System.out.println("Título: " + libro.getTitulo());
-                        System.out.println("Autor: " + libro.getAutor());
-                        System.out.println("Ejemplares disponibles: " + libro.getEjemplaresDisponibles());
-                        System.out.println("------------------------");
-                    });
+                    libros.forEach(this::mostrarInformacionLibro);
+                }
+            } catch (BibliotecaException e) {
+                System.err.printf(ERROR, e.getMessage());
+            }
+            return false;
+        }
+
+        private boolean importarCatalogo() {
+            try {
+                System.out.printf(SEPARADOR, "IMPORTAR CATÁLOGO");
+                Path archivo = Paths.get(InputManager.leerTexto("Ruta del archivo: "));
+                FormatoCatalogo formato = leerFormato(InputManager.leerTexto("Formato (CSV/MARC): "));
+                Path rechazos = archivo.resolveSibling(archivo.getFileName() + ".rechazos");
+
+                ResultadoImportacion resultado = importador.importar(archivo, formato, rechazos,
+                        parcial -> System.out.printf("%nLeídos: %d, importados: %d, rechazados: %d",
+                                parcial.getLeidos(), parcial.getImportados(), parcial.getRechazados()));
+                System.out.printf(EXITO, "Catálogo importado en " + resultado.getMilisegundos() + " ms");
+                if (resultado.getRechazados() > 0) {
+                    System.out.println("\nFilas rechazadas en: " + rechazos);
                 }
             } catch (BibliotecaException e) {
                 System.err.printf(ERROR, e.getMessage());
@@ -154,11 +373,43 @@ public class BibliotecaApp {
             return false;
         }
 
+        private boolean mostrarMetricas() {
+            System.out.printf(SEPARADOR, "MÉTRICAS");
+            System.out.println();
+            System.out.print(biblioteca.getMetricas().exportarPrometheus());
+            return false;
+        }
+
+        private OrdenLibros leerOrden(String texto) {
+            try {
+                return OrdenLibros.valueOf(texto.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BibliotecaException("Orden no válido: " + texto);
+            }
+        }
+
+        private int leerTamanoPagina(String texto) {
+            try {
+                return Integer.parseInt(texto);
+            } catch (NumberFormatException e) {
+                throw new BibliotecaException("Debe ingresar un número válido");
+            }
+        }
+
+        private FormatoCatalogo leerFormato(String texto) {
+            try {
+                return FormatoCatalogo.valueOf(texto.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BibliotecaException("Formato no válido: " + texto);
+            }
+        }
+
         private boolean verPrestamosPorUsuario() {
             try {
                 System.out.printf(SEPARADOR, "PRÉSTAMOS POR USUARIO");
                 String usuarioId = InputManager.leerTexto("ID del usuario: ");
-                List<Prestamo> prestamos = biblioteca.obtenerPrestamosPorUsuario(usuarioId);
+                List<PrestamoConLibro> prestamos = BibliotecaServicioAsync.esperar(
+                        bibliotecaAsync.obtenerPrestamosConLibros(usuarioId));
                 
                 if (prestamos.isEmpty()) {
                     System.out.println("El usuario no tiene préstamos");
@@ -179,14 +430,14 @@ public class BibliotecaApp {
             System.out.println("Autor: " + libro.getAutor());
         }
 
-        private void mostrarInformacionPrestamo(Prestamo prestamo) {
-            try {
-                Libro libro = biblioteca.obtenerLibroPorId(prestamo.getLibroIsbn());
-                System.out.println("\nLibro: " + libro.getTitulo());
-                System.out.println("Fecha de préstamo: " + prestamo.getFechaPrestamo());
-            } catch (BibliotecaException e) {
-                System.err.printf(ERROR, e.getMessage());
+        private void mostrarInformacionPrestamo(PrestamoConLibro detalle) {
+            Prestamo prestamo = detalle.getPrestamo();
+            if (detalle.getLibro() == null) {
+                System.err.printf(ERROR, "No se encontró el libro con ISBN: " + prestamo.getLibroIsbn());
+                return;
             }
+            System.out.println("\nLibro: " + detalle.getLibro().getTitulo());
+            System.out.println("Fecha de préstamo: " + prestamo.getFechaPrestamo());
         }
     }
 
@@ -216,34 +467,10 @@ public class BibliotecaApp {
                 try {
                     int opcion = InputManager.leerOpcion();
                     
-                    switch (opcion) {
-                        case 1:
-                            opciones.get(0).ejecutar();
-                            break;
-                        case 2:
-                            opciones.get(1).ejecutar();
-                            break;
-                        case 3:
-                            opciones.get(2).ejecutar();
-                            break;
-                        case 4:
-                            opciones.get(3).ejecutar();
-                            break;
-                        case 5:
-                            opciones.get(4).ejecutar();
-                            break;
-                        case 6:
-                            opciones.get(5).ejecutar();
-                            break;
-                        case 7:
-                            opciones.get(6).ejecutar();
-                            break;
-                        case 8:
-                            salir = opciones.get(7).ejecutar();
-                            break;
-                        default:
-                            System.out.println("Opción no válida. Por favor seleccione una opción del 1 al " + opciones.size());
-                            break;
+                    if (opcion < 1 || opcion > opciones.size()) {
+                        System.out.println("Opción no válida. Por favor seleccione una opción del 1 al " + opciones.size());
+                    } else {
+                        salir = opciones.get(opcion - 1).ejecutar();
                     }
                 } catch (BibliotecaException e) {
                     System.err.printf("Error: %s\n", e.getMessage());
@@ -276,6 +503,16 @@ public class BibliotecaApp {
             return texto;
         }
 
+        public static String leerTextoOpcional(String mensaje, String porDefecto) {
+            String texto = leerLinea(mensaje);
+            return texto.isEmpty() ? porDefecto : texto;
+        }
+
+        public static String leerLinea(String mensaje) {
+            System.out.print(mensaje);
+            return scanner.nextLine().trim();
+        }
+
         public static int leerOpcion() {
             try {
                 return Integer.parseInt(scanner.nextLine().trim());
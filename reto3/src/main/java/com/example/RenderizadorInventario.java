@@ -0,0 +1,80 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import com.example.exception.BibliotecaException;
+import com.example.modelo.Libro;
+import com.example.repositorio.OrdenLibros;
+import com.example.repositorio.Pagina;
+import com.example.servicio.BibliotecaServicio;
+
+/**
+ * Escribe el inventario recorriendo el catálogo por páginas, de modo que la memoria usada
+ * depende del tamaño de página y no del catálogo. Cada libro se arma en un mismo
+ * {@link StringBuilder} y se entrega al escritor, que debería tener un buffer grande;
+ * al final de cada página se escribe el conteo acumulado y se vacía el escritor.
+ */
+public class RenderizadorInventario {
+    private static final String SEPARADOR_LIBROS = "------------------------\n";
+
+    private final BibliotecaServicio biblioteca;
+    private final StringBuilder linea;
+
+    public RenderizadorInventario(BibliotecaServicio biblioteca) {
+        if (biblioteca == null) {
+            throw new BibliotecaException("El servicio de biblioteca no puede ser nulo");
+        }
+        this.biblioteca = biblioteca;
+        this.linea = new StringBuilder(256);
+    }
+
+    /**
+     * Escribe el inventario completo, o hasta que el control de páginas pida detenerse.
+     * @param orden El orden del inventario
+     * @param tamanoPagina Los libros por página, entre 1 y {@link BibliotecaServicio#MAX_TAMANO_PAGINA}
+     * @param salida El destino de la salida; se vacía después de cada página pero no se cierra
+     * @param control Decide después de cada página si se continúa
+     * @return El número de libros escritos
+     * @throws IOException si no se puede escribir la salida
+     * @throws BibliotecaException si el orden o el tamaño de página no son válidos
+     */
+    public long renderizar(OrdenLibros orden, int tamanoPagina, Writer salida, ControlPaginas control)
+            throws IOException {
+        long mostrados = 0;
+        String cursor = null;
+        do {
+            Pagina<Libro> pagina = biblioteca.listarLibrosPaginados(orden, cursor, tamanoPagina);
+            for (Libro libro : pagina.getElementos()) {
+                linea.setLength(0);
+                linea.append("\nID: ").append(libro.getIsbn())
+                        .append("\nTítulo: ").append(libro.getTitulo())
+                        .append("\nAutor: ").append(libro.getAutor())
+                        .append("\nEjemplares disponibles: ").append(libro.getEjemplaresDisponibles())
+                        .append('\n').append(SEPARADOR_LIBROS);
+                salida.append(linea);
+            }
+            mostrados += pagina.getElementos().size();
+            cursor = pagina.getSiguienteCursor();
+            salida.append("\n[").append(Long.toString(mostrados)).append(" libros mostrados]\n");
+            salida.flush();
+            if (!control.continuar(mostrados, cursor != null)) {
+                break;
+            }
+        } while (cursor != null);
+        return mostrados;
+    }
+
+    /**
+     * Decide si el inventario sigue después de cada página, por ejemplo preguntando al usuario.
+     */
+    @FunctionalInterface
+    public interface ControlPaginas {
+        /**
+         * @param mostrados Los libros escritos hasta ahora
+         * @param hayMas Si quedan páginas por escribir
+         * @return true para escribir la página siguiente
+         */
+        boolean continuar(long mostrados, boolean hayMas);
+    }
+}
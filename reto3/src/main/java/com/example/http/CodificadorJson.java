@@ -0,0 +1,102 @@
+package com.example.http;
+
+import java.util.Collection;
+
+import com.example.modelo.Libro;
+import com.example.modelo.Prestamo;
+import com.example.repositorio.Pagina;
+
+/**
+ * Codificador JSON escrito a mano para las pocas entidades que expone el servidor HTTP.
+ * Escribe directamente sobre un {@link StringBuilder} para no crear objetos intermedios.
+ */
+final class CodificadorJson {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private CodificadorJson() {
+    }
+
+    static void libro(StringBuilder json, Libro libro) {
+        json.append("{\"isbn\":");
+        cadena(json, libro.getIsbn());
+        json.append(",\"titulo\":");
+        cadena(json, libro.getTitulo());
+        json.append(",\"autor\":");
+        cadena(json, libro.getAutor());
+        json.append(",\"categoria\":");
+        cadena(json, libro.getCategoria());
+        json.append(",\"ejemplaresDisponibles\":").append(libro.getEjemplaresDisponibles()).append('}');
+    }
+
+    static void libros(StringBuilder json, Collection<Libro> libros) {
+        json.append('[');
+        boolean primero = true;
+        for (Libro libro : libros) {
+            if (!primero) {
+                json.append(',');
+            }
+            libro(json, libro);
+            primero = false;
+        }
+        json.append(']');
+    }
+
+    static void pagina(StringBuilder json, Pagina<Libro> pagina) {
+        json.append("{\"libros\":");
+        libros(json, pagina.getElementos());
+        json.append(",\"siguienteCursor\":");
+        cadena(json, pagina.getSiguienteCursor());
+        json.append('}');
+    }
+
+    static void prestamos(StringBuilder json, Collection<Prestamo> prestamos) {
+        json.append('[');
+        boolean primero = true;
+        for (Prestamo prestamo : prestamos) {
+            if (!primero) {
+                json.append(',');
+            }
+            json.append("{\"id\":");
+            cadena(json, prestamo.getId());
+            json.append(",\"isbn\":");
+            cadena(json, prestamo.getLibroIsbn());
+            json.append(",\"usuario\":");
+            cadena(json, prestamo.getUsuarioId());
+            json.append(",\"fechaPrestamo\":");
+            cadena(json, prestamo.getFechaPrestamo().toString());
+            json.append(",\"fechaVencimiento\":");
+            cadena(json, prestamo.getFechaVencimiento().toString());
+            json.append(",\"activo\":").append(prestamo.isActivo()).append('}');
+            primero = false;
+        }
+        json.append(']');
+    }
+
+    static void error(StringBuilder json, String mensaje) {
+        json.append("{\"error\":");
+        cadena(json, mensaje);
+        json.append('}');
+    }
+
+    /**
+     * Escribe una cadena JSON escapando comillas, barras y caracteres de control.
+     */
+    static void cadena(StringBuilder json, String valor) {
+        if (valor == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+}
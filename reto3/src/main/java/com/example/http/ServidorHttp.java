@@ -0,0 +1,275 @@
+package com.example.http;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.System.Logger.Level;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.example.exception.BibliotecaException;
+import com.example.repositorio.OrdenLibros;
+import com.example.servicio.BibliotecaServicio;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Servidor HTTP/JSON embebido para los mostradores de circulación y los puestos de autopréstamo.
+ * Atiende cada petición en su propio hilo virtual, y el servicio y los repositorios persistentes
+ * usan {@link java.util.concurrent.locks.ReentrantLock}, así que la espera por un candado no
+ * ocupa un hilo del sistema y miles de terminales comparten una sola JVM. La escritura y el
+ * fsync de la bitácora sí retienen el hilo portador mientras duran.
+ * <ul>
+ * <li>POST /prestamos?isbn=&amp;usuario= presta un libro</li>
+ * <li>POST /devoluciones?isbn=&amp;usuario= devuelve un libro</li>
+ * <li>GET /libros?titulo= | autor= | categoria=[&amp;disponibles=true] busca libros</li>
+ * <li>GET /inventario?orden=&amp;cursor=&amp;limite= lista el catálogo por páginas</li>
+ * <li>GET /usuarios/prestamos?usuario= lista los préstamos activos de un usuario</li>
+ * <li>GET /metricas expone las métricas en formato Prometheus</li>
+ * </ul>
+ * Los errores de negocio responden 400 con {"error": mensaje}; los inesperados responden 500 con un
+ * mensaje genérico y el detalle se registra. Ningún recurso usa el cuerpo de la petición; uno de más
+ * de {@value #MAXIMO_CUERPO} bytes se rechaza con 413 sin atender la petición.
+ * <p>
+ * Conviene arrancar la JVM con {@code -Dsun.net.httpserver.nodelay=true} ({@link #PROPIEDAD_SIN_RETARDO}):
+ * sin TCP_NODELAY, el algoritmo de Nagle y el ACK retardado del cliente retienen cada respuesta
+ * pequeña unos 40 ms. Es una propiedad de toda la JVM, así que la fija el lanzador y no esta clase.
+ */
+public class ServidorHttp implements Closeable {
+    /** Propiedad del JDK que activa TCP_NODELAY en las conexiones; se lee al crear el primer servidor. */
+    public static final String PROPIEDAD_SIN_RETARDO = "sun.net.httpserver.nodelay";
+    private static final System.Logger REGISTRO = System.getLogger(ServidorHttp.class.getName());
+    private static final int COLA_CONEXIONES = 4096;
+    private static final int LIMITE_POR_DEFECTO = 100;
+    private static final int MAXIMO_CUERPO = 64 * 1024;
+    private static final String JSON = "application/json; charset=utf-8";
+
+    private final BibliotecaServicio biblioteca;
+    private final HttpServer servidor;
+    private final ExecutorService ejecutor;
+
+    public ServidorHttp(BibliotecaServicio biblioteca, int puerto) {
+        this(biblioteca, new InetSocketAddress(puerto));
+    }
+
+    public ServidorHttp(BibliotecaServicio biblioteca, InetSocketAddress direccion) {
+        if (biblioteca == null) {
+            throw new BibliotecaException("El servicio de biblioteca no puede ser nulo");
+        }
+        this.biblioteca = biblioteca;
+        try {
+            this.servidor = HttpServer.create(direccion, COLA_CONEXIONES);
+        } catch (IOException e) {
+            throw new BibliotecaException("No se pudo abrir el puerto HTTP: " + direccion, e);
+        }
+        this.ejecutor = Executors.newVirtualThreadPerTaskExecutor();
+        servidor.setExecutor(ejecutor);
+        servidor.createContext("/prestamos", intercambio -> atender(intercambio, "POST", this::prestar));
+        servidor.createContext("/devoluciones", intercambio -> atender(intercambio, "POST", this::devolver));
+        servidor.createContext("/libros", intercambio -> atender(intercambio, "GET", this::buscarLibros));
+        servidor.createContext("/inventario", intercambio -> atender(intercambio, "GET", this::inventario));
+        servidor.createContext("/usuarios/prestamos", intercambio -> atender(intercambio, "GET", this::prestamosUsuario));
+        servidor.createContext("/metricas", intercambio -> atender(intercambio, "GET", this::metricas));
+    }
+
+    public void iniciar() {
+        servidor.start();
+    }
+
+    /**
+     * Obtiene el puerto en el que escucha el servidor, útil si se abrió en el puerto 0.
+     * @return El puerto local
+     */
+    public int getPuerto() {
+        return servidor.getAddress().getPort();
+    }
+
+    /**
+     * Detiene el servidor sin esperar a las peticiones en curso más de un segundo.
+     */
+    @Override
+    public void close() {
+        servidor.stop(1);
+        ejecutor.close();
+    }
+
+    private Respuesta prestar(Map<String, String> parametros) {
+        biblioteca.prestarLibro(parametros.get("isbn"), parametros.get("usuario"));
+        return Respuesta.sinContenido();
+    }
+
+    private Respuesta devolver(Map<String, String> parametros) {
+        biblioteca.devolverLibro(parametros.get("isbn"), parametros.get("usuario"));
+        return Respuesta.sinContenido();
+    }
+
+    private Respuesta buscarLibros(Map<String, String> parametros) {
+        StringBuilder json = new StringBuilder();
+        if (parametros.containsKey("titulo")) {
+            CodificadorJson.libros(json, biblioteca.buscarLibrosPorTitulo(parametros.get("titulo")));
+        } else if (parametros.containsKey("autor")) {
+            CodificadorJson.libros(json, biblioteca.buscarLibrosPorAutor(parametros.get("autor")));
+        } else if (parametros.containsKey("categoria")) {
+            boolean soloDisponibles = Boolean.parseBoolean(parametros.get("disponibles"));
+            CodificadorJson.libros(json, biblioteca.buscarLibrosPorCategoria(parametros.get("categoria"), soloDisponibles));
+        } else {
+            throw new BibliotecaException("Debe indicar titulo, autor o categoria");
+        }
+        return Respuesta.json(200, json);
+    }
+
+    private Respuesta inventario(Map<String, String> parametros) {
+        OrdenLibros orden = leerOrden(parametros.getOrDefault("orden", OrdenLibros.TITULO.name()));
+        int limite = leerEntero(parametros.get("limite"), LIMITE_POR_DEFECTO);
+        StringBuilder json = new StringBuilder();
+        CodificadorJson.pagina(json, biblioteca.listarLibrosPaginados(orden, parametros.get("cursor"), limite));
+        return Respuesta.json(200, json);
+    }
+
+    private Respuesta prestamosUsuario(Map<String, String> parametros) {
+        StringBuilder json = new StringBuilder();
+        CodificadorJson.prestamos(json, biblioteca.obtenerPrestamosActivosPorUsuario(parametros.get("usuario")));
+        return Respuesta.json(200, json);
+    }
+
+    private Respuesta metricas(Map<String, String> parametros) {
+        return new Respuesta(200, "text/plain; version=0.0.4; charset=utf-8",
+                biblioteca.getMetricas().exportarPrometheus().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void atender(HttpExchange intercambio, String metodo, Manejador manejador) throws IOException {
+        try (intercambio) {
+            Respuesta respuesta;
+            if (descartarCuerpo(intercambio.getRequestBody())) {
+                respuesta = resolver(intercambio, metodo, manejador);
+            } else {
+                // El resto del cuerpo no se lee: se cierra la conexión en lugar de reutilizarla.
+                intercambio.getResponseHeaders().set("Connection", "close");
+                respuesta = Respuesta.error(413, "El cuerpo de la petición supera los " + MAXIMO_CUERPO + " bytes");
+            }
+            enviar(intercambio, respuesta);
+        }
+    }
+
+    private Respuesta resolver(HttpExchange intercambio, String metodo, Manejador manejador) {
+        Respuesta respuesta;
+        try {
+            if (!intercambio.getRequestURI().getPath().equals(intercambio.getHttpContext().getPath())) {
+                respuesta = Respuesta.error(404, "Ruta no encontrada: " + intercambio.getRequestURI().getPath());
+            } else if (!metodo.equals(intercambio.getRequestMethod())) {
+                intercambio.getResponseHeaders().set("Allow", metodo);
+                respuesta = Respuesta.error(405, "Método no permitido: " + intercambio.getRequestMethod());
+            } else {
+                respuesta = manejador.manejar(parametros(intercambio.getRequestURI().getRawQuery()));
+            }
+        } catch (BibliotecaException e) {
+            respuesta = Respuesta.error(400, e.getMessage());
+        } catch (RuntimeException e) {
+            // El detalle puede exponer datos internos: solo se registra.
+            REGISTRO.log(Level.ERROR, "Error al atender " + intercambio.getRequestMethod() + " "
+                    + intercambio.getRequestURI(), e);
+            respuesta = Respuesta.error(500, "Error interno del servidor");
+        }
+        return respuesta;
+    }
+
+    private static void enviar(HttpExchange intercambio, Respuesta respuesta) throws IOException {
+        if (respuesta.cuerpo == null) {
+            intercambio.sendResponseHeaders(respuesta.estado, -1);
+            return;
+        }
+        intercambio.getResponseHeaders().set("Content-Type", respuesta.tipo);
+        intercambio.sendResponseHeaders(respuesta.estado, respuesta.cuerpo.length);
+        try (OutputStream salida = intercambio.getResponseBody()) {
+            salida.write(respuesta.cuerpo);
+        }
+    }
+
+    /**
+     * Consume el cuerpo de la petición, que no se usa, para poder reutilizar la conexión.
+     * Se leen como mucho {@link #MAXIMO_CUERPO} bytes y uno más para detectar el exceso.
+     * @return false si el cuerpo supera el máximo
+     */
+    private static boolean descartarCuerpo(InputStream cuerpo) throws IOException {
+        byte[] buffer = new byte[8192];
+        long leidos = 0;
+        int n;
+        while (leidos <= MAXIMO_CUERPO
+                && (n = cuerpo.read(buffer, 0, (int) Math.min(buffer.length, MAXIMO_CUERPO + 1 - leidos))) >= 0) {
+            leidos += n;
+        }
+        return leidos <= MAXIMO_CUERPO;
+    }
+
+    private static Map<String, String> parametros(String consulta) {
+        Map<String, String> parametros = new HashMap<>();
+        if (consulta == null || consulta.isEmpty()) {
+            return parametros;
+        }
+        for (String par : consulta.split("&")) {
+            int igual = par.indexOf('=');
+            String nombre = igual < 0 ? par : par.substring(0, igual);
+            String valor = igual < 0 ? "" : par.substring(igual + 1);
+            parametros.put(URLDecoder.decode(nombre, StandardCharsets.UTF_8),
+                    URLDecoder.decode(valor, StandardCharsets.UTF_8));
+        }
+        return parametros;
+    }
+
+    private static OrdenLibros leerOrden(String texto) {
+        try {
+            return OrdenLibros.valueOf(texto.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BibliotecaException("Orden no válido: " + texto);
+        }
+    }
+
+    private static int leerEntero(String texto, int porDefecto) {
+        if (texto == null) {
+            return porDefecto;
+        }
+        try {
+            return Integer.parseInt(texto);
+        } catch (NumberFormatException e) {
+            throw new BibliotecaException("Número no válido: " + texto);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Manejador {
+        Respuesta manejar(Map<String, String> parametros);
+    }
+
+    private static final class Respuesta {
+        private final int estado;
+        private final String tipo;
+        private final byte[] cuerpo;
+
+        private Respuesta(int estado, String tipo, byte[] cuerpo) {
+            this.estado = estado;
+            this.tipo = tipo;
+            this.cuerpo = cuerpo;
+        }
+
+        private static Respuesta sinContenido() {
+            return new Respuesta(204, null, null);
+        }
+
+        private static Respuesta json(int estado, StringBuilder json) {
+            return new Respuesta(estado, JSON, json.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static Respuesta error(int estado, String mensaje) {
+            StringBuilder json = new StringBuilder();
+            CodificadorJson.error(json, mensaje);
+            return json(estado, json);
+        }
+    }
+}
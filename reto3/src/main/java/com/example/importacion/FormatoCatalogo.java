@@ -0,0 +1,23 @@
+package com.example.importacion;
+
+import java.io.BufferedReader;
+
+/**
+ * Formatos de archivo admitidos por el importador de catálogo.
+ */
+public enum FormatoCatalogo {
+    CSV {
+        @Override
+        public LectorRegistros crearLector(BufferedReader lector) {
+            return new LectorCsv(lector);
+        }
+    },
+    MARC {
+        @Override
+        public LectorRegistros crearLector(BufferedReader lector) {
+            return new LectorMarc(lector);
+        }
+    };
+
+    public abstract LectorRegistros crearLector(BufferedReader lector);
+}
@@ -0,0 +1,341 @@
+package com.example.importacion;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.example.exception.BibliotecaException;
+import com.example.modelo.Libro;
+import com.example.servicio.BibliotecaServicio;
+
+/**
+ * Importa catálogos grandes por flujo, sin cargar el archivo completo en memoria.
+ * Un hilo lee y valida los registros y los agrupa en lotes; varios hilos los agregan
+ * con {@link BibliotecaServicio#agregarLibros}, que valida y guarda cada lote bajo los
+ * candados de sus libros. La importación solo da de alta libros nuevos: un ISBN que ya
+ * está en el catálogo se rechaza, para no pisar los ejemplares de un título con préstamos.
+ * Antes de agregar un lote se descartan con una sola consulta los ISBN ya catalogados, así
+ * reimportar un archivo no obliga a guardar fila por fila. Cada ISBN se asigna siempre al
+ * mismo hilo, así que si se repite en el archivo prevalece su primera fila. Las colas entre etapas están acotadas, de modo que la memoria usada no
+ * depende del tamaño del archivo.
+ * Las filas inválidas se escriben en un archivo de rechazos con su número y el motivo.
+ */
+public class ImportadorCatalogo {
+    public static final int TAMANO_LOTE_POR_DEFECTO = 1000;
+    public static final long INTERVALO_PROGRESO_POR_DEFECTO = 100_000;
+    private static final int LOTES_EN_COLA_POR_HILO = 2;
+    private static final int TAMANO_BUFFER = 1 << 16;
+    private static final Lote FIN = new Lote(0);
+
+    private final BibliotecaServicio biblioteca;
+    private final int tamanoLote;
+    private final int hilos;
+    private final long intervaloProgreso;
+
+    public ImportadorCatalogo(BibliotecaServicio biblioteca) {
+        this(biblioteca, TAMANO_LOTE_POR_DEFECTO, Runtime.getRuntime().availableProcessors(),
+                INTERVALO_PROGRESO_POR_DEFECTO);
+    }
+
+    public ImportadorCatalogo(BibliotecaServicio biblioteca, int tamanoLote, int hilos, long intervaloProgreso) {
+        if (biblioteca == null) {
+            throw new BibliotecaException("El servicio de biblioteca no puede ser nulo");
+        }
+        if (tamanoLote <= 0 || hilos <= 0 || intervaloProgreso <= 0) {
+            throw new BibliotecaException("El tamaño de lote, los hilos y el intervalo deben ser positivos");
+        }
+        this.biblioteca = biblioteca;
+        this.tamanoLote = tamanoLote;
+        this.hilos = hilos;
+        this.intervaloProgreso = intervaloProgreso;
+    }
+
+    /**
+     * Importa un archivo de catálogo.
+     * @param archivo El archivo a importar, en UTF-8
+     * @param formato El formato del archivo
+     * @param archivoRechazos El archivo donde se escriben las filas rechazadas, o null para descartarlas
+     * @param progreso Recibe el avance periódicamente, o null
+     * @return Los conteos finales de la importación
+     * @throws BibliotecaException si no se puede leer el archivo o escribir los rechazos
+     */
+    public ResultadoImportacion importar(Path archivo, FormatoCatalogo formato, Path archivoRechazos,
+                                         ProgresoImportacion progreso) {
+        if (archivo == null || formato == null) {
+            throw new BibliotecaException("El archivo y el formato no pueden ser nulos");
+        }
+        long inicio = System.nanoTime();
+        Contadores contadores = new Contadores();
+        AtomicInteger numeroHilo = new AtomicInteger();
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos, r -> {
+            Thread hilo = new Thread(r, "importador-catalogo-" + numeroHilo.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        try (BufferedReader entrada = new BufferedReader(
+                new InputStreamReader(Files.newInputStream(archivo), StandardCharsets.UTF_8), TAMANO_BUFFER);
+             Rechazos rechazos = new Rechazos(archivoRechazos)) {
+            List<BlockingQueue<Lote>> colas = new ArrayList<>(hilos);
+            List<Future<?>> trabajadores = new ArrayList<>(hilos);
+            for (int i = 0; i < hilos; i++) {
+                BlockingQueue<Lote> cola = new ArrayBlockingQueue<>(LOTES_EN_COLA_POR_HILO);
+                colas.add(cola);
+                trabajadores.add(ejecutor.submit(() -> guardarLotes(cola, rechazos, contadores)));
+            }
+            try {
+                leer(formato.crearLector(entrada), colas, rechazos, contadores, inicio, progreso);
+            } finally {
+                for (BlockingQueue<Lote> cola : colas) {
+                    encolar(cola, FIN);
+                }
+                esperar(trabajadores);
+            }
+        } catch (IOException e) {
+            throw new BibliotecaException("No se pudo importar el catálogo: " + archivo, e);
+        } finally {
+            ejecutor.shutdownNow();
+        }
+        ResultadoImportacion resultado = contadores.resultado(inicio);
+        if (progreso != null) {
+            progreso.reportar(resultado);
+        }
+        return resultado;
+    }
+
+    private void leer(LectorRegistros lector, List<BlockingQueue<Lote>> colas, Rechazos rechazos,
+                      Contadores contadores, long inicio, ProgresoImportacion progreso) throws IOException {
+        Lote[] pendientes = new Lote[hilos];
+        RegistroCatalogo registro;
+        while ((registro = lector.leer()) != null) {
+            long leidos = contadores.leidos.incrementAndGet();
+            Libro libro;
+            try {
+                libro = crearLibro(registro);
+            } catch (IllegalArgumentException e) {
+                contadores.rechazados.incrementAndGet();
+                rechazos.escribir(registro, e.getMessage());
+                continue;
+            }
+            int destino = destino(libro.getIsbn());
+            if (pendientes[destino] == null) {
+                pendientes[destino] = new Lote(tamanoLote);
+            }
+            pendientes[destino].agregar(registro, libro);
+            if (pendientes[destino].libros.size() == tamanoLote) {
+                encolar(colas.get(destino), pendientes[destino]);
+                pendientes[destino] = null;
+            }
+            if (progreso != null && leidos % intervaloProgreso == 0) {
+                progreso.reportar(contadores.resultado(inicio));
+            }
+        }
+        for (int i = 0; i < hilos; i++) {
+            if (pendientes[i] != null) {
+                encolar(colas.get(i), pendientes[i]);
+            }
+        }
+    }
+
+    private void guardarLotes(BlockingQueue<Lote> cola, Rechazos rechazos, Contadores contadores) {
+        try {
+            Lote lote;
+            while ((lote = cola.take()) != FIN) {
+                Lote nuevos = lote;
+                try {
+                    nuevos = descartarExistentes(lote, rechazos, contadores);
+                    if (!nuevos.libros.isEmpty()) {
+                        biblioteca.agregarLibros(nuevos.libros);
+                        contadores.importados.addAndGet(nuevos.libros.size());
+                    }
+                } catch (BibliotecaException e) {
+                    // El lote se rechazó completo, por ejemplo por un ISBN dado de alta por otra vía
+                    // después de la consulta: se agrega libro por libro para rechazar solo las filas culpables.
+                    agregarUnoAUno(nuevos, rechazos, contadores);
+                } catch (RuntimeException e) {
+                    contadores.rechazados.addAndGet(nuevos.libros.size());
+                    for (RegistroCatalogo registro : nuevos.registros) {
+                        rechazos.escribir(registro, "Error al guardar el lote: " + e.getMessage());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Rechaza las filas cuyo ISBN ya está en el catálogo o se repite en el lote.
+     * @return Un lote con las filas restantes
+     */
+    private Lote descartarExistentes(Lote lote, Rechazos rechazos, Contadores contadores) {
+        List<String> isbns = new ArrayList<>(lote.libros.size());
+        for (Libro libro : lote.libros) {
+            isbns.add(libro.getIsbn());
+        }
+        Set<String> existentes = new HashSet<>();
+        for (Libro libro : biblioteca.obtenerLibrosPorIds(isbns)) {
+            existentes.add(libro.getIsbn());
+        }
+        Set<String> vistos = new HashSet<>();
+        Lote nuevos = new Lote(lote.libros.size());
+        for (int i = 0; i < lote.libros.size(); i++) {
+            String isbn = lote.libros.get(i).getIsbn();
+            if (existentes.contains(isbn)) {
+                contadores.rechazados.incrementAndGet();
+                rechazos.escribir(lote.registros.get(i), "Ya existe un libro con el ISBN: " + isbn);
+            } else if (!vistos.add(isbn)) {
+                contadores.rechazados.incrementAndGet();
+                rechazos.escribir(lote.registros.get(i), "El ISBN está repetido en el archivo: " + isbn);
+            } else {
+                nuevos.agregar(lote.registros.get(i), lote.libros.get(i));
+            }
+        }
+        return nuevos;
+    }
+
+    private void agregarUnoAUno(Lote lote, Rechazos rechazos, Contadores contadores) {
+        for (int i = 0; i < lote.libros.size(); i++) {
+            try {
+                biblioteca.agregarLibro(lote.libros.get(i));
+                contadores.importados.incrementAndGet();
+            } catch (BibliotecaException e) {
+                contadores.rechazados.incrementAndGet();
+                rechazos.escribir(lote.registros.get(i), e.getMessage());
+            } catch (RuntimeException e) {
+                contadores.rechazados.incrementAndGet();
+                rechazos.escribir(lote.registros.get(i), "Error al guardar el libro: " + e.getMessage());
+            }
+        }
+    }
+
+    private static Libro crearLibro(RegistroCatalogo registro) {
+        if (registro.getError() != null) {
+            throw new IllegalArgumentException(registro.getError());
+        }
+        String ejemplares = registro.getEjemplares();
+        if (ejemplares == null || ejemplares.trim().isEmpty()) {
+            throw new IllegalArgumentException("El número de ejemplares no puede estar vacío");
+        }
+        int cantidad;
+        try {
+            cantidad = Integer.parseInt(ejemplares.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Número de ejemplares inválido: " + ejemplares);
+        }
+        return new Libro(recortar(registro.getIsbn()), recortar(registro.getTitulo()),
+                recortar(registro.getAutor()), recortar(registro.getCategoria()), cantidad);
+    }
+
+    private static String recortar(String valor) {
+        return valor == null ? null : valor.trim();
+    }
+
+    private int destino(String isbn) {
+        int h = isbn.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), hilos);
+    }
+
+    private static void encolar(BlockingQueue<Lote> cola, Lote lote) {
+        try {
+            cola.put(lote);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BibliotecaException("Importación interrumpida", e);
+        }
+    }
+
+    private static void esperar(List<Future<?>> trabajadores) {
+        for (Future<?> trabajador : trabajadores) {
+            try {
+                trabajador.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BibliotecaException("Importación interrumpida", e);
+            } catch (ExecutionException e) {
+                throw new BibliotecaException("Error al guardar el catálogo", e.getCause());
+            }
+        }
+    }
+
+    private static final class Lote {
+        private final List<RegistroCatalogo> registros;
+        private final List<Libro> libros;
+
+        private Lote(int capacidad) {
+            this.registros = new ArrayList<>(capacidad);
+            this.libros = new ArrayList<>(capacidad);
+        }
+
+        private void agregar(RegistroCatalogo registro, Libro libro) {
+            registros.add(registro);
+            libros.add(libro);
+        }
+    }
+
+    private static final class Contadores {
+        private final AtomicLong leidos = new AtomicLong();
+        private final AtomicLong importados = new AtomicLong();
+        private final AtomicLong rechazados = new AtomicLong();
+
+        private ResultadoImportacion resultado(long inicio) {
+            return new ResultadoImportacion(leidos.get(), importados.get(), rechazados.get(),
+                    (System.nanoTime() - inicio) / 1_000_000);
+        }
+    }
+
+    /**
+     * Escritor de rechazos compartido por el lector y los hilos de guardado.
+     * Cada línea tiene el número de registro, el motivo y el registro original, separados por tabuladores.
+     * Un fallo de escritura se informa al cerrar, para no detener a los hilos de guardado a mitad de la importación.
+     */
+    private static final class Rechazos implements AutoCloseable {
+        private final BufferedWriter escritor;
+        private IOException error;
+
+        private Rechazos(Path archivo) throws IOException {
+            this.escritor = archivo == null ? null : Files.newBufferedWriter(archivo, StandardCharsets.UTF_8);
+        }
+
+        private synchronized void escribir(RegistroCatalogo registro, String motivo) {
+            if (escritor == null || error != null) {
+                return;
+            }
+            try {
+                escritor.write(Long.toString(registro.getNumero()));
+                escritor.write('\t');
+                escritor.write(motivo);
+                escritor.write('\t');
+                escritor.write(registro.getOriginal());
+                escritor.newLine();
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (escritor != null) {
+                escritor.close();
+            }
+            if (error != null) {
+                throw error;
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.importacion;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lector de CSV con columnas isbn, titulo, autor, categoria y ejemplares.
+ * Admite campos entre comillas con comas y comillas dobladas; omite las líneas en blanco
+ * y una primera línea igual a {@link #CABECERA}. Las filas con otro número de columnas
+ * o con comillas sin cerrar se devuelven como registros mal formados.
+ */
+public class LectorCsv implements LectorRegistros {
+    public static final String CABECERA = "isbn,titulo,autor,categoria,ejemplares";
+    private static final int COLUMNAS = 5;
+    private static final char MARCA_ORDEN_BYTES = '\uFEFF';
+
+    private final BufferedReader lector;
+    private final List<String> campos = new ArrayList<>(COLUMNAS);
+    private final StringBuilder campo = new StringBuilder();
+    private long numeroLinea;
+
+    public LectorCsv(BufferedReader lector) {
+        this.lector = lector;
+    }
+
+    @Override
+    public RegistroCatalogo leer() throws IOException {
+        String linea;
+        while ((linea = lector.readLine()) != null) {
+            numeroLinea++;
+            if (numeroLinea == 1 && !linea.isEmpty() && linea.charAt(0) == MARCA_ORDEN_BYTES) {
+                linea = linea.substring(1);
+            }
+            if (linea.isBlank() || (numeroLinea == 1 && linea.strip().equals(CABECERA))) {
+                continue;
+            }
+            if (!separar(linea)) {
+                return RegistroCatalogo.malformado(numeroLinea, linea, "Comillas sin cerrar");
+            }
+            if (campos.size() != COLUMNAS) {
+                return RegistroCatalogo.malformado(numeroLinea, linea,
+                        "Se esperaban " + COLUMNAS + " columnas y hay " + campos.size());
+            }
+            return new RegistroCatalogo(numeroLinea, campo(0), campo(1), campo(2), campo(3), campo(4), linea);
+        }
+        return null;
+    }
+
+    private String campo(int indice) {
+        return campos.get(indice);
+    }
+
+    /**
+     * Separa la línea en {@link #campos}.
+     * @return false si la línea termina dentro de un campo entre comillas
+     */
+    private boolean separar(String linea) {
+        campos.clear();
+        campo.setLength(0);
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == '"' && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    campo.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreComillas = false;
+                } else {
+                    campo.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else {
+                campo.append(c);
+            }
+        }
+        campos.add(campo.toString());
+        return !entreComillas;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.importacion;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Lector de un formato de texto tipo MARC: una etiqueta por línea y registros
+ * separados por una línea en blanco. Reconoce "=020" (ISBN), "=245" (título),
+ * "=100" (autor), "=650" (categoría) y "=949" (ejemplares); ignora las demás etiquetas.
+ * Un registro con una línea sin etiqueta se devuelve como registro mal formado.
+ * Ejemplo de línea: {@code =245  Cien años de soledad}.
+ */
+public class LectorMarc implements LectorRegistros {
+    private static final int LONGITUD_ETIQUETA = 4;
+
+    private final BufferedReader lector;
+    private final StringBuilder original = new StringBuilder();
+    private long numeroRegistro;
+
+    public LectorMarc(BufferedReader lector) {
+        this.lector = lector;
+    }
+
+    @Override
+    public RegistroCatalogo leer() throws IOException {
+        String isbn = null;
+        String titulo = null;
+        String autor = null;
+        String categoria = null;
+        String ejemplares = null;
+        String error = null;
+        boolean hayDatos = false;
+        original.setLength(0);
+
+        String linea;
+        while ((linea = lector.readLine()) != null) {
+            if (linea.isBlank()) {
+                if (hayDatos) {
+                    break;
+                }
+                continue;
+            }
+            hayDatos = true;
+            if (original.length() > 0) {
+                original.append(" | ");
+            }
+            original.append(linea);
+            if (linea.length() < LONGITUD_ETIQUETA || linea.charAt(0) != '=') {
+                if (error == null) {
+                    error = "Línea sin etiqueta: " + linea;
+                }
+                continue;
+            }
+            String valor = linea.substring(LONGITUD_ETIQUETA).trim();
+            switch (linea.substring(1, LONGITUD_ETIQUETA)) {
+                case "020":
+                    isbn = valor;
+                    break;
+                case "245":
+                    titulo = valor;
+                    break;
+                case "100":
+                    autor = valor;
+                    break;
+                case "650":
+                    categoria = valor;
+                    break;
+                case "949":
+                    ejemplares = valor;
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (!hayDatos) {
+            return null;
+        }
+        numeroRegistro++;
+        if (error != null) {
+            return RegistroCatalogo.malformado(numeroRegistro, original.toString(), error);
+        }
+        return new RegistroCatalogo(numeroRegistro, isbn, titulo, autor, categoria, ejemplares, original.toString());
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.importacion;
+
+import java.io.IOException;
+
+/**
+ * Lee registros de catálogo uno a uno desde un flujo de texto.
+ */
+public interface LectorRegistros {
+    /**
+     * Lee el siguiente registro.
+     * @return El registro, o null al llegar al final del archivo
+     * @throws IOException si falla la lectura
+     */
+    RegistroCatalogo leer() throws IOException;
+}
@@ -0,0 +1,9 @@
+package com.example.importacion;
+
+/**
+ * Recibe el avance de una importación en curso.
+ */
+@FunctionalInterface
+public interface ProgresoImportacion {
+    void reportar(ResultadoImportacion parcial);
+}
@@ -0,0 +1,82 @@
+package com.example.importacion;
+
+/**
+ * Registro leído de un archivo de catálogo, antes de validarse.
+ * Un registro que el lector no pudo interpretar lleva el motivo en {@link #getError()}.
+ */
+public class RegistroCatalogo {
+    private final long numero;
+    private final String isbn;
+    private final String titulo;
+    private final String autor;
+    private final String categoria;
+    private final String ejemplares;
+    private final String original;
+    private final String error;
+
+    public RegistroCatalogo(long numero, String isbn, String titulo, String autor, String categoria,
+                            String ejemplares, String original) {
+        this.numero = numero;
+        this.isbn = isbn;
+        this.titulo = titulo;
+        this.autor = autor;
+        this.categoria = categoria;
+        this.ejemplares = ejemplares;
+        this.original = original;
+        this.error = null;
+    }
+
+    private RegistroCatalogo(long numero, String original, String error) {
+        this.numero = numero;
+        this.isbn = null;
+        this.titulo = null;
+        this.autor = null;
+        this.categoria = null;
+        this.ejemplares = null;
+        this.original = original;
+        this.error = error;
+    }
+
+    /**
+     * Crea un registro mal formado, que el importador rechaza con el motivo indicado.
+     * @param numero El número de línea o de registro
+     * @param original El texto original del registro
+     * @param error El motivo del rechazo
+     * @return El registro mal formado
+     */
+    public static RegistroCatalogo malformado(long numero, String original, String error) {
+        return new RegistroCatalogo(numero, original, error);
+    }
+
+    public long getNumero() {
+        return numero;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public String getTitulo() {
+        return titulo;
+    }
+
+    public String getAutor() {
+        return autor;
+    }
+
+    public String getCategoria() {
+        return categoria;
+    }
+
+    public String getEjemplares() {
+        return ejemplares;
+    }
+
+    public String getOriginal() {
+        return original;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
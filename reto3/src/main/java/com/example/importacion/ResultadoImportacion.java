@@ -0,0 +1,44 @@
+package com.example.importacion;
+
+/**
+ * Conteos de una importación de catálogo.
+ */
+public class ResultadoImportacion {
+    private final long leidos;
+    private final long importados;
+    private final long rechazados;
+    private final long milisegundos;
+
+    public ResultadoImportacion(long leidos, long importados, long rechazados, long milisegundos) {
+        this.leidos = leidos;
+        this.importados = importados;
+        this.rechazados = rechazados;
+        this.milisegundos = milisegundos;
+    }
+
+    public long getLeidos() {
+        return leidos;
+    }
+
+    public long getImportados() {
+        return importados;
+    }
+
+    public long getRechazados() {
+        return rechazados;
+    }
+
+    public long getMilisegundos() {
+        return milisegundos;
+    }
+
+    @Override
+    public String toString() {
+        return "ResultadoImportacion{" +
+                "leidos=" + leidos +
+                ", importados=" + importados +
+                ", rechazados=" + rechazados +
+                ", milisegundos=" + milisegundos +
+                '}';
+    }
+}
@@ -0,0 +1,287 @@
+package com.example.lote;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import com.example.exception.BibliotecaException;
+import com.example.modelo.Libro;
+import com.example.modelo.Prestamo;
+import com.example.modelo.Usuario;
+import com.example.servicio.BibliotecaServicio;
+
+/**
+ * Ejecuta archivos de comandos contra el servicio sin pasar por el menú de consola.
+ * Cada línea es un comando y sus argumentos separados por tabuladores, por ejemplo
+ * {@code PRESTAR\t978-84\tU1}; las líneas vacías y las que empiezan con '#' se ignoran.
+ * Un hilo lee y analiza las líneas por lotes mientras el llamador ejecuta los comandos
+ * en orden, y toda la salida pasa por un único escritor con buffer grande.
+ * Por cada comando se escribe una línea "número\tOK" o "número\tERROR\tmensaje"; las
+ * consultas escriben antes una línea por resultado, "número\tLIBRO\t..." o "número\tPRESTAMO\t...".
+ */
+public class ProcesadorLote {
+    public static final int TAMANO_LOTE_POR_DEFECTO = 1024;
+    private static final int LOTES_EN_COLA = 4;
+    private static final int TAMANO_BUFFER = 1 << 16;
+    private static final char SEPARADOR = '\t';
+
+    private final BibliotecaServicio biblioteca;
+    private final int tamanoLote;
+
+    public ProcesadorLote(BibliotecaServicio biblioteca) {
+        this(biblioteca, TAMANO_LOTE_POR_DEFECTO);
+    }
+
+    public ProcesadorLote(BibliotecaServicio biblioteca, int tamanoLote) {
+        if (biblioteca == null) {
+            throw new BibliotecaException("El servicio de biblioteca no puede ser nulo");
+        }
+        if (tamanoLote <= 0) {
+            throw new BibliotecaException("El tamaño de lote debe ser positivo");
+        }
+        this.biblioteca = biblioteca;
+        this.tamanoLote = tamanoLote;
+    }
+
+    /**
+     * Ejecuta todos los comandos de la entrada en orden.
+     * @param entrada Los comandos, uno por línea
+     * @param salida Recibe el resultado de cada comando; se vacía al terminar pero no se cierra
+     * @return Los conteos de la ejecución
+     * @throws BibliotecaException si no se puede leer la entrada o escribir la salida; cualquier
+     * otra excepción de la lectura se relanza tal cual, después de ejecutar los comandos ya leídos
+     */
+    public ResultadoLote ejecutar(Reader entrada, Writer salida) {
+        if (entrada == null || salida == null) {
+            throw new BibliotecaException("La entrada y la salida no pueden ser nulas");
+        }
+        long inicio = System.nanoTime();
+        BlockingQueue<List<Comando>> cola = new ArrayBlockingQueue<>(LOTES_EN_COLA);
+        Analizador analizador = new Analizador(entrada, cola);
+        Thread hilo = new Thread(analizador, "lote-analizador");
+        hilo.setDaemon(true);
+        hilo.start();
+
+        long leidos = 0;
+        long exitosos = 0;
+        BufferedWriter escritor = new BufferedWriter(salida, TAMANO_BUFFER);
+        StringBuilder linea = new StringBuilder(256);
+        try {
+            List<Comando> lote;
+            while (!(lote = cola.take()).isEmpty()) {
+                for (Comando comando : lote) {
+                    leidos++;
+                    if (ejecutar(comando, linea)) {
+                        exitosos++;
+                    }
+                    escritor.append(linea);
+                    linea.setLength(0);
+                }
+            }
+            escritor.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            hilo.interrupt();
+            throw new BibliotecaException("Ejecución por lotes interrumpida", e);
+        } catch (IOException e) {
+            hilo.interrupt();
+            throw new BibliotecaException("No se pudo escribir la salida del lote", e);
+        }
+        Throwable error = analizador.error;
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+        if (error instanceof Error) {
+            throw (Error) error;
+        }
+        if (error != null) {
+            throw new BibliotecaException("No se pudo leer la entrada del lote", error);
+        }
+        return new ResultadoLote(leidos, exitosos, leidos - exitosos, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Ejecuta un comando y escribe su salida en la línea recibida.
+     * @return true si el comando terminó sin errores
+     */
+    private boolean ejecutar(Comando comando, StringBuilder salida) {
+        if (comando.error != null) {
+            error(salida, comando.numero, comando.error);
+            return false;
+        }
+        String[] a = comando.argumentos;
+        try {
+            switch (comando.tipo) {
+                case AGREGAR_LIBRO:
+                    biblioteca.agregarLibro(new Libro(a[0], a[1], a[2], a[3], leerEntero(a[4])));
+                    break;
+                case CREAR_USUARIO:
+                    biblioteca.crearUsuario(new Usuario(a[0], a[1]));
+                    break;
+                case PRESTAR:
+                    biblioteca.prestarLibro(a[0], a[1]);
+                    break;
+                case DEVOLVER:
+                    biblioteca.devolverLibro(a[0], a[1]);
+                    break;
+                case ELIMINAR_LIBRO:
+                    biblioteca.eliminarLibro(a[0]);
+                    break;
+                case BUSCAR_TITULO:
+                    libros(salida, comando.numero, biblioteca.buscarLibrosPorTitulo(a[0]));
+                    break;
+                case BUSCAR_AUTOR:
+                    libros(salida, comando.numero, biblioteca.buscarLibrosPorAutor(a[0]));
+                    break;
+                case PRESTAMOS:
+                    prestamos(salida, comando.numero, biblioteca.obtenerPrestamosActivosPorUsuario(a[0]));
+                    break;
+                case DISPONIBLES:
+                    libros(salida, comando.numero, biblioteca.listarLibrosDisponibles());
+                    break;
+                default:
+                    throw new BibliotecaException("Comando no soportado: " + comando.tipo);
+            }
+        } catch (BibliotecaException | IllegalArgumentException e) {
+            // Se descarta lo que una consulta hubiera escrito antes de fallar.
+            salida.setLength(0);
+            error(salida, comando.numero, e.getMessage());
+            return false;
+        } catch (RuntimeException e) {
+            // Un fallo inesperado, por ejemplo de un repositorio, se informa en la línea del
+            // comando en lugar de abortar el lote.
+            salida.setLength(0);
+            error(salida, comando.numero, "Error interno: " + e);
+            return false;
+        }
+        salida.append(comando.numero).append(SEPARADOR).append("OK\n");
+        return true;
+    }
+
+    private static int leerEntero(String texto) {
+        try {
+            return Integer.parseInt(texto);
+        } catch (NumberFormatException e) {
+            throw new BibliotecaException("Número no válido: " + texto);
+        }
+    }
+
+    private static void libros(StringBuilder salida, long numero, List<Libro> libros) {
+        for (Libro libro : libros) {
+            salida.append(numero).append(SEPARADOR).append("LIBRO")
+                    .append(SEPARADOR).append(libro.getIsbn())
+                    .append(SEPARADOR).append(libro.getTitulo())
+                    .append(SEPARADOR).append(libro.getAutor())
+                    .append(SEPARADOR).append(libro.getCategoria())
+                    .append(SEPARADOR).append(libro.getEjemplaresDisponibles()).append('\n');
+        }
+    }
+
+    private static void prestamos(StringBuilder salida, long numero, List<Prestamo> prestamos) {
+        for (Prestamo prestamo : prestamos) {
+            salida.append(numero).append(SEPARADOR).append("PRESTAMO")
+                    .append(SEPARADOR).append(prestamo.getId())
+                    .append(SEPARADOR).append(prestamo.getLibroIsbn())
+                    .append(SEPARADOR).append(prestamo.getFechaVencimiento()).append('\n');
+        }
+    }
+
+    private static void error(StringBuilder salida, long numero, String mensaje) {
+        salida.append(numero).append(SEPARADOR).append("ERROR").append(SEPARADOR).append(mensaje).append('\n');
+    }
+
+    private static Comando analizar(long numero, String linea) {
+        List<String> partes = new ArrayList<>(6);
+        int desde = 0;
+        for (int i = 0; i <= linea.length(); i++) {
+            if (i == linea.length() || linea.charAt(i) == SEPARADOR) {
+                partes.add(linea.substring(desde, i));
+                desde = i + 1;
+            }
+        }
+        TipoComando tipo;
+        try {
+            tipo = TipoComando.valueOf(partes.get(0).trim());
+        } catch (IllegalArgumentException e) {
+            return new Comando(numero, null, null, "Comando desconocido: " + partes.get(0));
+        }
+        if (partes.size() - 1 != tipo.getArgumentos()) {
+            return new Comando(numero, tipo, null,
+                    tipo + " espera " + tipo.getArgumentos() + " argumentos y recibió " + (partes.size() - 1));
+        }
+        return new Comando(numero, tipo, partes.subList(1, partes.size()).toArray(new String[0]), null);
+    }
+
+    private static final class Comando {
+        private final long numero;
+        private final TipoComando tipo;
+        private final String[] argumentos;
+        private final String error;
+
+        private Comando(long numero, TipoComando tipo, String[] argumentos, String error) {
+            this.numero = numero;
+            this.tipo = tipo;
+            this.argumentos = argumentos;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Etapa de lectura y análisis. Entrega lotes de comandos por una cola acotada y
+     * termina con un lote vacío, también si la lectura falla: {@link #ejecutar} espera ese lote
+     * para terminar, así que cualquier fallo se guarda en {@link #error} en lugar de cortar el envío.
+     */
+    private final class Analizador implements Runnable {
+        private final Reader entrada;
+        private final BlockingQueue<List<Comando>> cola;
+        private volatile Throwable error;
+
+        private Analizador(Reader entrada, BlockingQueue<List<Comando>> cola) {
+            this.entrada = entrada;
+            this.cola = cola;
+        }
+
+        @Override
+        public void run() {
+            List<Comando> lote = new ArrayList<>(tamanoLote);
+            try {
+                BufferedReader lector = entrada instanceof BufferedReader
+                        ? (BufferedReader) entrada : new BufferedReader(entrada, TAMANO_BUFFER);
+                long numero = 0;
+                String linea;
+                while ((linea = lector.readLine()) != null) {
+                    numero++;
+                    if (linea.isBlank() || linea.startsWith("#")) {
+                        continue;
+                    }
+                    lote.add(analizar(numero, linea));
+                    if (lote.size() == tamanoLote) {
+                        cola.put(lote);
+                        lote = new ArrayList<>(tamanoLote);
+                    }
+                }
+            } catch (InterruptedException e) {
+                // ejecutar ya no espera más lotes; con la interrupción restaurada el envío final no bloquea.
+                Thread.currentThread().interrupt();
+            } catch (Throwable e) {
+                error = e;
+            } finally {
+                try {
+                    // Los comandos ya analizados se ejecutan aunque la lectura haya fallado después.
+                    if (!lote.isEmpty()) {
+                        cola.put(lote);
+                    }
+                    cola.put(new ArrayList<>());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
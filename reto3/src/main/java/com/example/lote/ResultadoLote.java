@@ -0,0 +1,44 @@
+package com.example.lote;
+
+/**
+ * Conteos de la ejecución de un archivo de comandos.
+ */
+public class ResultadoLote {
+    private final long leidos;
+    private final long exitosos;
+    private final long fallidos;
+    private final long milisegundos;
+
+    public ResultadoLote(long leidos, long exitosos, long fallidos, long milisegundos) {
+        this.leidos = leidos;
+        this.exitosos = exitosos;
+        this.fallidos = fallidos;
+        this.milisegundos = milisegundos;
+    }
+
+    public long getLeidos() {
+        return leidos;
+    }
+
+    public long getExitosos() {
+        return exitosos;
+    }
+
+    public long getFallidos() {
+        return fallidos;
+    }
+
+    public long getMilisegundos() {
+        return milisegundos;
+    }
+
+    @Override
+    public String toString() {
+        return "ResultadoLote{" +
+                "leidos=" + leidos +
+                ", exitosos=" + exitosos +
+                ", fallidos=" + fallidos +
+                ", milisegundos=" + milisegundos +
+                '}';
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.lote;
+
+/**
+ * Comandos admitidos en el modo por lotes, con el número de argumentos que esperan.
+ */
+public enum TipoComando {
+    AGREGAR_LIBRO(5),
+    CREAR_USUARIO(2),
+    PRESTAR(2),
+    DEVOLVER(2),
+    ELIMINAR_LIBRO(1),
+    BUSCAR_TITULO(1),
+    BUSCAR_AUTOR(1),
+    PRESTAMOS(1),
+    DISPONIBLES(0);
+
+    private final int argumentos;
+
+    TipoComando(int argumentos) {
+        this.argumentos = argumentos;
+    }
+
+    public int getArgumentos() {
+        return argumentos;
+    }
+}
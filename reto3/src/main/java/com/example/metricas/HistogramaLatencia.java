@@ -0,0 +1,97 @@
+package com.example.metricas;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias log-lineal y sin candados, en nanosegundos.
+ * Cada potencia de dos se divide en {@value #SUBCUBETAS} cubetas lineales, así que el
+ * error relativo de un percentil es menor al 7 % en todo el rango de un long.
+ * Registrar una muestra solo incrementa contadores atómicos y no reserva memoria.
+ */
+public class HistogramaLatencia {
+    private static final int BITS_SUBCUBETA = 4;
+    private static final int SUBCUBETAS = 1 << BITS_SUBCUBETA;
+    private static final int CUBETAS = (Long.SIZE - BITS_SUBCUBETA) * SUBCUBETAS;
+
+    private final AtomicLongArray conteos = new AtomicLongArray(CUBETAS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder suma = new LongAdder();
+    private final AtomicLong maximo = new AtomicLong();
+
+    /**
+     * Registra una muestra.
+     * @param nanos La latencia en nanosegundos; los valores negativos cuentan como cero
+     */
+    public void registrar(long nanos) {
+        long valor = Math.max(0, nanos);
+        conteos.incrementAndGet(cubeta(valor));
+        total.increment();
+        suma.add(valor);
+        long actual;
+        while (valor > (actual = maximo.get()) && !maximo.compareAndSet(actual, valor)) {
+            // Reintenta solo si otro hilo subió el máximo entre la lectura y el CAS.
+        }
+    }
+
+    public long getTotal() {
+        return total.sum();
+    }
+
+    public long getSuma() {
+        return suma.sum();
+    }
+
+    public long getMaximo() {
+        return maximo.get();
+    }
+
+    /**
+     * Calcula un percentil aproximado a partir de las cubetas.
+     * Las muestras que llegan durante el cálculo pueden incluirse o no.
+     * @param cuantil El cuantil entre 0 y 1, por ejemplo 0.99
+     * @return El límite superior de la cubeta que contiene el percentil, o 0 si no hay muestras
+     */
+    public long percentil(double cuantil) {
+        if (cuantil < 0 || cuantil > 1) {
+            throw new IllegalArgumentException("El cuantil debe estar entre 0 y 1");
+        }
+        long[] copia = new long[CUBETAS];
+        long muestras = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            copia[i] = conteos.get(i);
+            muestras += copia[i];
+        }
+        if (muestras == 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(cuantil * muestras));
+        long acumulado = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            acumulado += copia[i];
+            if (acumulado >= objetivo) {
+                return Math.min(limiteSuperior(i), maximo.get());
+            }
+        }
+        return maximo.get();
+    }
+
+    static int cubeta(long valor) {
+        if (valor < SUBCUBETAS) {
+            return (int) valor;
+        }
+        int magnitud = 63 - Long.numberOfLeadingZeros(valor);
+        int sub = (int) (valor >>> (magnitud - BITS_SUBCUBETA)) & (SUBCUBETAS - 1);
+        return (magnitud - BITS_SUBCUBETA + 1) * SUBCUBETAS + sub;
+    }
+
+    static long limiteSuperior(int cubeta) {
+        if (cubeta < SUBCUBETAS) {
+            return cubeta;
+        }
+        int desplazamiento = cubeta / SUBCUBETAS - 1;
+        long inferior = (long) (SUBCUBETAS + cubeta % SUBCUBETAS) << desplazamiento;
+        return inferior + (1L << desplazamiento) - 1;
+    }
+}
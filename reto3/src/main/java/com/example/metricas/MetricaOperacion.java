@@ -0,0 +1,125 @@
+package com.example.metricas;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Llamadas, errores y latencia de una operación.
+ * Se obtiene una vez del {@link RegistroMetricas} y se guarda en un campo, de modo que
+ * registrar una llamada no busca en mapas:
+ * <pre>
+ * return metrica.medir(() -&gt; operacion(argumentos));
+ * </pre>
+ */
+public class MetricaOperacion {
+    static final int MAX_CATEGORIAS = 64;
+    static final String OTRAS = "otras";
+
+    private final String nombre;
+    private final LongAdder llamadas = new LongAdder();
+    private final LongAdder errores = new LongAdder();
+    private final HistogramaLatencia latencia = new HistogramaLatencia();
+    private final ConcurrentMap<String, LongAdder> erroresPorCategoria = new ConcurrentHashMap<>();
+
+    MetricaOperacion(String nombre) {
+        this.nombre = nombre;
+    }
+
+    /**
+     * Ejecuta una operación registrando su latencia y, si lanza una excepción, su error.
+     * @param operacion La operación a medir
+     * @return El resultado de la operación
+     */
+    public <T> T medir(Supplier<T> operacion) {
+        long inicio = System.nanoTime();
+        try {
+            return operacion.get();
+        } catch (RuntimeException e) {
+            registrarError(e);
+            throw e;
+        } finally {
+            registrarLatencia(inicio);
+        }
+    }
+
+    /**
+     * Ejecuta una operación sin resultado registrando su latencia y, si lanza una excepción, su error.
+     * @param operacion La operación a medir
+     */
+    public void medir(Runnable operacion) {
+        long inicio = System.nanoTime();
+        try {
+            operacion.run();
+        } catch (RuntimeException e) {
+            registrarError(e);
+            throw e;
+        } finally {
+            registrarLatencia(inicio);
+        }
+    }
+
+    /**
+     * Registra una llamada terminada, con éxito o no.
+     * @param inicio El valor de {@link System#nanoTime()} al empezar la llamada
+     */
+    public void registrarLatencia(long inicio) {
+        llamadas.increment();
+        latencia.registrar(System.nanoTime() - inicio);
+    }
+
+    /**
+     * Registra un error de la operación, clasificado por la parte fija de su mensaje.
+     * @param error La excepción lanzada
+     */
+    public void registrarError(Throwable error) {
+        errores.increment();
+        String categoria = categoria(error);
+        LongAdder contador = erroresPorCategoria.get(categoria);
+        if (contador == null) {
+            if (erroresPorCategoria.size() >= MAX_CATEGORIAS) {
+                categoria = OTRAS;
+            }
+            contador = erroresPorCategoria.computeIfAbsent(categoria, c -> new LongAdder());
+        }
+        contador.increment();
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public long getLlamadas() {
+        return llamadas.sum();
+    }
+
+    public long getErrores() {
+        return errores.sum();
+    }
+
+    public HistogramaLatencia getLatencia() {
+        return latencia;
+    }
+
+    public Map<String, Long> getErroresPorCategoria() {
+        Map<String, Long> resultado = new TreeMap<>();
+        erroresPorCategoria.forEach((categoria, contador) -> resultado.put(categoria, contador.sum()));
+        return resultado;
+    }
+
+    /**
+     * Los mensajes del sistema ponen los datos variables (ISBN, IDs, rutas) después de ": ",
+     * así que la categoría es el texto previo. Sin mensaje se usa el nombre de la excepción.
+     */
+    static String categoria(Throwable error) {
+        String mensaje = error.getMessage();
+        if (mensaje == null || mensaje.isEmpty()) {
+            return error.getClass().getSimpleName();
+        }
+        int separador = mensaje.indexOf(':');
+        return separador < 0 ? mensaje : mensaje.substring(0, separador);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.metricas;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registro de las métricas por operación del sistema.
+ * Se exporta en el formato de texto de Prometheus.
+ */
+public class RegistroMetricas {
+    private static final double[] CUANTILES = {0.5, 0.99, 0.999};
+    private static final double NANOS_POR_SEGUNDO = 1_000_000_000.0;
+
+    private final ConcurrentMap<String, MetricaOperacion> operaciones = new ConcurrentHashMap<>();
+
+    /**
+     * Obtiene la métrica de una operación, creándola la primera vez.
+     * @param nombre El nombre de la operación, por ejemplo "servicio.prestarLibro"
+     * @return La métrica de la operación
+     */
+    public MetricaOperacion operacion(String nombre) {
+        if (nombre == null || nombre.trim().isEmpty()) {
+            throw new IllegalArgumentException("El nombre de la operación no puede estar vacío");
+        }
+        MetricaOperacion metrica = operaciones.get(nombre);
+        return metrica != null ? metrica : operaciones.computeIfAbsent(nombre, MetricaOperacion::new);
+    }
+
+    public List<MetricaOperacion> getOperaciones() {
+        List<MetricaOperacion> resultado = new ArrayList<>(operaciones.values());
+        resultado.sort(Comparator.comparing(MetricaOperacion::getNombre));
+        return resultado;
+    }
+
+    /**
+     * Exporta todas las métricas en el formato de texto de Prometheus.
+     * @return El texto con contadores de llamadas y errores y el resumen de latencias en segundos
+     */
+    public String exportarPrometheus() {
+        List<MetricaOperacion> metricas = getOperaciones();
+        StringBuilder salida = new StringBuilder();
+
+        salida.append("# TYPE biblioteca_operaciones_total counter\n");
+        for (MetricaOperacion metrica : metricas) {
+            salida.append("biblioteca_operaciones_total{operacion=\"").append(escapar(metrica.getNombre()))
+                    .append("\"} ").append(metrica.getLlamadas()).append('\n');
+        }
+
+        salida.append("# TYPE biblioteca_errores_total counter\n");
+        for (MetricaOperacion metrica : metricas) {
+            for (Map.Entry<String, Long> error : metrica.getErroresPorCategoria().entrySet()) {
+                salida.append("biblioteca_errores_total{operacion=\"").append(escapar(metrica.getNombre()))
+                        .append("\",categoria=\"").append(escapar(error.getKey()))
+                        .append("\"} ").append(error.getValue()).append('\n');
+            }
+        }
+
+        salida.append("# TYPE biblioteca_latencia_segundos summary\n");
+        for (MetricaOperacion metrica : metricas) {
+            String operacion = escapar(metrica.getNombre());
+            HistogramaLatencia latencia = metrica.getLatencia();
+            for (double cuantil : CUANTILES) {
+                salida.append("biblioteca_latencia_segundos{operacion=\"").append(operacion)
+                        .append("\",quantile=\"").append(cuantil).append("\"} ")
+                        .append(segundos(latencia.percentil(cuantil))).append('\n');
+            }
+            salida.append("biblioteca_latencia_segundos_sum{operacion=\"").append(operacion).append("\"} ")
+                    .append(segundos(latencia.getSuma())).append('\n');
+            salida.append("biblioteca_latencia_segundos_count{operacion=\"").append(operacion).append("\"} ")
+                    .append(latencia.getTotal()).append('\n');
+        }
+        return salida.toString();
+    }
+
+    private static String segundos(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / NANOS_POR_SEGUNDO);
+    }
+
+    private static String escapar(String valor) {
+        return valor.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
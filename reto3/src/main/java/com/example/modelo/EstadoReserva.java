@@ -0,0 +1,21 @@
+package com.example.modelo;
+
+/**
+ * Estados de una reserva. Solo las reservas en espera o asignadas siguen activas.
+ */
+public enum EstadoReserva {
+    /** En la cola del libro, esperando un ejemplar. */
+    ESPERANDO,
+    /** Tiene un ejemplar apartado que el usuario debe recoger antes de su vencimiento. */
+    ASIGNADA,
+    /** El usuario recogió el ejemplar apartado. */
+    COMPLETADA,
+    /** El usuario canceló la reserva. */
+    CANCELADA,
+    /** Venció sin que el usuario recogiera el ejemplar. */
+    VENCIDA;
+
+    public boolean isActiva() {
+        return this == ESPERANDO || this == ASIGNADA;
+    }
+}
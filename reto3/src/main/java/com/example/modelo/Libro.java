@@ -7,7 +7,9 @@ public class Libro {
     private String titulo;
     private String autor;
     private String categoria;
-    private int ejemplaresDisponibles;
+    private volatile int ejemplaresDisponibles;
+    private final String claveTitulo;
+    private String claveAutor;
 
     public Libro(String isbn, String titulo, String autor, String categoria, int ejemplaresDisponibles) {
         if (isbn == null || isbn.trim().isEmpty()) {
@@ -31,6 +33,8 @@ public class Libro {
         this.autor = autor;
         this.categoria = categoria;
         this.ejemplaresDisponibles = ejemplaresDisponibles;
+        this.claveTitulo = NormalizadorTexto.normalizar(titulo);
+        this.claveAutor = NormalizadorTexto.normalizar(autor);
     }
 
     public String getIsbn() {
@@ -49,6 +53,39 @@ public class Libro {
         return categoria;
     }
 
+    /**
+     * Obtiene el título normalizado para búsquedas, calculado al crear el libro.
+     * @return El título según {@link NormalizadorTexto#normalizar(String)}
+     */
+    public String getClaveTitulo() {
+        return claveTitulo;
+    }
+
+    /**
+     * Obtiene el autor normalizado para búsquedas, calculado al crear el libro.
+     * @return El autor según {@link NormalizadorTexto#normalizar(String)}
+     */
+    public String getClaveAutor() {
+        return claveAutor;
+    }
+
+    /**
+     * Sustituye el autor, su clave de búsqueda y la categoría por instancias iguales
+     * compartidas con otros libros.
+     * @param autor Una cadena igual al autor actual
+     * @param claveAutor Una cadena igual a la clave de búsqueda del autor
+     * @param categoria Una cadena igual a la categoría actual
+     * @throws IllegalArgumentException si alguna no es igual al valor actual
+     */
+    public void compartirCadenas(String autor, String claveAutor, String categoria) {
+        if (!this.autor.equals(autor) || !this.claveAutor.equals(claveAutor) || !this.categoria.equals(categoria)) {
+            throw new IllegalArgumentException("Las cadenas compartidas deben ser iguales a las del libro");
+        }
+        this.autor = autor;
+        this.claveAutor = claveAutor;
+        this.categoria = categoria;
+    }
+
     public int getEjemplaresDisponibles() {
         return ejemplaresDisponibles;
     }
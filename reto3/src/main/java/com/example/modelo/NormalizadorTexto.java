@@ -0,0 +1,63 @@
+package com.example.modelo;
+
+import java.text.Normalizer;
+
+/**
+ * Normaliza textos para búsquedas: minúsculas, sin diacríticos y con los espacios
+ * colapsados, de modo que "Título  de  PRUEBA" y "titulo de prueba" coinciden.
+ */
+public final class NormalizadorTexto {
+
+    private NormalizadorTexto() {
+    }
+
+    /**
+     * Obtiene la clave de búsqueda de un texto.
+     * @param texto El texto a normalizar
+     * @return El texto normalizado; el mismo objeto si ya estaba normalizado
+     */
+    public static String normalizar(String texto) {
+        if (estaNormalizado(texto)) {
+            return texto;
+        }
+        String descompuesto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        StringBuilder resultado = new StringBuilder(descompuesto.length());
+        boolean espacioPendiente = false;
+        for (int i = 0; i < descompuesto.length(); i++) {
+            char c = descompuesto.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                espacioPendiente = resultado.length() > 0;
+                continue;
+            }
+            if (espacioPendiente) {
+                resultado.append(' ');
+                espacioPendiente = false;
+            }
+            resultado.append(Character.toLowerCase(c));
+        }
+        return resultado.toString();
+    }
+
+    /**
+     * Detecta el caso común de un texto ASCII ya en minúsculas y con espacios simples,
+     * para no copiarlo.
+     */
+    private static boolean estaNormalizado(String texto) {
+        int longitud = texto.length();
+        if (longitud > 0 && (texto.charAt(0) == ' ' || texto.charAt(longitud - 1) == ' ')) {
+            return false;
+        }
+        char anterior = 0;
+        for (int i = 0; i < longitud; i++) {
+            char c = texto.charAt(i);
+            if (c >= 0x80 || (c >= 'A' && c <= 'Z') || c < ' ' || (c == ' ' && anterior == ' ')) {
+                return false;
+            }
+            anterior = c;
+        }
+        return true;
+    }
+}
@@ -4,17 +4,26 @@ import java.time.LocalDateTime;
 import java.util.Objects;
 
 public class Prestamo {
+    public static final int DIAS_PRESTAMO = 15;
+
     private String id;
     private String libroIsbn;
     private String usuarioId;
     private LocalDateTime fechaPrestamo;
     private LocalDateTime fechaDevolucion;
+    private final LocalDateTime fechaVencimiento;
 
     public Prestamo(String id, String libroIsbn, String usuarioId) {
         this(id, libroIsbn, usuarioId, LocalDateTime.now(), null);
     }
 
     public Prestamo(String id, String libroIsbn, String usuarioId, LocalDateTime fechaPrestamo, LocalDateTime fechaDevolucion) {
+        this(id, libroIsbn, usuarioId, fechaPrestamo, fechaDevolucion,
+                fechaPrestamo != null ? fechaPrestamo.plusDays(DIAS_PRESTAMO) : null);
+    }
+
+    public Prestamo(String id, String libroIsbn, String usuarioId, LocalDateTime fechaPrestamo, LocalDateTime fechaDevolucion,
+                    LocalDateTime fechaVencimiento) {
         if (id == null || id.trim().isEmpty()) {
             throw new IllegalArgumentException("El ID del préstamo no puede estar vacío");
         }
@@ -27,12 +36,16 @@ public class Prestamo {
         if (fechaPrestamo == null) {
             throw new IllegalArgumentException("La fecha de préstamo no puede ser nula");
         }
+        if (fechaVencimiento == null || fechaVencimiento.isBefore(fechaPrestamo)) {
+            throw new IllegalArgumentException("La fecha de vencimiento no puede ser nula ni anterior al préstamo");
+        }
         
         this.id = id;
         this.libroIsbn = libroIsbn;
         this.usuarioId = usuarioId;
         this.fechaPrestamo = fechaPrestamo;
         this.fechaDevolucion = fechaDevolucion;
+        this.fechaVencimiento = fechaVencimiento;
     }
 
     public String getId() {
@@ -55,6 +68,10 @@ public class Prestamo {
         return fechaDevolucion;
     }
 
+    public LocalDateTime getFechaVencimiento() {
+        return fechaVencimiento;
+    }
+
     public void setFechaDevolucion(LocalDateTime fechaDevolucion) {
         this.fechaDevolucion = fechaDevolucion;
     }
@@ -64,7 +81,11 @@ public class Prestamo {
     }
 
     public boolean estaVencido() {
-        return isActivo() && LocalDateTime.now().isAfter(fechaPrestamo.plusDays(15));
+        return estaVencidoEn(LocalDateTime.now());
+    }
+
+    public boolean estaVencidoEn(LocalDateTime momento) {
+        return isActivo() && momento.isAfter(fechaVencimiento);
     }
 
     @Override
@@ -76,12 +97,13 @@ public class Prestamo {
                Objects.equals(libroIsbn, prestamo.libroIsbn) &&
                Objects.equals(usuarioId, prestamo.usuarioId) &&
                Objects.equals(fechaPrestamo, prestamo.fechaPrestamo) &&
-               Objects.equals(fechaDevolucion, prestamo.fechaDevolucion);
+               Objects.equals(fechaDevolucion, prestamo.fechaDevolucion) &&
+               Objects.equals(fechaVencimiento, prestamo.fechaVencimiento);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, libroIsbn, usuarioId, fechaPrestamo, fechaDevolucion);
+        return Objects.hash(id, libroIsbn, usuarioId, fechaPrestamo, fechaDevolucion, fechaVencimiento);
     }
 
     @Override
@@ -92,6 +114,7 @@ public class Prestamo {
                 ", usuarioId='" + usuarioId + '\'' +
                 ", fechaPrestamo=" + fechaPrestamo +
                 ", fechaDevolucion=" + fechaDevolucion +
+                ", fechaVencimiento=" + fechaVencimiento +
                 ", activo=" + isActivo() +
                 ", vencido=" + estaVencido() +
                 '}';
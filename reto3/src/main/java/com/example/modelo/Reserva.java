@@ -0,0 +1,95 @@
+package com.example.modelo;
+
+import java.time.LocalDateTime;
+
+public class Reserva {
+    private final long turno;
+    private final String libroIsbn;
+    private final String usuarioId;
+    private final LocalDateTime fechaReserva;
+    private volatile EstadoReserva estado;
+    private volatile LocalDateTime fechaVencimiento;
+
+    public Reserva(long turno, String libroIsbn, String usuarioId, LocalDateTime fechaReserva,
+                   LocalDateTime fechaVencimiento) {
+        if (turno <= 0) {
+            throw new IllegalArgumentException("El turno de la reserva debe ser positivo");
+        }
+        if (libroIsbn == null || libroIsbn.trim().isEmpty()) {
+            throw new IllegalArgumentException("El ISBN del libro no puede estar vacío");
+        }
+        if (usuarioId == null || usuarioId.trim().isEmpty()) {
+            throw new IllegalArgumentException("El ID del usuario no puede estar vacío");
+        }
+        if (fechaReserva == null) {
+            throw new IllegalArgumentException("La fecha de reserva no puede ser nula");
+        }
+        if (fechaVencimiento == null || fechaVencimiento.isBefore(fechaReserva)) {
+            throw new IllegalArgumentException("La fecha de vencimiento no puede ser nula ni anterior a la reserva");
+        }
+
+        this.turno = turno;
+        this.libroIsbn = libroIsbn;
+        this.usuarioId = usuarioId;
+        this.fechaReserva = fechaReserva;
+        this.fechaVencimiento = fechaVencimiento;
+        this.estado = EstadoReserva.ESPERANDO;
+    }
+
+    /**
+     * Obtiene el turno de la reserva en la cola de su libro; los turnos se entregan en orden creciente.
+     * @return El turno
+     */
+    public long getTurno() {
+        return turno;
+    }
+
+    public String getLibroIsbn() {
+        return libroIsbn;
+    }
+
+    public String getUsuarioId() {
+        return usuarioId;
+    }
+
+    public LocalDateTime getFechaReserva() {
+        return fechaReserva;
+    }
+
+    public EstadoReserva getEstado() {
+        return estado;
+    }
+
+    public void setEstado(EstadoReserva estado) {
+        this.estado = estado;
+    }
+
+    /**
+     * Obtiene el vencimiento vigente: el de la espera en cola o, si ya tiene un ejemplar
+     * asignado, el plazo para recogerlo.
+     * @return La fecha de vencimiento
+     */
+    public LocalDateTime getFechaVencimiento() {
+        return fechaVencimiento;
+    }
+
+    public void setFechaVencimiento(LocalDateTime fechaVencimiento) {
+        this.fechaVencimiento = fechaVencimiento;
+    }
+
+    public boolean isActiva() {
+        return estado.isActiva();
+    }
+
+    @Override
+    public String toString() {
+        return "Reserva{" +
+                "turno=" + turno +
+                ", libroIsbn='" + libroIsbn + '\'' +
+                ", usuarioId='" + usuarioId + '\'' +
+                ", fechaReserva=" + fechaReserva +
+                ", estado=" + estado +
+                ", fechaVencimiento=" + fechaVencimiento +
+                '}';
+    }
+}
@@ -5,6 +5,7 @@ import java.util.Objects;
 public class Usuario {
     private String id;
     private String nombre;
+    private String claveNombre;
 
     public Usuario(String id, String nombre) {
         if (id == null || id.trim().isEmpty()) {
@@ -15,6 +16,7 @@ public class Usuario {
         }
         this.id = id;
         this.nombre = nombre;
+        this.claveNombre = NormalizadorTexto.normalizar(nombre);
     }
 
     public String getId() {
@@ -30,6 +32,15 @@ public class Usuario {
             throw new IllegalArgumentException("El nombre del usuario no puede estar vacío");
         }
         this.nombre = nombre;
+        this.claveNombre = NormalizadorTexto.normalizar(nombre);
+    }
+
+    /**
+     * Obtiene el nombre normalizado para búsquedas, recalculado cada vez que cambia el nombre.
+     * @return El nombre según {@link NormalizadorTexto#normalizar(String)}
+     */
+    public String getClaveNombre() {
+        return claveNombre;
     }
 
     @Override
@@ -1,14 +1,28 @@
 package com.example.repositorio;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import com.example.modelo.Libro;
 
 public interface BookRepository {
     Libro save(Libro libro);
+    List<Libro> saveAll(Collection<Libro> libros);
     Optional<Libro> findById(String isbn);
+    List<Libro> findAllById(Collection<String> isbns);
     List<Libro> findAll();
+    Pagina<Libro> findPage(OrdenLibros orden, String cursor, int limite);
+    Stream<Libro> stream();
+    List<Libro> findAvailable();
+    long countAvailable();
+    List<Libro> findByCategoria(String categoria);
+    List<Libro> findAvailableByCategoria(String categoria);
+    List<FacetaCategoria> findFacetas();
+    List<Libro> findByTituloContaining(String titulo);
+    List<Libro> findByAutorContaining(String autor);
     void delete(String isbn);
+    void deleteAll(Collection<String> isbns);
     boolean existsById(String isbn);
 } 
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.example.repositorio;
+
+/**
+ * Conteo de libros de una categoría, para la navegación por facetas del catálogo.
+ */
+public class FacetaCategoria {
+    private final String categoria;
+    private final long total;
+    private final long disponibles;
+
+    public FacetaCategoria(String categoria, long total, long disponibles) {
+        this.categoria = categoria;
+        this.total = total;
+        this.disponibles = disponibles;
+    }
+
+    public String getCategoria() {
+        return categoria;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Obtiene cuántos libros de la categoría tienen al menos un ejemplar disponible.
+     * @return El número de libros disponibles
+     */
+    public long getDisponibles() {
+        return disponibles;
+    }
+
+    @Override
+    public String toString() {
+        return categoria + " (" + disponibles + "/" + total + ")";
+    }
+}
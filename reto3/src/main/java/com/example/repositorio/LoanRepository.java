@@ -1,17 +1,26 @@
 package com.example.repositorio;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import com.example.modelo.Prestamo;
 
 public interface LoanRepository {
     Prestamo save(Prestamo prestamo);
+    List<Prestamo> saveAll(Collection<Prestamo> prestamos);
     Optional<Prestamo> findById(String id);
     List<Prestamo> findAll();
     List<Prestamo> findByUserId(String userId);
     List<Prestamo> findActiveByUserId(String userId);
     boolean existsActiveLoan(String libroIsbn);
+    List<Prestamo> findActiveByLibroIsbn(String libroIsbn);
+    void forEachActiveLibroIsbn(Consumer<String> accion);
+    List<Prestamo> findVencidos(LocalDateTime momento);
+    List<Prestamo> findPorVencer(LocalDateTime desde, LocalDateTime hasta);
     Prestamo update(Prestamo prestamo);
     void delete(String id);
+    void deleteAll(Collection<String> ids);
 } 
\ No newline at end of file
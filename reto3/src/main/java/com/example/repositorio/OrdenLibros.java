@@ -0,0 +1,11 @@
+package com.example.repositorio;
+
+/**
+ * Órdenes estables disponibles para recorrer el catálogo por páginas.
+ */
+public enum OrdenLibros {
+    /** Por ISBN. */
+    ISBN,
+    /** Por título sin distinguir mayúsculas; los títulos iguales se ordenan por ISBN. */
+    TITULO
+}
@@ -0,0 +1,16 @@
+package com.example.repositorio;
+
+import java.util.List;
+import java.util.Optional;
+
+import com.example.modelo.Usuario;
+
+public interface UserRepository {
+    Usuario save(Usuario usuario);
+    boolean saveIfAbsent(Usuario usuario);
+    Optional<Usuario> findById(String id);
+    List<Usuario> findAll();
+    List<Usuario> findByNombreContaining(String nombre);
+    void delete(String id);
+    boolean existsById(String id);
+}
@@ -0,0 +1,312 @@
+package com.example.repositorio.impl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import com.example.exception.BibliotecaException;
+
+/**
+ * Bitácora de escritura anticipada de solo anexado.
+ * Cada registro se guarda como longitud, CRC32 y contenido. Al abrirla se
+ * reproducen los registros válidos y se descarta una cola incompleta o corrupta.
+ * Con la política {@link PoliticaSincronizacion#AGRUPADA} los escritores concurrentes
+ * comparten un mismo fsync: el primero en llegar sincroniza todo lo escrito hasta
+ * ese momento y los demás lo encuentran ya confirmado.
+ * Se usan {@link ReentrantLock} y no monitores: un hilo virtual que espera un candado libera
+ * su hilo portador, mientras que uno bloqueado en un {@code synchronized} lo retiene.
+ */
+public class BitacoraEscritura implements Closeable {
+    private static final int TAMANO_ENCABEZADO = 8;
+    private static final long INTERVALO_POR_DEFECTO_MS = 10;
+    private static final long ESPERA_CIERRE_MS = 5000;
+
+    private final FileChannel canal;
+    private final PoliticaSincronizacion politica;
+    private final ReentrantLock candado = new ReentrantLock();
+    private final ReentrantLock candadoSincronizacion = new ReentrantLock();
+    private final ScheduledExecutorService sincronizador;
+    private volatile long escritos;
+    private volatile long sincronizados;
+    private boolean cerrada;
+    // Primer fsync fallido. Lo escrito y no sincronizado pudo perderse, así que desde entonces
+    // la bitácora rechaza escrituras y confirmaciones pendientes con este error como causa.
+    private volatile BibliotecaException fallaSincronizacion;
+
+    public BitacoraEscritura(Path archivo, PoliticaSincronizacion politica) {
+        this(archivo, politica, INTERVALO_POR_DEFECTO_MS);
+    }
+
+    public BitacoraEscritura(Path archivo, PoliticaSincronizacion politica, long intervaloMillis) {
+        if (archivo == null) {
+            throw new BibliotecaException("El archivo de la bitácora no puede ser nulo");
+        }
+        if (politica == null) {
+            throw new BibliotecaException("La política de sincronización no puede ser nula");
+        }
+        try {
+            this.canal = FileChannel.open(archivo, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new BibliotecaException("No se pudo abrir la bitácora: " + archivo, e);
+        }
+        this.politica = politica;
+        if (politica == PoliticaSincronizacion.POR_TIEMPO) {
+            this.sincronizador = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread hilo = new Thread(r, "bitacora-sincronizador");
+                hilo.setDaemon(true);
+                return hilo;
+            });
+            this.sincronizador.scheduleWithFixedDelay(this::sincronizarPeriodicamente,
+                    intervaloMillis, intervaloMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.sincronizador = null;
+        }
+    }
+
+    /**
+     * Reproduce los registros válidos desde el inicio y deja la bitácora lista para anexar.
+     * @param consumidor Recibe el contenido de cada registro en orden
+     */
+    public void reproducir(Consumer<byte[]> consumidor) {
+        candado.lock();
+        try {
+            long posicion = 0;
+            long tamano = canal.size();
+            ByteBuffer encabezado = ByteBuffer.allocate(TAMANO_ENCABEZADO);
+            CRC32 crc = new CRC32();
+            while (posicion + TAMANO_ENCABEZADO <= tamano) {
+                encabezado.clear();
+                leerCompleto(encabezado, posicion);
+                encabezado.flip();
+                int longitud = encabezado.getInt();
+                int suma = encabezado.getInt();
+                if (longitud < 0 || posicion + TAMANO_ENCABEZADO + longitud > tamano) {
+                    break;
+                }
+                ByteBuffer contenido = ByteBuffer.allocate(longitud);
+                leerCompleto(contenido, posicion + TAMANO_ENCABEZADO);
+                crc.reset();
+                crc.update(contenido.array());
+                if ((int) crc.getValue() != suma) {
+                    break;
+                }
+                consumidor.accept(contenido.array());
+                posicion += TAMANO_ENCABEZADO + longitud;
+            }
+            if (posicion < tamano) {
+                canal.truncate(posicion);
+            }
+            canal.position(posicion);
+        } catch (IOException e) {
+            throw new BibliotecaException("No se pudo leer la bitácora", e);
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Anexa un registro sin esperar a que sea durable.
+     * @param registro El contenido del registro
+     * @return El número de secuencia del registro, para {@link #sincronizar(long)}
+     */
+    public long agregar(byte[] registro) {
+        CRC32 crc = new CRC32();
+        crc.update(registro);
+        ByteBuffer buffer = ByteBuffer.allocate(TAMANO_ENCABEZADO + registro.length);
+        buffer.putInt(registro.length).putInt((int) crc.getValue()).put(registro).flip();
+        candado.lock();
+        try {
+            if (cerrada) {
+                throw new BibliotecaException("La bitácora está cerrada");
+            }
+            verificarSincronizacion();
+            long inicio;
+            try {
+                inicio = canal.position();
+            } catch (IOException e) {
+                throw new BibliotecaException("No se pudo escribir en la bitácora", e);
+            }
+            try {
+                while (buffer.hasRemaining()) {
+                    canal.write(buffer);
+                }
+                if (politica == PoliticaSincronizacion.POR_OPERACION) {
+                    canal.force(false);
+                    sincronizados = escritos + 1;
+                }
+            } catch (IOException e) {
+                descartarDesde(inicio);
+                throw new BibliotecaException("No se pudo escribir en la bitácora", e);
+            }
+            escritos++;
+            return escritos;
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Vacía la bitácora, por ejemplo después de que una instantánea capturó su contenido.
+     * El llamador debe impedir escrituras concurrentes mientras tanto.
+     */
+    public void reiniciar() {
+        candado.lock();
+        try {
+            canal.truncate(0);
+            canal.position(0);
+            canal.force(true);
+            sincronizados = escritos;
+        } catch (IOException e) {
+            throw new BibliotecaException("No se pudo reiniciar la bitácora", e);
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Espera a que el registro indicado sea durable según la política configurada.
+     * @param secuencia El número devuelto por {@link #agregar(byte[])}
+     */
+    public void sincronizar(long secuencia) {
+        if (politica != PoliticaSincronizacion.AGRUPADA || sincronizados >= secuencia) {
+            return;
+        }
+        verificarSincronizacion();
+        candadoSincronizacion.lock();
+        try {
+            if (sincronizados >= secuencia) {
+                return;
+            }
+            verificarSincronizacion();
+            // Todo lo escrito hasta aquí queda cubierto por este fsync.
+            long objetivo = escritos;
+            forzar();
+            sincronizados = objetivo;
+        } finally {
+            candadoSincronizacion.unlock();
+        }
+    }
+
+    /**
+     * Anexa un registro y espera a que sea durable según la política configurada.
+     * @param registro El contenido del registro
+     */
+    public void escribir(byte[] registro) {
+        sincronizar(agregar(registro));
+    }
+
+    @Override
+    public void close() {
+        candado.lock();
+        try {
+            if (cerrada) {
+                return;
+            }
+            cerrada = true;
+        } finally {
+            candado.unlock();
+        }
+        if (sincronizador != null) {
+            // Se espera a que termine un fsync periódico en curso antes de cerrar el canal.
+            sincronizador.shutdown();
+            try {
+                if (!sincronizador.awaitTermination(ESPERA_CIERRE_MS, TimeUnit.MILLISECONDS)) {
+                    sincronizador.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        sincronizarPendientes();
+        try {
+            canal.close();
+        } catch (IOException e) {
+            throw new BibliotecaException("No se pudo cerrar la bitácora", e);
+        }
+    }
+
+    /**
+     * Obtiene el fsync fallido que dejó la bitácora inutilizable.
+     * @return La falla, o null si todas las sincronizaciones tuvieron éxito
+     */
+    public BibliotecaException getFallaSincronizacion() {
+        return fallaSincronizacion;
+    }
+
+    /**
+     * Tarea de {@link PoliticaSincronizacion#POR_TIEMPO}. Una excepción cancelaría la tarea
+     * programada sin aviso; la falla ya quedó registrada por {@link #forzar()} y la siguiente
+     * llamada a {@link #agregar(byte[])} o {@link #sincronizar(long)} la relanza.
+     */
+    private void sincronizarPeriodicamente() {
+        try {
+            sincronizarPendientes();
+        } catch (BibliotecaException e) {
+            // Registrada en fallaSincronizacion.
+        }
+    }
+
+    private void verificarSincronizacion() {
+        BibliotecaException falla = fallaSincronizacion;
+        if (falla != null) {
+            throw new BibliotecaException("La bitácora no pudo sincronizarse y no acepta más escrituras", falla);
+        }
+    }
+
+    /**
+     * Quita lo que una escritura fallida alcanzó a anexar. Un registro a medias en medio del
+     * archivo detendría la reproducción y se perderían todos los registros válidos posteriores.
+     * Si ni siquiera se puede truncar, la bitácora se cierra para no anexar detrás del registro roto.
+     */
+    private void descartarDesde(long inicio) {
+        try {
+            canal.truncate(inicio);
+            canal.position(inicio);
+        } catch (IOException e) {
+            cerrada = true;
+        }
+    }
+
+    private void sincronizarPendientes() {
+        candadoSincronizacion.lock();
+        try {
+            long objetivo = escritos;
+            if (sincronizados < objetivo && canal.isOpen() && fallaSincronizacion == null) {
+                forzar();
+                sincronizados = objetivo;
+            }
+        } finally {
+            candadoSincronizacion.unlock();
+        }
+    }
+
+    private void forzar() {
+        try {
+            canal.force(false);
+        } catch (IOException e) {
+            BibliotecaException falla = new BibliotecaException("No se pudo sincronizar la bitácora", e);
+            if (fallaSincronizacion == null) {
+                fallaSincronizacion = falla;
+            }
+            throw falla;
+        }
+    }
+
+    private void leerCompleto(ByteBuffer destino, long posicion) throws IOException {
+        while (destino.hasRemaining()) {
+            if (canal.read(destino, posicion + destino.position()) < 0) {
+                throw new IOException("Fin inesperado de la bitácora");
+            }
+        }
+    }
+}
@@ -1,32 +1,108 @@
 package com.example.repositorio.impl;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
 
 import com.example.exception.BibliotecaException;
 import com.example.modelo.Libro;
 import com.example.repositorio.BookRepository;
+import com.example.repositorio.FacetaCategoria;
+import com.example.repositorio.OrdenLibros;
+import com.example.repositorio.Pagina;
 
 public class BookRepositoryImpl implements BookRepository {
     private final ConcurrentMap<String, Libro> libros;
+    private final IndiceTrigramas indiceTitulos;
+    private final IndiceTrigramas indiceAutores;
+    private final ConcurrentSkipListMap<String, Libro> porIsbn;
+    private final ConcurrentSkipListMap<String, Libro> porTitulo;
+    private final Set<String> disponibles;
+    private final DiccionarioCadenas autores;
+    private final DiccionarioCadenas clavesAutor;
+    private final DiccionarioCadenas categorias;
+    private final ConcurrentMap<Integer, LibrosCategoria> porCategoria;
 
     public BookRepositoryImpl() {
         this.libros = new ConcurrentHashMap<>();
+        this.porIsbn = new ConcurrentSkipListMap<>();
+        this.porTitulo = new ConcurrentSkipListMap<>();
+        this.disponibles = ConcurrentHashMap.newKeySet();
+        this.autores = new DiccionarioCadenas();
+        this.clavesAutor = new DiccionarioCadenas();
+        this.categorias = new DiccionarioCadenas();
+        this.porCategoria = new ConcurrentHashMap<>();
+        this.indiceTitulos = new IndiceTrigramas();
+        this.indiceAutores = new IndiceTrigramas();
     }
 
     @Override
     public Libro save(Libro libro) {
+        validar(libro);
+        guardar(libro);
+        return libro;
+    }
+
+    @Override
+    public List<Libro> saveAll(Collection<Libro> lote) {
+        if (lote == null) {
+            throw new BibliotecaException("La colección de libros no puede ser nula");
+        }
+        // Se valida todo el lote antes de modificar el mapa para que sea todo o nada.
+        for (Libro libro : lote) {
+            validar(libro);
+        }
+        for (Libro libro : lote) {
+            guardar(libro);
+        }
+        return new ArrayList<>(lote);
+    }
+
+    static void validar(Libro libro) {
         if (libro == null) {
             throw new BibliotecaException("El libro no puede ser nulo");
         }
         if (libro.getIsbn() == null || libro.getIsbn().trim().isEmpty()) {
             throw new BibliotecaException("El ISBN no puede estar vacío");
         }
-        libros.put(libro.getIsbn(), libro);
-        return libro;
+    }
+
+    private void guardar(Libro libro) {
+        // Miles de libros repiten autor y categoría: se guardan con instancias compartidas.
+        libro.compartirCadenas(autores.canonico(libro.getAutor()), clavesAutor.canonico(libro.getClaveAutor()),
+                categorias.canonico(libro.getCategoria()));
+        libros.compute(libro.getIsbn(), (isbn, anterior) -> {
+            // Título y autor no cambian sobre la misma instancia; solo se reindexa si es otro libro.
+            if (anterior != libro) {
+                indiceTitulos.indexar(isbn, libro.getClaveTitulo());
+                indiceAutores.indexar(isbn, libro.getClaveAutor());
+                if (anterior != null) {
+                    porTitulo.remove(claveTitulo(anterior));
+                    desindexarCategoria(anterior);
+                }
+                porIsbn.put(isbn, libro);
+                porTitulo.put(claveTitulo(libro), libro);
+            }
+            // Los ejemplares sí cambian sobre la misma instancia, así que la disponibilidad se revisa siempre.
+            boolean disponible = libro.getEjemplaresDisponibles() > 0;
+            if (disponible) {
+                disponibles.add(isbn);
+            } else {
+                disponibles.remove(isbn);
+            }
+            indexarCategoria(libro, disponible);
+            return libro;
+        });
     }
 
     @Override
@@ -37,20 +113,216 @@ public class BookRepositoryImpl implements BookRepository {
         return Optional.ofNullable(libros.get(isbn));
     }
 
+    /**
+     * Busca varios libros en una sola llamada. Los ISBN repetidos se consultan una vez
+     * y los inexistentes se omiten; el resultado respeta el orden de primera aparición.
+     */
+    @Override
+    public List<Libro> findAllById(Collection<String> isbns) {
+        if (isbns == null) {
+            throw new BibliotecaException("La colección de ISBN no puede ser nula");
+        }
+        List<Libro> resultado = new ArrayList<>(isbns.size());
+        Set<String> vistos = new HashSet<>();
+        for (String isbn : isbns) {
+            if (isbn == null || isbn.trim().isEmpty()) {
+                throw new BibliotecaException("El ISBN no puede estar vacío");
+            }
+            if (vistos.add(isbn)) {
+                Libro libro = libros.get(isbn);
+                if (libro != null) {
+                    resultado.add(libro);
+                }
+            }
+        }
+        return resultado;
+    }
+
     @Override
     public List<Libro> findAll() {
         return new ArrayList<>(libros.values());
     }
 
+    /**
+     * Devuelve una página del catálogo en un orden estable. El cursor es la clave de orden
+     * del último libro entregado, así que las altas y bajas entre páginas no repiten ni
+     * saltan los libros que no cambiaron.
+     */
+    @Override
+    public Pagina<Libro> findPage(OrdenLibros orden, String cursor, int limite) {
+        if (orden == null) {
+            throw new BibliotecaException("El orden no puede ser nulo");
+        }
+        if (limite <= 0) {
+            throw new BibliotecaException("El límite de la página debe ser positivo");
+        }
+        NavigableMap<String, Libro> indice = orden == OrdenLibros.ISBN ? porIsbn : porTitulo;
+        NavigableMap<String, Libro> restantes = cursor == null ? indice : indice.tailMap(cursor, false);
+        List<Libro> elementos = new ArrayList<>(Math.min(limite, 1024));
+        String ultimaClave = null;
+        for (Map.Entry<String, Libro> entrada : restantes.entrySet()) {
+            if (elementos.size() == limite) {
+                return new Pagina<>(elementos, ultimaClave);
+            }
+            elementos.add(entrada.getValue());
+            ultimaClave = entrada.getKey();
+        }
+        return new Pagina<>(elementos, null);
+    }
+
+    /**
+     * Recorre el catálogo sin copiarlo. El recorrido es débilmente consistente: refleja
+     * algunas, todas o ninguna de las modificaciones concurrentes, sin lanzar excepciones.
+     */
+    @Override
+    public Stream<Libro> stream() {
+        return libros.values().stream();
+    }
+
+    /**
+     * Lista los libros con ejemplares disponibles a partir del índice de disponibilidad,
+     * sin recorrer los libros agotados.
+     */
+    @Override
+    public List<Libro> findAvailable() {
+        return resolverDisponibles(disponibles);
+    }
+
+    @Override
+    public long countAvailable() {
+        return disponibles.size();
+    }
+
+    @Override
+    public List<Libro> findByCategoria(String categoria) {
+        validarCategoria(categoria);
+        LibrosCategoria indice = librosCategoria(categoria);
+        return indice == null ? new ArrayList<>() : resolver(indice.libros);
+    }
+
+    @Override
+    public List<Libro> findAvailableByCategoria(String categoria) {
+        validarCategoria(categoria);
+        LibrosCategoria indice = librosCategoria(categoria);
+        return indice == null ? new ArrayList<>() : resolverDisponibles(indice.disponibles);
+    }
+
+    /**
+     * Calcula las facetas por categoría a partir de los conteos que mantienen las escrituras,
+     * en tiempo proporcional al número de categorías y no al tamaño del catálogo.
+     * Las facetas se devuelven ordenadas por categoría.
+     */
+    @Override
+    public List<FacetaCategoria> findFacetas() {
+        List<FacetaCategoria> facetas = new ArrayList<>(porCategoria.size());
+        for (Map.Entry<Integer, LibrosCategoria> entrada : porCategoria.entrySet()) {
+            LibrosCategoria indice = entrada.getValue();
+            facetas.add(new FacetaCategoria(categorias.valor(entrada.getKey()),
+                    indice.libros.size(), indice.disponibles.size()));
+        }
+        facetas.sort(Comparator.comparing(FacetaCategoria::getCategoria));
+        return facetas;
+    }
+
+    private LibrosCategoria librosCategoria(String categoria) {
+        int codigo = categorias.codigo(categoria);
+        return codigo == DiccionarioCadenas.SIN_CODIGO ? null : porCategoria.get(codigo);
+    }
+
+    private static void validarCategoria(String categoria) {
+        if (categoria == null || categoria.trim().isEmpty()) {
+            throw new BibliotecaException("La categoría no puede estar vacía");
+        }
+    }
+
+    private List<Libro> resolverDisponibles(Set<String> isbns) {
+        List<Libro> resultado = new ArrayList<>(isbns.size());
+        for (String isbn : isbns) {
+            Libro libro = libros.get(isbn);
+            // Un préstamo pudo descontar el último ejemplar antes de volver a guardar el libro.
+            if (libro != null && libro.getEjemplaresDisponibles() > 0) {
+                resultado.add(libro);
+            }
+        }
+        return resultado;
+    }
+
+    private void indexarCategoria(Libro libro, boolean disponible) {
+        porCategoria.compute(categorias.codificar(libro.getCategoria()), (codigo, indice) -> {
+            LibrosCategoria actual = indice != null ? indice : new LibrosCategoria();
+            actual.libros.add(libro.getIsbn());
+            if (disponible) {
+                actual.disponibles.add(libro.getIsbn());
+            } else {
+                actual.disponibles.remove(libro.getIsbn());
+            }
+            return actual;
+        });
+    }
+
+    private void desindexarCategoria(Libro libro) {
+        // Las categorías vacías se retiran dentro del compute para no perder altas concurrentes.
+        porCategoria.computeIfPresent(categorias.codificar(libro.getCategoria()), (codigo, indice) -> {
+            indice.libros.remove(libro.getIsbn());
+            indice.disponibles.remove(libro.getIsbn());
+            return indice.libros.isEmpty() ? null : indice;
+        });
+    }
+
+    @Override
+    public List<Libro> findByTituloContaining(String titulo) {
+        if (titulo == null || titulo.trim().isEmpty()) {
+            throw new BibliotecaException("El título no puede estar vacío");
+        }
+        return resolver(indiceTitulos.buscar(titulo));
+    }
+
+    @Override
+    public List<Libro> findByAutorContaining(String autor) {
+        if (autor == null || autor.trim().isEmpty()) {
+            throw new BibliotecaException("El autor no puede estar vacío");
+        }
+        return resolver(indiceAutores.buscar(autor));
+    }
+
     @Override
     public void delete(String isbn) {
+        validarExistente(isbn);
+        eliminar(isbn);
+    }
+
+    @Override
+    public void deleteAll(Collection<String> isbns) {
+        if (isbns == null) {
+            throw new BibliotecaException("La colección de ISBN no puede ser nula");
+        }
+        for (String isbn : isbns) {
+            validarExistente(isbn);
+        }
+        for (String isbn : isbns) {
+            eliminar(isbn);
+        }
+    }
+
+    private void validarExistente(String isbn) {
         if (isbn == null || isbn.trim().isEmpty()) {
             throw new BibliotecaException("El ISBN no puede estar vacío");
         }
         if (!libros.containsKey(isbn)) {
             throw new BibliotecaException("No existe un libro con el ISBN: " + isbn);
         }
-        libros.remove(isbn);
+    }
+
+    private void eliminar(String isbn) {
+        libros.computeIfPresent(isbn, (clave, anterior) -> {
+            indiceTitulos.eliminar(clave);
+            indiceAutores.eliminar(clave);
+            porIsbn.remove(clave);
+            porTitulo.remove(claveTitulo(anterior));
+            disponibles.remove(clave);
+            desindexarCategoria(anterior);
+            return null;
+        });
     }
 
     @Override
@@ -60,4 +332,30 @@ public class BookRepositoryImpl implements BookRepository {
         }
         return libros.containsKey(isbn);
     }
-} 
\ No newline at end of file
+
+    /**
+     * El separador NUL ordena un título antes que cualquier otro que lo extienda.
+     */
+    private static String claveTitulo(Libro libro) {
+        return libro.getClaveTitulo() + '\u0000' + libro.getIsbn();
+    }
+
+    private List<Libro> resolver(Collection<String> isbns) {
+        List<Libro> resultado = new ArrayList<>(isbns.size());
+        for (String isbn : isbns) {
+            Libro libro = libros.get(isbn);
+            if (libro != null) {
+                resultado.add(libro);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Libros de una categoría y, entre ellos, los que tienen ejemplares disponibles.
+     */
+    private static final class LibrosCategoria {
+        private final Set<String> libros = ConcurrentHashMap.newKeySet();
+        private final Set<String> disponibles = ConcurrentHashMap.newKeySet();
+    }
+}
@@ -0,0 +1,693 @@
+package com.example.repositorio.impl;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.example.exception.BibliotecaException;
+import com.example.modelo.Prestamo;
+import com.example.repositorio.LoanRepository;
+
+/**
+ * Repositorio de préstamos en columnas de tipos primitivos, pensado para historiales de
+ * decenas de millones de préstamos. Las fechas se guardan como segundos de época en UTC,
+ * el usuario y el libro como ordinales de un diccionario y el estado activo en un {@link BitSet}.
+ * Los {@link Prestamo} solo se crean al leer: cada lectura devuelve instancias nuevas y las
+ * fechas se devuelven truncadas al segundo.
+ * Las filas de un mismo usuario y de un mismo libro se enlazan en listas dobles de la más
+ * reciente a la más antigua, así que las consultas de préstamos activos se detienen al
+ * encontrar todos los que indica su contador, sin recorrer el historial completo.
+ * Una fila eliminada se desenlaza y pasa a una lista de filas libres que reutilizan las
+ * altas siguientes, de modo que las columnas no crecen con las bajas.
+ * Los préstamos activos se indexan además por vencimiento, para que las consultas de
+ * vencidos y por vencer solo recorran las filas que caen en el rango.
+ */
+public class ColumnarLoanRepository implements LoanRepository {
+    private static final int CAPACIDAD_INICIAL = 1024;
+    private static final int SIN_FILA = -1;
+    private static final long SIN_FECHA = Long.MIN_VALUE;
+    private static final Comparator<Prestamo> POR_VENCIMIENTO =
+            Comparator.comparing(Prestamo::getFechaVencimiento).thenComparing(Prestamo::getId);
+
+    private final ReentrantReadWriteLock candado = new ReentrantReadWriteLock();
+    private final Diccionario usuarios = new Diccionario();
+    private final Diccionario libros = new Diccionario();
+    private final BitSet activos = new BitSet();
+    private String[] ids = new String[CAPACIDAD_INICIAL];
+    private int[] usuario = new int[CAPACIDAD_INICIAL];
+    private int[] libro = new int[CAPACIDAD_INICIAL];
+    private long[] fechaPrestamo = new long[CAPACIDAD_INICIAL];
+    private long[] fechaVencimiento = new long[CAPACIDAD_INICIAL];
+    private long[] fechaDevolucion = new long[CAPACIDAD_INICIAL];
+    private int[] anteriorDelUsuario = new int[CAPACIDAD_INICIAL];
+    private int[] anteriorDelLibro = new int[CAPACIDAD_INICIAL];
+    private int[] siguienteDelUsuario = new int[CAPACIDAD_INICIAL];
+    private int[] siguienteDelLibro = new int[CAPACIDAD_INICIAL];
+    private int filas;
+    private int[] libres = new int[CAPACIDAD_INICIAL];
+    private int cantidadLibres;
+    private final IndiceVencimientos vencimientos = new IndiceVencimientos();
+    // Tabla hash abierta de ID a fila, con sondeo lineal; las filas eliminadas se retiran de ella.
+    private int[] tabla = nuevaTabla(CAPACIDAD_INICIAL * 2);
+    private int ocupadas;
+
+    @Override
+    public Prestamo save(Prestamo prestamo) {
+        validar(prestamo);
+        candado.writeLock().lock();
+        try {
+            guardar(prestamo);
+        } finally {
+            candado.writeLock().unlock();
+        }
+        return prestamo;
+    }
+
+    @Override
+    public List<Prestamo> saveAll(Collection<Prestamo> lote) {
+        if (lote == null) {
+            throw new BibliotecaException("La colección de préstamos no puede ser nula");
+        }
+        for (Prestamo prestamo : lote) {
+            validar(prestamo);
+        }
+        candado.writeLock().lock();
+        try {
+            for (Prestamo prestamo : lote) {
+                guardar(prestamo);
+            }
+        } finally {
+            candado.writeLock().unlock();
+        }
+        return new ArrayList<>(lote);
+    }
+
+    private void validar(Prestamo prestamo) {
+        if (prestamo == null) {
+            throw new BibliotecaException("El préstamo no puede ser nulo");
+        }
+        if (prestamo.getId() == null || prestamo.getId().trim().isEmpty()) {
+            throw new BibliotecaException("El ID del préstamo no puede estar vacío");
+        }
+        if (prestamo.getLibroIsbn() == null || prestamo.getLibroIsbn().trim().isEmpty()) {
+            throw new BibliotecaException("El ISBN del libro no puede estar vacío");
+        }
+        if (prestamo.getUsuarioId() == null || prestamo.getUsuarioId().trim().isEmpty()) {
+            throw new BibliotecaException("El ID del usuario no puede estar vacío");
+        }
+    }
+
+    @Override
+    public Optional<Prestamo> findById(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            throw new BibliotecaException("El ID del préstamo no puede estar vacío");
+        }
+        candado.readLock().lock();
+        try {
+            int fila = buscarFila(id);
+            return fila == SIN_FILA ? Optional.empty() : Optional.of(materializar(fila));
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Prestamo> findAll() {
+        candado.readLock().lock();
+        try {
+            List<Prestamo> resultado = new ArrayList<>(ocupadas);
+            for (int fila = 0; fila < filas; fila++) {
+                if (ids[fila] != null) {
+                    resultado.add(materializar(fila));
+                }
+            }
+            return resultado;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Prestamo> findByUserId(String userId) {
+        if (userId == null || userId.trim().isEmpty()) {
+            throw new BibliotecaException("El ID del usuario no puede estar vacío");
+        }
+        candado.readLock().lock();
+        try {
+            List<Prestamo> resultado = new ArrayList<>();
+            int ordinal = usuarios.ordinal(userId);
+            if (ordinal != SIN_FILA) {
+                for (int fila = usuarios.ultimaFila[ordinal]; fila != SIN_FILA; fila = anteriorDelUsuario[fila]) {
+                    resultado.add(materializar(fila));
+                }
+            }
+            return resultado;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Prestamo> findActiveByUserId(String userId) {
+        if (userId == null || userId.trim().isEmpty()) {
+            throw new BibliotecaException("El ID del usuario no puede estar vacío");
+        }
+        candado.readLock().lock();
+        try {
+            return activosDe(usuarios, usuarios.ordinal(userId), anteriorDelUsuario);
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean existsActiveLoan(String libroIsbn) {
+        if (libroIsbn == null || libroIsbn.trim().isEmpty()) {
+            throw new BibliotecaException("El ISBN del libro no puede estar vacío");
+        }
+        candado.readLock().lock();
+        try {
+            int ordinal = libros.ordinal(libroIsbn);
+            return ordinal != SIN_FILA && libros.activos[ordinal] > 0;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Prestamo> findActiveByLibroIsbn(String libroIsbn) {
+        if (libroIsbn == null || libroIsbn.trim().isEmpty()) {
+            throw new BibliotecaException("El ISBN del libro no puede estar vacío");
+        }
+        candado.readLock().lock();
+        try {
+            return activosDe(libros, libros.ordinal(libroIsbn), anteriorDelLibro);
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void forEachActiveLibroIsbn(Consumer<String> accion) {
+        if (accion == null) {
+            throw new BibliotecaException("La acción no puede ser nula");
+        }
+        candado.readLock().lock();
+        try {
+            for (int ordinal = 0; ordinal < libros.valores.size(); ordinal++) {
+                if (libros.activos[ordinal] > 0) {
+                    accion.accept(libros.valores.get(ordinal));
+                }
+            }
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Recorre solo el tramo del índice de vencimientos que cae en el rango: únicamente se
+     * visitan y materializan los préstamos activos que se devuelven.
+     */
+    @Override
+    public List<Prestamo> findVencidos(LocalDateTime momento) {
+        if (momento == null) {
+            throw new BibliotecaException("La fecha no puede ser nula");
+        }
+        // Un vencimiento entero en segundos es anterior al momento si es menor que su techo.
+        return activosEntre(Long.MIN_VALUE, techo(momento) - 1);
+    }
+
+    @Override
+    public List<Prestamo> findPorVencer(LocalDateTime desde, LocalDateTime hasta) {
+        if (desde == null || hasta == null) {
+            throw new BibliotecaException("Las fechas no pueden ser nulas");
+        }
+        if (hasta.isBefore(desde)) {
+            return new ArrayList<>();
+        }
+        return activosEntre(techo(desde), aSegundos(hasta));
+    }
+
+    @Override
+    public Prestamo update(Prestamo prestamo) {
+        if (prestamo == null) {
+            throw new BibliotecaException("El préstamo no puede ser nulo");
+        }
+        if (prestamo.getId() == null || prestamo.getId().trim().isEmpty()) {
+            throw new BibliotecaException("El ID del préstamo no puede estar vacío");
+        }
+        candado.writeLock().lock();
+        try {
+            if (buscarFila(prestamo.getId()) == SIN_FILA) {
+                throw new BibliotecaException("No existe un préstamo con el ID: " + prestamo.getId());
+            }
+            validar(prestamo);
+            guardar(prestamo);
+        } finally {
+            candado.writeLock().unlock();
+        }
+        return prestamo;
+    }
+
+    @Override
+    public void delete(String id) {
+        candado.writeLock().lock();
+        try {
+            eliminar(validarExistente(id));
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteAll(Collection<String> ids) {
+        if (ids == null) {
+            throw new BibliotecaException("La colección de IDs no puede ser nula");
+        }
+        candado.writeLock().lock();
+        try {
+            for (String id : ids) {
+                validarExistente(id);
+            }
+            for (String id : ids) {
+                int fila = buscarFila(id);
+                if (fila != SIN_FILA) {
+                    eliminar(fila);
+                }
+            }
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    private int validarExistente(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            throw new BibliotecaException("El ID del préstamo no puede estar vacío");
+        }
+        int fila = buscarFila(id);
+        if (fila == SIN_FILA) {
+            throw new BibliotecaException("No existe un préstamo con el ID: " + id);
+        }
+        return fila;
+    }
+
+    /**
+     * Actualiza la fila del préstamo o agrega una nueva. Si cambió el usuario o el libro,
+     * la fila anterior se descarta para no romper las cadenas por usuario y por libro.
+     * Debe llamarse con el candado de escritura tomado.
+     */
+    private void guardar(Prestamo prestamo) {
+        int fila = buscarFila(prestamo.getId());
+        if (fila != SIN_FILA && (usuario[fila] != usuarios.ordinal(prestamo.getUsuarioId())
+                || libro[fila] != libros.ordinal(prestamo.getLibroIsbn()))) {
+            eliminar(fila);
+            fila = SIN_FILA;
+        }
+        if (fila == SIN_FILA) {
+            fila = agregarFila(prestamo);
+        } else if (activos.get(fila)) {
+            vencimientos.quitar(fechaVencimiento[fila], fila);
+        }
+        fechaPrestamo[fila] = aSegundos(prestamo.getFechaPrestamo());
+        fechaVencimiento[fila] = aSegundos(prestamo.getFechaVencimiento());
+        fechaDevolucion[fila] = prestamo.getFechaDevolucion() == null
+                ? SIN_FECHA : aSegundos(prestamo.getFechaDevolucion());
+        marcarActivo(fila, prestamo.isActivo());
+        if (prestamo.isActivo()) {
+            vencimientos.agregar(fechaVencimiento[fila], fila);
+        }
+    }
+
+    /**
+     * Ocupa una fila libre o, si no hay, una nueva al final, y la enlaza al inicio de las
+     * cadenas de su usuario y de su libro.
+     */
+    private int agregarFila(Prestamo prestamo) {
+        int fila;
+        if (cantidadLibres > 0) {
+            fila = libres[--cantidadLibres];
+        } else {
+            if (filas == ids.length) {
+                crecer();
+            }
+            fila = filas++;
+        }
+        int ordinalUsuario = usuarios.registrar(prestamo.getUsuarioId());
+        int ordinalLibro = libros.registrar(prestamo.getLibroIsbn());
+        ids[fila] = prestamo.getId();
+        usuario[fila] = ordinalUsuario;
+        libro[fila] = ordinalLibro;
+        enlazar(usuarios, ordinalUsuario, fila, anteriorDelUsuario, siguienteDelUsuario);
+        enlazar(libros, ordinalLibro, fila, anteriorDelLibro, siguienteDelLibro);
+        insertarEnTabla(fila);
+        return fila;
+    }
+
+    /**
+     * Desenlaza la fila de sus cadenas y la deja en la lista de filas libres.
+     */
+    private void eliminar(int fila) {
+        if (activos.get(fila)) {
+            vencimientos.quitar(fechaVencimiento[fila], fila);
+        }
+        marcarActivo(fila, false);
+        quitarDeTabla(fila);
+        desenlazar(usuarios, usuario[fila], fila, anteriorDelUsuario, siguienteDelUsuario);
+        desenlazar(libros, libro[fila], fila, anteriorDelLibro, siguienteDelLibro);
+        ids[fila] = null;
+        libres[cantidadLibres++] = fila;
+    }
+
+    private static void enlazar(Diccionario diccionario, int ordinal, int fila, int[] anterior, int[] siguiente) {
+        int ultima = diccionario.ultimaFila[ordinal];
+        anterior[fila] = ultima;
+        siguiente[fila] = SIN_FILA;
+        if (ultima != SIN_FILA) {
+            siguiente[ultima] = fila;
+        }
+        diccionario.ultimaFila[ordinal] = fila;
+    }
+
+    private static void desenlazar(Diccionario diccionario, int ordinal, int fila, int[] anterior, int[] siguiente) {
+        int previa = anterior[fila];
+        int posterior = siguiente[fila];
+        if (posterior == SIN_FILA) {
+            diccionario.ultimaFila[ordinal] = previa;
+        } else {
+            anterior[posterior] = previa;
+        }
+        if (previa != SIN_FILA) {
+            siguiente[previa] = posterior;
+        }
+    }
+
+    private void marcarActivo(int fila, boolean activo) {
+        if (activos.get(fila) == activo) {
+            return;
+        }
+        activos.set(fila, activo);
+        int cambio = activo ? 1 : -1;
+        usuarios.activos[usuario[fila]] += cambio;
+        libros.activos[libro[fila]] += cambio;
+    }
+
+    private List<Prestamo> activosDe(Diccionario diccionario, int ordinal, int[] anterior) {
+        List<Prestamo> resultado = new ArrayList<>();
+        if (ordinal == SIN_FILA) {
+            return resultado;
+        }
+        int restantes = diccionario.activos[ordinal];
+        // Los préstamos activos suelen ser los más recientes, al inicio de la cadena.
+        for (int fila = diccionario.ultimaFila[ordinal]; fila != SIN_FILA && restantes > 0; fila = anterior[fila]) {
+            if (activos.get(fila)) {
+                resultado.add(materializar(fila));
+                restantes--;
+            }
+        }
+        return resultado;
+    }
+
+    private List<Prestamo> activosEntre(long desde, long hasta) {
+        candado.readLock().lock();
+        try {
+            List<Prestamo> resultado = new ArrayList<>();
+            vencimientos.recorrer(desde, hasta, fila -> resultado.add(materializar(fila)));
+            // El índice ya entrega el orden por vencimiento; solo se desempatan por ID los que
+            // vencen en el mismo segundo, y sobre una lista casi ordenada el sort es lineal.
+            resultado.sort(POR_VENCIMIENTO);
+            return resultado;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    private Prestamo materializar(int fila) {
+        long devolucion = fechaDevolucion[fila];
+        return new Prestamo(ids[fila], libros.valores.get(libro[fila]), usuarios.valores.get(usuario[fila]),
+                aFecha(fechaPrestamo[fila]), devolucion == SIN_FECHA ? null : aFecha(devolucion),
+                aFecha(fechaVencimiento[fila]));
+    }
+
+    private void crecer() {
+        int capacidad = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacidad);
+        usuario = Arrays.copyOf(usuario, capacidad);
+        libro = Arrays.copyOf(libro, capacidad);
+        fechaPrestamo = Arrays.copyOf(fechaPrestamo, capacidad);
+        fechaVencimiento = Arrays.copyOf(fechaVencimiento, capacidad);
+        fechaDevolucion = Arrays.copyOf(fechaDevolucion, capacidad);
+        anteriorDelUsuario = Arrays.copyOf(anteriorDelUsuario, capacidad);
+        anteriorDelLibro = Arrays.copyOf(anteriorDelLibro, capacidad);
+        siguienteDelUsuario = Arrays.copyOf(siguienteDelUsuario, capacidad);
+        siguienteDelLibro = Arrays.copyOf(siguienteDelLibro, capacidad);
+        libres = Arrays.copyOf(libres, capacidad);
+    }
+
+    /**
+     * Cantidad de filas reservadas en las columnas, ocupadas o libres.
+     */
+    int filasReservadas() {
+        candado.readLock().lock();
+        try {
+            return filas;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    private int buscarFila(String id) {
+        int mascara = tabla.length - 1;
+        for (int i = posicion(id, mascara); ; i = (i + 1) & mascara) {
+            int fila = tabla[i];
+            if (fila == SIN_FILA || ids[fila].equals(id)) {
+                return fila;
+            }
+        }
+    }
+
+    private void insertarEnTabla(int fila) {
+        if ((ocupadas + 1) * 2 > tabla.length) {
+            int[] anterior = tabla;
+            tabla = nuevaTabla(anterior.length * 2);
+            for (int existente : anterior) {
+                if (existente != SIN_FILA) {
+                    colocar(existente);
+                }
+            }
+        }
+        colocar(fila);
+        ocupadas++;
+    }
+
+    private void colocar(int fila) {
+        int mascara = tabla.length - 1;
+        int i = posicion(ids[fila], mascara);
+        while (tabla[i] != SIN_FILA) {
+            i = (i + 1) & mascara;
+        }
+        tabla[i] = fila;
+    }
+
+    /**
+     * Retira la fila de la tabla desplazando hacia atrás las entradas siguientes del mismo
+     * grupo, para que la tabla no acumule marcas de borrado.
+     */
+    private void quitarDeTabla(int fila) {
+        int mascara = tabla.length - 1;
+        int hueco = posicion(ids[fila], mascara);
+        while (tabla[hueco] != fila) {
+            hueco = (hueco + 1) & mascara;
+        }
+        for (int i = (hueco + 1) & mascara; tabla[i] != SIN_FILA; i = (i + 1) & mascara) {
+            int ideal = posicion(ids[tabla[i]], mascara);
+            if (((i - ideal) & mascara) >= ((i - hueco) & mascara)) {
+                tabla[hueco] = tabla[i];
+                hueco = i;
+            }
+        }
+        tabla[hueco] = SIN_FILA;
+        ocupadas--;
+    }
+
+    private static int posicion(String id, int mascara) {
+        int h = id.hashCode();
+        return (h ^ (h >>> 16)) & mascara;
+    }
+
+    private static int[] nuevaTabla(int capacidad) {
+        int[] tabla = new int[capacidad];
+        Arrays.fill(tabla, SIN_FILA);
+        return tabla;
+    }
+
+    private static long aSegundos(LocalDateTime fecha) {
+        return fecha.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static long techo(LocalDateTime fecha) {
+        return aSegundos(fecha) + (fecha.getNano() > 0 ? 1 : 0);
+    }
+
+    private static LocalDateTime aFecha(long segundos) {
+        return LocalDateTime.ofEpochSecond(segundos, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Asigna ordinales densos a los valores repetidos (usuarios o ISBN) y guarda, por ordinal,
+     * la fila más reciente y cuántos préstamos activos tiene.
+     */
+    private static final class Diccionario {
+        private final Map<String, Integer> ordinales = new HashMap<>();
+        private final List<String> valores = new ArrayList<>();
+        private int[] ultimaFila = new int[0];
+        private int[] activos = new int[0];
+
+        private int ordinal(String valor) {
+            Integer ordinal = ordinales.get(valor);
+            return ordinal == null ? SIN_FILA : ordinal;
+        }
+
+        private int registrar(String valor) {
+            Integer existente = ordinales.get(valor);
+            if (existente != null) {
+                return existente;
+            }
+            int ordinal = valores.size();
+            if (ordinal == ultimaFila.length) {
+                int capacidad = Math.max(16, ordinal * 2);
+                ultimaFila = Arrays.copyOf(ultimaFila, capacidad);
+                activos = Arrays.copyOf(activos, capacidad);
+            }
+            ultimaFila[ordinal] = SIN_FILA;
+            ordinales.put(valor, ordinal);
+            valores.add(valor);
+            return ordinal;
+        }
+    }
+
+    /**
+     * Índice de los préstamos activos ordenado por vencimiento y fila, guardado en bloques de
+     * arreglos primitivos. Un alta o una baja busca su bloque por bisección y desplaza como
+     * mucho un bloque, y un rango se recorre desde su primera entrada sin mirar las demás.
+     */
+    private static final class IndiceVencimientos {
+        private static final int TAMANO_BLOQUE = 512;
+
+        private final List<Bloque> bloques = new ArrayList<>();
+
+        private void agregar(long vencimiento, int fila) {
+            if (bloques.isEmpty()) {
+                bloques.add(new Bloque());
+            }
+            int indice = bloqueDe(vencimiento, fila);
+            Bloque bloque = bloques.get(indice);
+            bloque.insertar(bloque.buscar(vencimiento, fila), vencimiento, fila);
+            if (bloque.tamano == 2 * TAMANO_BLOQUE) {
+                bloques.add(indice + 1, bloque.partir());
+            }
+        }
+
+        private void quitar(long vencimiento, int fila) {
+            int indice = bloqueDe(vencimiento, fila);
+            Bloque bloque = bloques.get(indice);
+            bloque.quitar(bloque.buscar(vencimiento, fila));
+            if (bloque.tamano == 0) {
+                bloques.remove(indice);
+            }
+        }
+
+        private void recorrer(long desde, long hasta, IntConsumer accion) {
+            int indice = bloqueDe(desde, Integer.MIN_VALUE);
+            for (int b = indice; b < bloques.size(); b++) {
+                Bloque bloque = bloques.get(b);
+                for (int i = b == indice ? bloque.buscar(desde, Integer.MIN_VALUE) : 0; i < bloque.tamano; i++) {
+                    if (bloque.vencimientos[i] > hasta) {
+                        return;
+                    }
+                    accion.accept(bloque.filas[i]);
+                }
+            }
+        }
+
+        /**
+         * Primer bloque cuya última entrada no es menor que la clave, o el último si no hay.
+         */
+        private int bloqueDe(long vencimiento, int fila) {
+            int bajo = 0;
+            int alto = bloques.size() - 1;
+            while (bajo < alto) {
+                int medio = (bajo + alto) >>> 1;
+                Bloque bloque = bloques.get(medio);
+                int ultima = bloque.tamano - 1;
+                if (comparar(bloque.vencimientos[ultima], bloque.filas[ultima], vencimiento, fila) < 0) {
+                    bajo = medio + 1;
+                } else {
+                    alto = medio;
+                }
+            }
+            return bajo;
+        }
+
+        private static int comparar(long vencimiento, int fila, long otroVencimiento, int otraFila) {
+            return vencimiento != otroVencimiento
+                    ? Long.compare(vencimiento, otroVencimiento) : Integer.compare(fila, otraFila);
+        }
+
+        private static final class Bloque {
+            private final long[] vencimientos = new long[2 * TAMANO_BLOQUE];
+            private final int[] filas = new int[2 * TAMANO_BLOQUE];
+            private int tamano;
+
+            /**
+             * Posición de la primera entrada que no es menor que la clave.
+             */
+            private int buscar(long vencimiento, int fila) {
+                int bajo = 0;
+                int alto = tamano;
+                while (bajo < alto) {
+                    int medio = (bajo + alto) >>> 1;
+                    if (comparar(vencimientos[medio], filas[medio], vencimiento, fila) < 0) {
+                        bajo = medio + 1;
+                    } else {
+                        alto = medio;
+                    }
+                }
+                return bajo;
+            }
+
+            private void insertar(int posicion, long vencimiento, int fila) {
+                System.arraycopy(vencimientos, posicion, vencimientos, posicion + 1, tamano - posicion);
+                System.arraycopy(filas, posicion, filas, posicion + 1, tamano - posicion);
+                vencimientos[posicion] = vencimiento;
+                filas[posicion] = fila;
+                tamano++;
+            }
+
+            private void quitar(int posicion) {
+                System.arraycopy(vencimientos, posicion + 1, vencimientos, posicion, tamano - posicion - 1);
+                System.arraycopy(filas, posicion + 1, filas, posicion, tamano - posicion - 1);
+                tamano--;
+            }
+
+            private Bloque partir() {
+                Bloque mitad = new Bloque();
+                mitad.tamano = tamano - TAMANO_BLOQUE;
+                System.arraycopy(vencimientos, TAMANO_BLOQUE, mitad.vencimientos, 0, mitad.tamano);
+                System.arraycopy(filas, TAMANO_BLOQUE, mitad.filas, 0, mitad.tamano);
+                tamano = TAMANO_BLOQUE;
+                return mitad;
+            }
+        }
+    }
+}
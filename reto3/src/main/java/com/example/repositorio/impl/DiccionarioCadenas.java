@@ -0,0 +1,95 @@
+package com.example.repositorio.impl;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Diccionario concurrente que asigna a cada cadena distinta una instancia canónica
+ * y un código entero denso. Pensado para valores muy repetidos, como autores y
+ * categorías: los libros comparten la misma instancia y los filtros comparan códigos.
+ * Los códigos no se reciclan, así que el diccionario crece con el número de valores distintos.
+ */
+public class DiccionarioCadenas {
+    public static final int SIN_CODIGO = -1;
+
+    private final ConcurrentMap<String, Entrada> entradas;
+    private volatile String[] valores;
+    private int siguienteCodigo;
+
+    public DiccionarioCadenas() {
+        this.entradas = new ConcurrentHashMap<>();
+        this.valores = new String[16];
+    }
+
+    /**
+     * Obtiene la instancia canónica de un valor, registrándolo si es nuevo.
+     * @param valor El valor a canonicalizar
+     * @return Una instancia igual al valor, compartida por todos los que lo registraron
+     */
+    public String canonico(String valor) {
+        return registrar(valor).valor;
+    }
+
+    /**
+     * Obtiene el código de un valor, registrándolo si es nuevo.
+     * @param valor El valor a codificar
+     * @return El código del valor
+     */
+    public int codificar(String valor) {
+        return registrar(valor).codigo;
+    }
+
+    /**
+     * Obtiene el código de un valor sin registrarlo.
+     * @param valor El valor a buscar
+     * @return El código, o {@link #SIN_CODIGO} si el valor nunca se registró
+     */
+    public int codigo(String valor) {
+        Entrada entrada = entradas.get(valor);
+        return entrada == null ? SIN_CODIGO : entrada.codigo;
+    }
+
+    /**
+     * Obtiene el valor canónico de un código.
+     * @param codigo Un código devuelto por este diccionario
+     * @return El valor asociado al código
+     */
+    public String valor(int codigo) {
+        return valores[codigo];
+    }
+
+    public int tamano() {
+        return entradas.size();
+    }
+
+    private Entrada registrar(String valor) {
+        Entrada entrada = entradas.get(valor);
+        if (entrada != null) {
+            return entrada;
+        }
+        return entradas.computeIfAbsent(valor, this::crearEntrada);
+    }
+
+    private synchronized Entrada crearEntrada(String valor) {
+        int codigo = siguienteCodigo++;
+        String[] actuales = valores;
+        if (codigo == actuales.length) {
+            actuales = Arrays.copyOf(actuales, actuales.length * 2);
+        }
+        actuales[codigo] = valor;
+        // Se publica el arreglo después de escribir el valor para que valor(codigo) lo vea.
+        valores = actuales;
+        return new Entrada(valor, codigo);
+    }
+
+    private static final class Entrada {
+        private final String valor;
+        private final int codigo;
+
+        private Entrada(String valor, int codigo) {
+            this.valor = valor;
+            this.codigo = codigo;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.repositorio.impl;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.example.modelo.NormalizadorTexto;
+
+/**
+ * Índice invertido de trigramas para búsquedas por subcadena.
+ * Cada clave (por ejemplo, el ISBN) se asocia a un texto; una consulta solo
+ * verifica las claves de la lista de trigramas más corta de la consulta.
+ */
+public class IndiceTrigramas {
+    private static final int LONGITUD_TRIGRAMA = 3;
+
+    private final ConcurrentMap<Long, Set<String>> postings;
+    private final ConcurrentMap<String, String> textos;
+
+    public IndiceTrigramas() {
+        this.postings = new ConcurrentHashMap<>();
+        this.textos = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Indexa el texto asociado a una clave, reemplazando el texto anterior si existía.
+     * El índice guarda la misma instancia recibida, sin copiarla.
+     * @param clave La clave del documento
+     * @param normalizado El texto a indexar, ya normalizado con {@link NormalizadorTexto#normalizar(String)}
+     */
+    public void indexar(String clave, String normalizado) {
+        String anterior = textos.put(clave, normalizado);
+        if (normalizado.equals(anterior)) {
+            return;
+        }
+        if (anterior != null) {
+            for (Long trigrama : trigramas(anterior)) {
+                quitarPosting(trigrama, clave);
+            }
+        }
+        for (Long trigrama : trigramas(normalizado)) {
+            postings.compute(trigrama, (t, claves) -> {
+                Set<String> resultado = claves != null ? claves : ConcurrentHashMap.newKeySet();
+                resultado.add(clave);
+                return resultado;
+            });
+        }
+    }
+
+    /**
+     * Elimina una clave del índice.
+     * @param clave La clave del documento
+     */
+    public void eliminar(String clave) {
+        String anterior = textos.remove(clave);
+        if (anterior == null) {
+            return;
+        }
+        for (Long trigrama : trigramas(anterior)) {
+            quitarPosting(trigrama, clave);
+        }
+    }
+
+    /**
+     * Busca las claves cuyo texto contiene la consulta, sin distinguir mayúsculas ni acentos.
+     * Las consultas de menos de tres caracteres no tienen trigramas y recorren los textos indexados.
+     * @param consulta El texto a buscar
+     * @return Lista de claves que coinciden
+     */
+    public List<String> buscar(String consulta) {
+        String normalizada = NormalizadorTexto.normalizar(consulta);
+        List<String> resultado = new ArrayList<>();
+        if (normalizada.length() < LONGITUD_TRIGRAMA) {
+            for (Map.Entry<String, String> entrada : textos.entrySet()) {
+                if (entrada.getValue().contains(normalizada)) {
+                    resultado.add(entrada.getKey());
+                }
+            }
+            return resultado;
+        }
+
+        Set<String> candidatos = null;
+        for (Long trigrama : trigramas(normalizada)) {
+            Set<String> claves = postings.get(trigrama);
+            if (claves == null) {
+                return resultado;
+            }
+            if (candidatos == null || claves.size() < candidatos.size()) {
+                candidatos = claves;
+            }
+        }
+        for (String clave : candidatos) {
+            String texto = textos.get(clave);
+            if (texto != null && texto.contains(normalizada)) {
+                resultado.add(clave);
+            }
+        }
+        return resultado;
+    }
+
+    private void quitarPosting(Long trigrama, String clave) {
+        postings.computeIfPresent(trigrama, (t, claves) -> {
+            claves.remove(clave);
+            return claves.isEmpty() ? null : claves;
+        });
+    }
+
+    private static Set<Long> trigramas(String texto) {
+        Set<Long> resultado = new HashSet<>();
+        for (int i = 0; i + LONGITUD_TRIGRAMA <= texto.length(); i++) {
+            resultado.add(((long) texto.charAt(i) << 32)
+                    | ((long) texto.charAt(i + 1) << 16)
+                    | texto.charAt(i + 2));
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.repositorio.impl;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import com.example.exception.BibliotecaException;
+import com.example.modelo.Libro;
+import com.example.modelo.Prestamo;
+
+/**
+ * Instantánea binaria del catálogo, leída mediante {@link FileChannel#map}.
+ * El archivo contiene los libros ordenados por ISBN, una tabla de desplazamientos
+ * para buscarlos por búsqueda binaria sin cargarlos en el heap, los préstamos y un
+ * pie con los conteos y las posiciones de cada sección. Se limita a 2 GB por archivo.
+ */
+public class InstantaneaCatalogo {
+    private static final int MAGIA = 0x42494231;
+    private static final int VERSION = 2;
+    private static final int VERSION_SIN_VENCIMIENTO = 1;
+    private static final int TAMANO_PIE = 32;
+
+    private final MappedByteBuffer buffer;
+    private final int numLibros;
+    private final int numPrestamos;
+    private final int inicioIndice;
+    private final int inicioPrestamos;
+    private final int version;
+
+    private InstantaneaCatalogo(MappedByteBuffer buffer, int version, int numLibros, int numPrestamos,
+                                int inicioIndice, int inicioPrestamos) {
+        this.buffer = buffer;
+        this.version = version;
+        this.numLibros = numLibros;
+        this.numPrestamos = numPrestamos;
+        this.inicioIndice = inicioIndice;
+        this.inicioPrestamos = inicioPrestamos;
+    }
+
+    /**
+     * Escribe una instantánea de forma atómica: primero a un temporal y luego lo renombra.
+     * @param archivo El archivo destino
+     * @param libros Los libros a guardar
+     * @param prestamos Los préstamos a guardar
+     */
+    public static void escribir(Path archivo, Collection<Libro> libros, Collection<Prestamo> prestamos) {
+        List<Libro> ordenados = new ArrayList<>(libros);
+        ordenados.sort(Comparator.comparing(Libro::getIsbn));
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try (DataOutputStream salida = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporal), 1 << 16))) {
+            int[] desplazamientos = new int[ordenados.size()];
+            for (int i = 0; i < ordenados.size(); i++) {
+                desplazamientos[i] = salida.size();
+                SerializadorEntidades.escribirLibro(salida, ordenados.get(i));
+            }
+            int inicioIndice = salida.size();
+            for (int desplazamiento : desplazamientos) {
+                salida.writeInt(desplazamiento);
+            }
+            int inicioPrestamos = salida.size();
+            for (Prestamo prestamo : prestamos) {
+                SerializadorEntidades.escribirPrestamo(salida, prestamo);
+            }
+            if (salida.size() >= Integer.MAX_VALUE - TAMANO_PIE) {
+                throw new BibliotecaException("La instantánea supera el tamaño máximo de 2 GB");
+            }
+            salida.writeInt(MAGIA);
+            salida.writeInt(VERSION);
+            salida.writeInt(ordenados.size());
+            salida.writeInt(prestamos.size());
+            salida.writeLong(inicioIndice);
+            salida.writeLong(inicioPrestamos);
+        } catch (IOException e) {
+            throw new BibliotecaException("No se pudo escribir la instantánea: " + archivo, e);
+        }
+        try {
+            Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new BibliotecaException("No se pudo publicar la instantánea: " + archivo, e);
+        }
+    }
+
+    /**
+     * Abre una instantánea existente mapeándola en memoria.
+     * @param archivo El archivo de la instantánea
+     * @return La instantánea, o vacío si el archivo no existe
+     */
+    public static Optional<InstantaneaCatalogo> abrir(Path archivo) {
+        if (!Files.exists(archivo)) {
+            return Optional.empty();
+        }
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            if (tamano < TAMANO_PIE || tamano > Integer.MAX_VALUE) {
+                throw new BibliotecaException("Tamaño de instantánea inválido: " + archivo);
+            }
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamano);
+            int pie = (int) tamano - TAMANO_PIE;
+            int version = buffer.getInt(pie + 4);
+            if (buffer.getInt(pie) != MAGIA || (version != VERSION && version != VERSION_SIN_VENCIMIENTO)) {
+                throw new BibliotecaException("Formato de instantánea no reconocido: " + archivo);
+            }
+            return Optional.of(new InstantaneaCatalogo(buffer, version, buffer.getInt(pie + 8), buffer.getInt(pie + 12),
+                    (int) buffer.getLong(pie + 16), (int) buffer.getLong(pie + 24)));
+        } catch (IOException e) {
+            throw new BibliotecaException("No se pudo abrir la instantánea: " + archivo, e);
+        }
+    }
+
+    public int getNumLibros() {
+        return numLibros;
+    }
+
+    public int getNumPrestamos() {
+        return numPrestamos;
+    }
+
+    /**
+     * Busca un libro directamente en el archivo mapeado mediante búsqueda binaria por ISBN.
+     * @param isbn El ISBN del libro
+     * @return El libro, si está en la instantánea
+     */
+    public Optional<Libro> buscarLibro(String isbn) {
+        int bajo = 0;
+        int alto = numLibros - 1;
+        try {
+            while (bajo <= alto) {
+                int medio = (bajo + alto) >>> 1;
+                int desplazamiento = buffer.getInt(inicioIndice + medio * Integer.BYTES);
+                DataInputStream entrada = entrada(desplazamiento);
+                int comparacion = entrada.readUTF().compareTo(isbn);
+                if (comparacion == 0) {
+                    return Optional.of(SerializadorEntidades.leerLibro(entrada(desplazamiento)));
+                }
+                if (comparacion < 0) {
+                    bajo = medio + 1;
+                } else {
+                    alto = medio - 1;
+                }
+            }
+        } catch (IOException e) {
+            throw new BibliotecaException("Instantánea corrupta", e);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Recorre los libros de la instantánea en orden de ISBN.
+     * @param consumidor Recibe cada libro
+     */
+    public void recorrerLibros(Consumer<Libro> consumidor) {
+        try {
+            DataInputStream entrada = entrada(0);
+            for (int i = 0; i < numLibros; i++) {
+                consumidor.accept(SerializadorEntidades.leerLibro(entrada));
+            }
+        } catch (IOException e) {
+            throw new BibliotecaException("Instantánea corrupta", e);
+        }
+    }
+
+    /**
+     * Recorre los préstamos de la instantánea.
+     * @param consumidor Recibe cada préstamo
+     */
+    public void recorrerPrestamos(Consumer<Prestamo> consumidor) {
+        try {
+            DataInputStream entrada = entrada(inicioPrestamos);
+            for (int i = 0; i < numPrestamos; i++) {
+                consumidor.accept(SerializadorEntidades.leerPrestamo(entrada, version != VERSION_SIN_VENCIMIENTO));
+            }
+        } catch (IOException e) {
+            throw new BibliotecaException("Instantánea corrupta", e);
+        }
+    }
+
+    private DataInputStream entrada(int desplazamiento) {
+        return new DataInputStream(new EntradaBuffer(buffer.duplicate().position(desplazamiento)));
+    }
+
+    /**
+     * Flujo de entrada sobre una vista propia del buffer mapeado; cada lector usa su propia vista.
+     */
+    private static final class EntradaBuffer extends InputStream {
+        private final ByteBuffer vista;
+
+        private EntradaBuffer(ByteBuffer vista) {
+            this.vista = vista;
+        }
+
+        @Override
+        public int read() {
+            return vista.hasRemaining() ? vista.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] destino, int desde, int longitud) {
+            if (!vista.hasRemaining()) {
+                return -1;
+            }
+            int leidos = Math.min(longitud, vista.remaining());
+            vista.get(destino, desde, leidos);
+            return leidos;
+        }
+    }
+}
@@ -1,11 +1,16 @@
 package com.example.repositorio.impl;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
 
 import com.example.exception.BibliotecaException;
 import com.example.modelo.Prestamo;
@@ -13,13 +18,39 @@ import com.example.repositorio.LoanRepository;
 
 public class LoanRepositoryImpl implements LoanRepository {
     private final ConcurrentMap<String, Prestamo> prestamos;
+    private final ConcurrentMap<String, PrestamosUsuario> prestamosPorUsuario;
+    private final ConcurrentMap<String, Set<String>> activosPorIsbn;
+    private final ConcurrentSkipListSet<Vencimiento> activosPorVencimiento;
 
     public LoanRepositoryImpl() {
         this.prestamos = new ConcurrentHashMap<>();
+        this.prestamosPorUsuario = new ConcurrentHashMap<>();
+        this.activosPorIsbn = new ConcurrentHashMap<>();
+        this.activosPorVencimiento = new ConcurrentSkipListSet<>();
     }
 
     @Override
     public Prestamo save(Prestamo prestamo) {
+        validar(prestamo);
+        guardar(prestamo);
+        return prestamo;
+    }
+
+    @Override
+    public List<Prestamo> saveAll(Collection<Prestamo> lote) {
+        if (lote == null) {
+            throw new BibliotecaException("La colección de préstamos no puede ser nula");
+        }
+        for (Prestamo prestamo : lote) {
+            validar(prestamo);
+        }
+        for (Prestamo prestamo : lote) {
+            guardar(prestamo);
+        }
+        return new ArrayList<>(lote);
+    }
+
+    static void validar(Prestamo prestamo) {
         if (prestamo == null) {
             throw new BibliotecaException("El préstamo no puede ser nulo");
         }
@@ -32,8 +63,6 @@ public class LoanRepositoryImpl implements LoanRepository {
         if (prestamo.getUsuarioId() == null || prestamo.getUsuarioId().trim().isEmpty()) {
             throw new BibliotecaException("El ID del usuario no puede estar vacío");
         }
-        prestamos.put(prestamo.getId(), prestamo);
-        return prestamo;
     }
 
     @Override
@@ -54,9 +83,14 @@ public class LoanRepositoryImpl implements LoanRepository {
         if (userId == null || userId.trim().isEmpty()) {
             throw new BibliotecaException("El ID del usuario no puede estar vacío");
         }
-        return prestamos.values().stream()
-                .filter(p -> p.getUsuarioId().equals(userId))
-                .collect(Collectors.toList());
+        PrestamosUsuario indice = prestamosPorUsuario.get(userId);
+        if (indice == null) {
+            return new ArrayList<>();
+        }
+        List<Prestamo> resultado = new ArrayList<>(indice.activos.size() + indice.historicos.size());
+        agregarPrestamos(indice.activos, resultado);
+        agregarPrestamos(indice.historicos, resultado);
+        return resultado;
     }
 
     @Override
@@ -64,9 +98,16 @@ public class LoanRepositoryImpl implements LoanRepository {
         if (userId == null || userId.trim().isEmpty()) {
             throw new BibliotecaException("El ID del usuario no puede estar vacío");
         }
-        return prestamos.values().stream()
-                .filter(p -> p.getUsuarioId().equals(userId) && p.isActivo())
-                .collect(Collectors.toList());
+        PrestamosUsuario indice = prestamosPorUsuario.get(userId);
+        if (indice == null) {
+            return new ArrayList<>();
+        }
+        List<Prestamo> resultado = new ArrayList<>(indice.activos.size());
+        agregarPrestamos(indice.activos, resultado);
+        // El servicio marca la devolución sobre la misma instancia antes de guardarla,
+        // así que se descartan los préstamos que ya no están activos.
+        resultado.removeIf(p -> !p.isActivo());
+        return resultado;
     }
 
     @Override
@@ -74,8 +115,81 @@ public class LoanRepositoryImpl implements LoanRepository {
         if (libroIsbn == null || libroIsbn.trim().isEmpty()) {
             throw new BibliotecaException("El ISBN del libro no puede estar vacío");
         }
-        return prestamos.values().stream()
-                .anyMatch(p -> p.getLibroIsbn().equals(libroIsbn) && p.isActivo());
+        Set<String> activos = activosPorIsbn.get(libroIsbn);
+        if (activos == null) {
+            return false;
+        }
+        for (String id : activos) {
+            Prestamo prestamo = prestamos.get(id);
+            if (prestamo != null && prestamo.isActivo()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public List<Prestamo> findActiveByLibroIsbn(String libroIsbn) {
+        if (libroIsbn == null || libroIsbn.trim().isEmpty()) {
+            throw new BibliotecaException("El ISBN del libro no puede estar vacío");
+        }
+        Set<String> activos = activosPorIsbn.get(libroIsbn);
+        if (activos == null) {
+            return new ArrayList<>();
+        }
+        List<Prestamo> resultado = new ArrayList<>(activos.size());
+        agregarPrestamos(activos, resultado);
+        resultado.removeIf(p -> !p.isActivo());
+        return resultado;
+    }
+
+    @Override
+    public void forEachActiveLibroIsbn(Consumer<String> accion) {
+        if (accion == null) {
+            throw new BibliotecaException("La acción no puede ser nula");
+        }
+        // Recorre el índice directamente, sin copiar las claves: cada ISBN se entrega una vez
+        // aunque tenga varios préstamos activos.
+        for (Map.Entry<String, Set<String>> entrada : activosPorIsbn.entrySet()) {
+            for (String id : entrada.getValue()) {
+                Prestamo prestamo = prestamos.get(id);
+                if (prestamo != null && prestamo.isActivo()) {
+                    accion.accept(entrada.getKey());
+                    break;
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<Prestamo> findVencidos(LocalDateTime momento) {
+        if (momento == null) {
+            throw new BibliotecaException("La fecha no puede ser nula");
+        }
+        return resolverActivos(activosPorVencimiento.headSet(new Vencimiento(momento, ""), false));
+    }
+
+    @Override
+    public List<Prestamo> findPorVencer(LocalDateTime desde, LocalDateTime hasta) {
+        if (desde == null || hasta == null) {
+            throw new BibliotecaException("Las fechas no pueden ser nulas");
+        }
+        if (hasta.isBefore(desde)) {
+            return new ArrayList<>();
+        }
+        return resolverActivos(activosPorVencimiento.subSet(
+                new Vencimiento(desde, ""), true, new Vencimiento(hasta.plusNanos(1), ""), false));
+    }
+
+    private List<Prestamo> resolverActivos(Set<Vencimiento> rango) {
+        List<Prestamo> resultado = new ArrayList<>();
+        for (Vencimiento vencimiento : rango) {
+            Prestamo prestamo = prestamos.get(vencimiento.id);
+            if (prestamo != null && prestamo.isActivo()) {
+                resultado.add(prestamo);
+            }
+        }
+        return resultado;
     }
 
     @Override
@@ -89,18 +203,136 @@ public class LoanRepositoryImpl implements LoanRepository {
         if (!prestamos.containsKey(prestamo.getId())) {
             throw new BibliotecaException("No existe un préstamo con el ID: " + prestamo.getId());
         }
-        prestamos.put(prestamo.getId(), prestamo);
+        guardar(prestamo);
         return prestamo;
     }
 
     @Override
     public void delete(String id) {
+        validarExistente(id);
+        eliminar(id);
+    }
+
+    @Override
+    public void deleteAll(Collection<String> ids) {
+        if (ids == null) {
+            throw new BibliotecaException("La colección de IDs no puede ser nula");
+        }
+        for (String id : ids) {
+            validarExistente(id);
+        }
+        for (String id : ids) {
+            eliminar(id);
+        }
+    }
+
+    private void validarExistente(String id) {
         if (id == null || id.trim().isEmpty()) {
             throw new BibliotecaException("El ID del préstamo no puede estar vacío");
         }
         if (!prestamos.containsKey(id)) {
             throw new BibliotecaException("No existe un préstamo con el ID: " + id);
         }
-        prestamos.remove(id);
+    }
+
+    private void eliminar(String id) {
+        prestamos.computeIfPresent(id, (clave, anterior) -> {
+            desindexar(anterior);
+            return null;
+        });
+    }
+
+    /**
+     * Guarda el préstamo y actualiza los índices secundarios de forma atómica
+     * respecto a otras escrituras sobre el mismo ID.
+     */
+    private void guardar(Prestamo prestamo) {
+        prestamos.compute(prestamo.getId(), (clave, anterior) -> {
+            if (anterior != null) {
+                desindexar(anterior);
+            }
+            indexar(prestamo);
+            return prestamo;
+        });
+    }
+
+    private void indexar(Prestamo prestamo) {
+        PrestamosUsuario indice = prestamosPorUsuario.computeIfAbsent(
+                prestamo.getUsuarioId(), id -> new PrestamosUsuario());
+        if (prestamo.isActivo()) {
+            indice.activos.add(prestamo.getId());
+            activosPorIsbn.compute(prestamo.getLibroIsbn(), (isbn, ids) -> {
+                Set<String> activos = ids != null ? ids : ConcurrentHashMap.newKeySet();
+                activos.add(prestamo.getId());
+                return activos;
+            });
+            activosPorVencimiento.add(new Vencimiento(prestamo.getFechaVencimiento(), prestamo.getId()));
+        } else {
+            indice.historicos.add(prestamo.getId());
+        }
+    }
+
+    private void desindexar(Prestamo prestamo) {
+        // Se elimina de ambos conjuntos: la instancia pudo cambiar de estado desde que se indexó.
+        PrestamosUsuario indice = prestamosPorUsuario.get(prestamo.getUsuarioId());
+        if (indice != null) {
+            indice.activos.remove(prestamo.getId());
+            indice.historicos.remove(prestamo.getId());
+        }
+        // Los conjuntos vacíos se retiran dentro del compute para no perder altas concurrentes.
+        activosPorIsbn.computeIfPresent(prestamo.getLibroIsbn(), (isbn, ids) -> {
+            ids.remove(prestamo.getId());
+            return ids.isEmpty() ? null : ids;
+        });
+        activosPorVencimiento.remove(new Vencimiento(prestamo.getFechaVencimiento(), prestamo.getId()));
+    }
+
+    private void agregarPrestamos(Set<String> ids, List<Prestamo> destino) {
+        for (String id : ids) {
+            Prestamo prestamo = prestamos.get(id);
+            if (prestamo != null) {
+                destino.add(prestamo);
+            }
+        }
+    }
+
+    /**
+     * Índice secundario de los préstamos de un usuario, separados en activos e históricos.
+     */
+    private static final class PrestamosUsuario {
+        private final Set<String> activos = ConcurrentHashMap.newKeySet();
+        private final Set<String> historicos = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Entrada del índice de vencimientos, ordenada por fecha de vencimiento y luego por ID.
+     */
+    private static final class Vencimiento implements Comparable<Vencimiento> {
+        private final LocalDateTime fecha;
+        private final String id;
+
+        private Vencimiento(LocalDateTime fecha, String id) {
+            this.fecha = fecha;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Vencimiento otro) {
+            int comparacion = fecha.compareTo(otro.fecha);
+            return comparacion != 0 ? comparacion : id.compareTo(otro.id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Vencimiento)) return false;
+            Vencimiento otro = (Vencimiento) o;
+            return fecha.equals(otro.fecha) && id.equals(otro.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * fecha.hashCode() + id.hashCode();
+        }
     }
 } 
\ No newline at end of file
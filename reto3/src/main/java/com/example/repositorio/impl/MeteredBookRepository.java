@@ -0,0 +1,145 @@
+package com.example.repositorio.impl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import com.example.metricas.MetricaOperacion;
+import com.example.metricas.RegistroMetricas;
+import com.example.modelo.Libro;
+import com.example.repositorio.BookRepository;
+import com.example.repositorio.FacetaCategoria;
+import com.example.repositorio.OrdenLibros;
+import com.example.repositorio.Pagina;
+
+/**
+ * Decorador que mide la latencia, las llamadas y los errores de cada operación de un repositorio de libros.
+ */
+public class MeteredBookRepository implements BookRepository {
+    private final BookRepository delegado;
+    private final MetricaOperacion save;
+    private final MetricaOperacion saveAll;
+    private final MetricaOperacion findById;
+    private final MetricaOperacion findAllById;
+    private final MetricaOperacion findAll;
+    private final MetricaOperacion findPage;
+    private final MetricaOperacion findAvailable;
+    private final MetricaOperacion countAvailable;
+    private final MetricaOperacion findByCategoria;
+    private final MetricaOperacion findAvailableByCategoria;
+    private final MetricaOperacion findFacetas;
+    private final MetricaOperacion findByTituloContaining;
+    private final MetricaOperacion findByAutorContaining;
+    private final MetricaOperacion delete;
+    private final MetricaOperacion deleteAll;
+    private final MetricaOperacion existsById;
+
+    public MeteredBookRepository(BookRepository delegado, RegistroMetricas metricas) {
+        this.delegado = delegado;
+        this.save = metricas.operacion("libros.save");
+        this.saveAll = metricas.operacion("libros.saveAll");
+        this.findById = metricas.operacion("libros.findById");
+        this.findAllById = metricas.operacion("libros.findAllById");
+        this.findAll = metricas.operacion("libros.findAll");
+        this.findPage = metricas.operacion("libros.findPage");
+        this.findAvailable = metricas.operacion("libros.findAvailable");
+        this.countAvailable = metricas.operacion("libros.countAvailable");
+        this.findByCategoria = metricas.operacion("libros.findByCategoria");
+        this.findAvailableByCategoria = metricas.operacion("libros.findAvailableByCategoria");
+        this.findFacetas = metricas.operacion("libros.findFacetas");
+        this.findByTituloContaining = metricas.operacion("libros.findByTituloContaining");
+        this.findByAutorContaining = metricas.operacion("libros.findByAutorContaining");
+        this.delete = metricas.operacion("libros.delete");
+        this.deleteAll = metricas.operacion("libros.deleteAll");
+        this.existsById = metricas.operacion("libros.existsById");
+    }
+
+    @Override
+    public Libro save(Libro libro) {
+        return save.medir(() -> delegado.save(libro));
+    }
+
+    @Override
+    public List<Libro> saveAll(Collection<Libro> libros) {
+        return saveAll.medir(() -> delegado.saveAll(libros));
+    }
+
+    @Override
+    public Optional<Libro> findById(String isbn) {
+        return findById.medir(() -> delegado.findById(isbn));
+    }
+
+    @Override
+    public List<Libro> findAllById(Collection<String> isbns) {
+        return findAllById.medir(() -> delegado.findAllById(isbns));
+    }
+
+    @Override
+    public List<Libro> findAll() {
+        return findAll.medir(delegado::findAll);
+    }
+
+    @Override
+    public Pagina<Libro> findPage(OrdenLibros orden, String cursor, int limite) {
+        return findPage.medir(() -> delegado.findPage(orden, cursor, limite));
+    }
+
+    /**
+     * No se mide: el flujo es perezoso y el trabajo ocurre al consumirlo, fuera de esta llamada.
+     */
+    @Override
+    public Stream<Libro> stream() {
+        return delegado.stream();
+    }
+
+    @Override
+    public List<Libro> findAvailable() {
+        return findAvailable.medir(delegado::findAvailable);
+    }
+
+    @Override
+    public long countAvailable() {
+        return countAvailable.medir(delegado::countAvailable);
+    }
+
+    @Override
+    public List<Libro> findByCategoria(String categoria) {
+        return findByCategoria.medir(() -> delegado.findByCategoria(categoria));
+    }
+
+    @Override
+    public List<Libro> findAvailableByCategoria(String categoria) {
+        return findAvailableByCategoria.medir(() -> delegado.findAvailableByCategoria(categoria));
+    }
+
+    @Override
+    public List<FacetaCategoria> findFacetas() {
+        return findFacetas.medir(delegado::findFacetas);
+    }
+
+    @Override
+    public List<Libro> findByTituloContaining(String titulo) {
+        return findByTituloContaining.medir(() -> delegado.findByTituloContaining(titulo));
+    }
+
+    @Override
+    public List<Libro> findByAutorContaining(String autor) {
+        return findByAutorContaining.medir(() -> delegado.findByAutorContaining(autor));
+    }
+
+    @Override
+    public void delete(String isbn) {
+        delete.medir(() -> delegado.delete(isbn));
+    }
+
+    @Override
+    public void deleteAll(Collection<String> isbns) {
+        deleteAll.medir(() -> delegado.deleteAll(isbns));
+    }
+
+    @Override
+    public boolean existsById(String isbn) {
+        return existsById.medir(() -> delegado.existsById(isbn));
+    }
+}
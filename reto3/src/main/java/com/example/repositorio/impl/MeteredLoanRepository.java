@@ -0,0 +1,121 @@
+package com.example.repositorio.impl;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import com.example.metricas.MetricaOperacion;
+import com.example.metricas.RegistroMetricas;
+import com.example.modelo.Prestamo;
+import com.example.repositorio.LoanRepository;
+
+/**
+ * Decorador que mide la latencia, las llamadas y los errores de cada operación de un repositorio de préstamos.
+ */
+public class MeteredLoanRepository implements LoanRepository {
+    private final LoanRepository delegado;
+    private final MetricaOperacion save;
+    private final MetricaOperacion saveAll;
+    private final MetricaOperacion findById;
+    private final MetricaOperacion findAll;
+    private final MetricaOperacion findByUserId;
+    private final MetricaOperacion findActiveByUserId;
+    private final MetricaOperacion existsActiveLoan;
+    private final MetricaOperacion findActiveByLibroIsbn;
+    private final MetricaOperacion forEachActiveLibroIsbn;
+    private final MetricaOperacion findVencidos;
+    private final MetricaOperacion findPorVencer;
+    private final MetricaOperacion update;
+    private final MetricaOperacion delete;
+    private final MetricaOperacion deleteAll;
+
+    public MeteredLoanRepository(LoanRepository delegado, RegistroMetricas metricas) {
+        this.delegado = delegado;
+        this.save = metricas.operacion("prestamos.save");
+        this.saveAll = metricas.operacion("prestamos.saveAll");
+        this.findById = metricas.operacion("prestamos.findById");
+        this.findAll = metricas.operacion("prestamos.findAll");
+        this.findByUserId = metricas.operacion("prestamos.findByUserId");
+        this.findActiveByUserId = metricas.operacion("prestamos.findActiveByUserId");
+        this.existsActiveLoan = metricas.operacion("prestamos.existsActiveLoan");
+        this.findActiveByLibroIsbn = metricas.operacion("prestamos.findActiveByLibroIsbn");
+        this.forEachActiveLibroIsbn = metricas.operacion("prestamos.forEachActiveLibroIsbn");
+        this.findVencidos = metricas.operacion("prestamos.findVencidos");
+        this.findPorVencer = metricas.operacion("prestamos.findPorVencer");
+        this.update = metricas.operacion("prestamos.update");
+        this.delete = metricas.operacion("prestamos.delete");
+        this.deleteAll = metricas.operacion("prestamos.deleteAll");
+    }
+
+    @Override
+    public Prestamo save(Prestamo prestamo) {
+        return save.medir(() -> delegado.save(prestamo));
+    }
+
+    @Override
+    public List<Prestamo> saveAll(Collection<Prestamo> prestamos) {
+        return saveAll.medir(() -> delegado.saveAll(prestamos));
+    }
+
+    @Override
+    public Optional<Prestamo> findById(String id) {
+        return findById.medir(() -> delegado.findById(id));
+    }
+
+    @Override
+    public List<Prestamo> findAll() {
+        return findAll.medir(delegado::findAll);
+    }
+
+    @Override
+    public List<Prestamo> findByUserId(String userId) {
+        return findByUserId.medir(() -> delegado.findByUserId(userId));
+    }
+
+    @Override
+    public List<Prestamo> findActiveByUserId(String userId) {
+        return findActiveByUserId.medir(() -> delegado.findActiveByUserId(userId));
+    }
+
+    @Override
+    public boolean existsActiveLoan(String libroIsbn) {
+        return existsActiveLoan.medir(() -> delegado.existsActiveLoan(libroIsbn));
+    }
+
+    @Override
+    public List<Prestamo> findActiveByLibroIsbn(String libroIsbn) {
+        return findActiveByLibroIsbn.medir(() -> delegado.findActiveByLibroIsbn(libroIsbn));
+    }
+
+    @Override
+    public void forEachActiveLibroIsbn(Consumer<String> accion) {
+        forEachActiveLibroIsbn.medir(() -> delegado.forEachActiveLibroIsbn(accion));
+    }
+
+    @Override
+    public List<Prestamo> findVencidos(LocalDateTime momento) {
+        return findVencidos.medir(() -> delegado.findVencidos(momento));
+    }
+
+    @Override
+    public List<Prestamo> findPorVencer(LocalDateTime desde, LocalDateTime hasta) {
+        return findPorVencer.medir(() -> delegado.findPorVencer(desde, hasta));
+    }
+
+    @Override
+    public Prestamo update(Prestamo prestamo) {
+        return update.medir(() -> delegado.update(prestamo));
+    }
+
+    @Override
+    public void delete(String id) {
+        delete.medir(() -> delegado.delete(id));
+    }
+
+    @Override
+    public void deleteAll(Collection<String> ids) {
+        deleteAll.medir(() -> delegado.deleteAll(ids));
+    }
+}
@@ -0,0 +1,444 @@
+package com.example.repositorio.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import com.example.exception.BibliotecaException;
+import com.example.modelo.Libro;
+import com.example.repositorio.BookRepository;
+import com.example.repositorio.FacetaCategoria;
+import com.example.repositorio.OrdenLibros;
+import com.example.repositorio.Pagina;
+
+/**
+ * Repositorio de libros en memoria respaldado por una bitácora de escritura anticipada.
+ * Al construirse reproduce la bitácora para reconstruir el catálogo. Cada escritura se
+ * anexa primero a la bitácora y solo después se aplica en memoria, así que una escritura
+ * que la bitácora rechaza no cambia nada. Se confirma al llamador cuando la bitácora la hizo
+ * durable según su política de sincronización; si ese fsync falla, el cambio se deshace.
+ * <p>
+ * Si se configura una {@link InstantaneaCatalogo}, el arranque solo mapea el archivo y
+ * reproduce la bitácora posterior a ella. {@link #findById(String)} lee del archivo mapeado
+ * los libros que aún no están en el heap, mientras un hilo de fondo los carga todos.
+ */
+public class PersistentBookRepository implements BookRepository, Closeable {
+    private static final byte GUARDAR = 1;
+    private static final byte ELIMINAR = 2;
+    private static final byte GUARDAR_LOTE = 3;
+    private static final byte ELIMINAR_LOTE = 4;
+
+    private final BookRepository memoria;
+    private final BitacoraEscritura bitacora;
+    private final Path archivoInstantanea;
+    private final ReentrantLock candadoEscritura = new ReentrantLock();
+    private final Set<String> eliminadosDeInstantanea = ConcurrentHashMap.newKeySet();
+    private final CompletableFuture<Void> calentamiento;
+    private volatile InstantaneaCatalogo instantanea;
+
+    public PersistentBookRepository(Path archivo, PoliticaSincronizacion politica) {
+        this(new BitacoraEscritura(archivo, politica), null);
+    }
+
+    public PersistentBookRepository(Path archivo, Path archivoInstantanea, PoliticaSincronizacion politica) {
+        this(new BitacoraEscritura(archivo, politica), archivoInstantanea);
+    }
+
+    public PersistentBookRepository(BitacoraEscritura bitacora) {
+        this(bitacora, null);
+    }
+
+    public PersistentBookRepository(BitacoraEscritura bitacora, Path archivoInstantanea) {
+        this.memoria = new BookRepositoryImpl();
+        this.bitacora = bitacora;
+        this.archivoInstantanea = archivoInstantanea;
+        this.instantanea = archivoInstantanea != null
+                ? InstantaneaCatalogo.abrir(archivoInstantanea).orElse(null)
+                : null;
+        this.bitacora.reproducir(this::aplicar);
+        this.calentamiento = instantanea != null
+                ? CompletableFuture.runAsync(this::calentarTodo)
+                : CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public Libro save(Libro libro) {
+        BookRepositoryImpl.validar(libro);
+        byte[] registro = SerializadorEntidades.codificar(salida -> {
+            salida.writeByte(GUARDAR);
+            SerializadorEntidades.escribirLibro(salida, libro);
+        });
+        long secuencia;
+        Runnable deshacer;
+        candadoEscritura.lock();
+        try {
+            deshacer = capturar(List.of(libro.getIsbn()));
+            secuencia = bitacora.agregar(registro);
+            memoria.save(libro);
+        } finally {
+            candadoEscritura.unlock();
+        }
+        confirmar(secuencia, deshacer);
+        return libro;
+    }
+
+    /**
+     * Guarda el lote como un único registro de la bitácora, confirmado con un solo fsync.
+     */
+    @Override
+    public List<Libro> saveAll(Collection<Libro> libros) {
+        if (libros == null) {
+            throw new BibliotecaException("La colección de libros no puede ser nula");
+        }
+        List<Libro> guardados = new ArrayList<>(libros);
+        List<String> isbns = new ArrayList<>(guardados.size());
+        for (Libro libro : guardados) {
+            BookRepositoryImpl.validar(libro);
+            isbns.add(libro.getIsbn());
+        }
+        byte[] registro = SerializadorEntidades.codificar(salida -> {
+            salida.writeByte(GUARDAR_LOTE);
+            salida.writeInt(guardados.size());
+            for (Libro libro : guardados) {
+                SerializadorEntidades.escribirLibro(salida, libro);
+            }
+        });
+        long secuencia;
+        Runnable deshacer;
+        candadoEscritura.lock();
+        try {
+            deshacer = capturar(isbns);
+            secuencia = bitacora.agregar(registro);
+            memoria.saveAll(guardados);
+        } finally {
+            candadoEscritura.unlock();
+        }
+        confirmar(secuencia, deshacer);
+        return guardados;
+    }
+
+    @Override
+    public Optional<Libro> findById(String isbn) {
+        Optional<Libro> libro = memoria.findById(isbn);
+        if (libro.isPresent() || instantanea == null) {
+            return libro;
+        }
+        candadoEscritura.lock();
+        try {
+            calentar(isbn);
+        } finally {
+            candadoEscritura.unlock();
+        }
+        return memoria.findById(isbn);
+    }
+
+    @Override
+    public List<Libro> findAllById(Collection<String> isbns) {
+        if (instantanea != null && isbns != null) {
+            List<String> faltantes = new ArrayList<>();
+            for (String isbn : isbns) {
+                if (!memoria.existsById(isbn)) {
+                    faltantes.add(isbn);
+                }
+            }
+            // Los libros que aún no se cargaron de la instantánea se leen con una sola toma del candado.
+            if (!faltantes.isEmpty()) {
+                candadoEscritura.lock();
+                try {
+                    for (String isbn : faltantes) {
+                        calentar(isbn);
+                    }
+                } finally {
+                    candadoEscritura.unlock();
+                }
+            }
+        }
+        return memoria.findAllById(isbns);
+    }
+
+    @Override
+    public List<Libro> findAll() {
+        calentamiento.join();
+        return memoria.findAll();
+    }
+
+    @Override
+    public Pagina<Libro> findPage(OrdenLibros orden, String cursor, int limite) {
+        calentamiento.join();
+        return memoria.findPage(orden, cursor, limite);
+    }
+
+    @Override
+    public Stream<Libro> stream() {
+        calentamiento.join();
+        return memoria.stream();
+    }
+
+    @Override
+    public List<Libro> findAvailable() {
+        calentamiento.join();
+        return memoria.findAvailable();
+    }
+
+    @Override
+    public long countAvailable() {
+        calentamiento.join();
+        return memoria.countAvailable();
+    }
+
+    @Override
+    public List<Libro> findByCategoria(String categoria) {
+        calentamiento.join();
+        return memoria.findByCategoria(categoria);
+    }
+
+    @Override
+    public List<Libro> findAvailableByCategoria(String categoria) {
+        calentamiento.join();
+        return memoria.findAvailableByCategoria(categoria);
+    }
+
+    @Override
+    public List<FacetaCategoria> findFacetas() {
+        calentamiento.join();
+        return memoria.findFacetas();
+    }
+
+    @Override
+    public List<Libro> findByTituloContaining(String titulo) {
+        calentamiento.join();
+        return memoria.findByTituloContaining(titulo);
+    }
+
+    @Override
+    public List<Libro> findByAutorContaining(String autor) {
+        calentamiento.join();
+        return memoria.findByAutorContaining(autor);
+    }
+
+    @Override
+    public void delete(String isbn) {
+        validarIsbn(isbn);
+        byte[] registro = SerializadorEntidades.codificar(salida -> {
+            salida.writeByte(ELIMINAR);
+            salida.writeUTF(isbn);
+        });
+        long secuencia;
+        Runnable deshacer;
+        candadoEscritura.lock();
+        try {
+            deshacer = capturar(List.of(isbn));
+            validarExistente(isbn);
+            secuencia = bitacora.agregar(registro);
+            eliminar(isbn);
+        } finally {
+            candadoEscritura.unlock();
+        }
+        confirmar(secuencia, deshacer);
+    }
+
+    @Override
+    public void deleteAll(Collection<String> isbns) {
+        if (isbns == null) {
+            throw new BibliotecaException("La colección de ISBN no puede ser nula");
+        }
+        List<String> lote = new ArrayList<>(isbns);
+        for (String isbn : lote) {
+            validarIsbn(isbn);
+        }
+        byte[] registro = SerializadorEntidades.codificar(salida -> {
+            salida.writeByte(ELIMINAR_LOTE);
+            salida.writeInt(lote.size());
+            for (String isbn : lote) {
+                salida.writeUTF(isbn);
+            }
+        });
+        long secuencia;
+        Runnable deshacer;
+        candadoEscritura.lock();
+        try {
+            deshacer = capturar(lote);
+            for (String isbn : lote) {
+                validarExistente(isbn);
+            }
+            secuencia = bitacora.agregar(registro);
+            memoria.deleteAll(lote);
+            if (instantanea != null) {
+                eliminadosDeInstantanea.addAll(lote);
+            }
+        } finally {
+            candadoEscritura.unlock();
+        }
+        confirmar(secuencia, deshacer);
+    }
+
+    @Override
+    public boolean existsById(String isbn) {
+        return memoria.existsById(isbn) || (instantanea != null && findById(isbn).isPresent());
+    }
+
+    /**
+     * Escribe una instantánea con el catálogo actual y vacía la bitácora.
+     * Las escrituras esperan mientras se genera.
+     */
+    public void tomarInstantanea() {
+        if (archivoInstantanea == null) {
+            throw new BibliotecaException("No hay un archivo de instantánea configurado");
+        }
+        calentamiento.join();
+        candadoEscritura.lock();
+        try {
+            InstantaneaCatalogo.escribir(archivoInstantanea, memoria.findAll(), List.of());
+            bitacora.reiniciar();
+        } finally {
+            candadoEscritura.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        bitacora.close();
+    }
+
+    /**
+     * Carga un libro de la instantánea al heap si aún no está. Requiere el candado de escritura.
+     */
+    private void calentar(String isbn) {
+        InstantaneaCatalogo actual = instantanea;
+        if (actual != null && !eliminadosDeInstantanea.contains(isbn) && !memoria.existsById(isbn)) {
+            actual.buscarLibro(isbn).ifPresent(memoria::save);
+        }
+    }
+
+    private void calentarTodo() {
+        InstantaneaCatalogo actual = instantanea;
+        // Se toma el candado por libro para no detener las escrituras durante toda la carga.
+        actual.recorrerLibros(libro -> {
+            candadoEscritura.lock();
+            try {
+                if (!eliminadosDeInstantanea.contains(libro.getIsbn()) && !memoria.existsById(libro.getIsbn())) {
+                    memoria.save(libro);
+                }
+            } finally {
+                candadoEscritura.unlock();
+            }
+        });
+        candadoEscritura.lock();
+        try {
+            instantanea = null;
+            eliminadosDeInstantanea.clear();
+        } finally {
+            candadoEscritura.unlock();
+        }
+    }
+
+    /**
+     * Confirma una escritura que ya se anexó y se aplicó en memoria. Si el fsync falla, el
+     * cambio se deshace antes de propagar el error, para no exponer lo que un reinicio perdería.
+     * Quien escribe el mismo libro desde varios hilos debe serializar esas escrituras, como lo
+     * hace {@link com.example.servicio.BibliotecaServicio}, para que deshacer no pise a otra.
+     */
+    private void confirmar(long secuencia, Runnable deshacer) {
+        try {
+            bitacora.sincronizar(secuencia);
+        } catch (RuntimeException e) {
+            candadoEscritura.lock();
+            try {
+                deshacer.run();
+            } finally {
+                candadoEscritura.unlock();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Captura el estado actual de los libros para restaurarlo si la escritura no llega a disco.
+     * Requiere el candado de escritura.
+     */
+    private Runnable capturar(Collection<String> isbns) {
+        Map<String, Libro> anteriores = new HashMap<>();
+        for (String isbn : isbns) {
+            calentar(isbn);
+            anteriores.put(isbn, memoria.findById(isbn).orElse(null));
+        }
+        return () -> anteriores.forEach((isbn, anterior) -> {
+            if (anterior != null) {
+                eliminadosDeInstantanea.remove(isbn);
+                memoria.save(anterior);
+            } else if (memoria.existsById(isbn)) {
+                memoria.delete(isbn);
+            }
+        });
+    }
+
+    private static void validarIsbn(String isbn) {
+        if (isbn == null || isbn.trim().isEmpty()) {
+            throw new BibliotecaException("El ISBN no puede estar vacío");
+        }
+    }
+
+    /**
+     * Requiere el candado de escritura y que el libro ya se haya cargado de la instantánea.
+     */
+    private void validarExistente(String isbn) {
+        if (!memoria.existsById(isbn)) {
+            throw new BibliotecaException("No existe un libro con el ISBN: " + isbn);
+        }
+    }
+
+    private void eliminar(String isbn) {
+        calentar(isbn);
+        memoria.delete(isbn);
+        if (instantanea != null) {
+            eliminadosDeInstantanea.add(isbn);
+        }
+    }
+
+    private void aplicar(byte[] registro) {
+        try (DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(registro))) {
+            byte operacion = entrada.readByte();
+            if (operacion == GUARDAR) {
+                memoria.save(SerializadorEntidades.leerLibro(entrada));
+            } else if (operacion == ELIMINAR) {
+                reproducirEliminacion(entrada.readUTF());
+            } else if (operacion == GUARDAR_LOTE) {
+                int cantidad = entrada.readInt();
+                List<Libro> lote = new ArrayList<>(cantidad);
+                for (int i = 0; i < cantidad; i++) {
+                    lote.add(SerializadorEntidades.leerLibro(entrada));
+                }
+                memoria.saveAll(lote);
+            } else if (operacion == ELIMINAR_LOTE) {
+                int cantidad = entrada.readInt();
+                for (int i = 0; i < cantidad; i++) {
+                    reproducirEliminacion(entrada.readUTF());
+                }
+            } else {
+                throw new BibliotecaException("Operación desconocida en la bitácora de libros: " + operacion);
+            }
+        } catch (IOException e) {
+            throw new BibliotecaException("Registro inválido en la bitácora de libros", e);
+        }
+    }
+
+    private void reproducirEliminacion(String isbn) {
+        calentar(isbn);
+        if (memoria.existsById(isbn)) {
+            eliminar(isbn);
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.example.repositorio.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import com.example.exception.BibliotecaException;
+import com.example.modelo.Prestamo;
+import com.example.repositorio.LoanRepository;
+
+/**
+ * Repositorio de préstamos en memoria respaldado por una bitácora de escritura anticipada.
+ * Sigue el mismo protocolo que {@link PersistentBookRepository}: anexa antes de aplicar y
+ * deshace el cambio si el fsync falla. Los índices por usuario e ISBN necesitan todos los
+ * préstamos, así que la instantánea se carga completa al arrancar; aun así evita reproducir
+ * todo el historial de la bitácora.
+ */
+public class PersistentLoanRepository implements LoanRepository, Closeable {
+    // GUARDAR y GUARDAR_LOTE son el formato anterior, sin fecha de vencimiento; solo se leen.
+    private static final byte GUARDAR = 1;
+    private static final byte ELIMINAR = 2;
+    private static final byte GUARDAR_LOTE = 3;
+    private static final byte ELIMINAR_LOTE = 4;
+    private static final byte GUARDAR_V2 = 5;
+    private static final byte GUARDAR_LOTE_V2 = 6;
+
+    private final LoanRepository memoria;
+    private final BitacoraEscritura bitacora;
+    private final Path archivoInstantanea;
+    private final ReentrantLock candadoEscritura = new ReentrantLock();
+
+    public PersistentLoanRepository(Path archivo, PoliticaSincronizacion politica) {
+        this(new BitacoraEscritura(archivo, politica), null);
+    }
+
+    public PersistentLoanRepository(Path archivo, Path archivoInstantanea, PoliticaSincronizacion politica) {
+        this(new BitacoraEscritura(archivo, politica), archivoInstantanea);
+    }
+
+    public PersistentLoanRepository(BitacoraEscritura bitacora) {
+        this(bitacora, null);
+    }
+
+    public PersistentLoanRepository(BitacoraEscritura bitacora, Path archivoInstantanea) {
+        this.memoria = new LoanRepositoryImpl();
+        this.bitacora = bitacora;
+        this.archivoInstantanea = archivoInstantanea;
+        if (archivoInstantanea != null) {
+            InstantaneaCatalogo.abrir(archivoInstantanea)
+                    .ifPresent(instantanea -> instantanea.recorrerPrestamos(memoria::save));
+        }
+        this.bitacora.reproducir(this::aplicar);
+    }
+
+    @Override
+    public Prestamo save(Prestamo prestamo) {
+        LoanRepositoryImpl.validar(prestamo);
+        byte[] registro = codificarGuardado(prestamo);
+        long secuencia;
+        Runnable deshacer;
+        candadoEscritura.lock();
+        try {
+            deshacer = capturar(List.of(prestamo.getId()));
+            secuencia = bitacora.agregar(registro);
+            memoria.save(prestamo);
+        } finally {
+            candadoEscritura.unlock();
+        }
+        confirmar(secuencia, deshacer);
+        return prestamo;
+    }
+
+    /**
+     * Guarda el lote como un único registro de la bitácora, confirmado con un solo fsync.
+     */
+    @Override
+    public List<Prestamo> saveAll(Collection<Prestamo> prestamos) {
+        if (prestamos == null) {
+            throw new BibliotecaException("La colección de préstamos no puede ser nula");
+        }
+        List<Prestamo> guardados = new ArrayList<>(prestamos);
+        List<String> ids = new ArrayList<>(guardados.size());
+        for (Prestamo prestamo : guardados) {
+            LoanRepositoryImpl.validar(prestamo);
+            ids.add(prestamo.getId());
+        }
+        byte[] registro = SerializadorEntidades.codificar(salida -> {
+            salida.writeByte(GUARDAR_LOTE_V2);
+            salida.writeInt(guardados.size());
+            for (Prestamo prestamo : guardados) {
+                SerializadorEntidades.escribirPrestamo(salida, prestamo);
+            }
+        });
+        long secuencia;
+        Runnable deshacer;
+        candadoEscritura.lock();
+        try {
+            deshacer = capturar(ids);
+            secuencia = bitacora.agregar(registro);
+            memoria.saveAll(guardados);
+        } finally {
+            candadoEscritura.unlock();
+        }
+        confirmar(secuencia, deshacer);
+        return guardados;
+    }
+
+    @Override
+    public Optional<Prestamo> findById(String id) {
+        return memoria.findById(id);
+    }
+
+    @Override
+    public List<Prestamo> findAll() {
+        return memoria.findAll();
+    }
+
+    @Override
+    public List<Prestamo> findByUserId(String userId) {
+        return memoria.findByUserId(userId);
+    }
+
+    @Override
+    public List<Prestamo> findActiveByUserId(String userId) {
+        return memoria.findActiveByUserId(userId);
+    }
+
+    @Override
+    public boolean existsActiveLoan(String libroIsbn) {
+        return memoria.existsActiveLoan(libroIsbn);
+    }
+
+    @Override
+    public List<Prestamo> findActiveByLibroIsbn(String libroIsbn) {
+        return memoria.findActiveByLibroIsbn(libroIsbn);
+    }
+
+    @Override
+    public void forEachActiveLibroIsbn(Consumer<String> accion) {
+        memoria.forEachActiveLibroIsbn(accion);
+    }
+
+    @Override
+    public List<Prestamo> findVencidos(LocalDateTime momento) {
+        return memoria.findVencidos(momento);
+    }
+
+    @Override
+    public List<Prestamo> findPorVencer(LocalDateTime desde, LocalDateTime hasta) {
+        return memoria.findPorVencer(desde, hasta);
+    }
+
+    @Override
+    public Prestamo update(Prestamo prestamo) {
+        LoanRepositoryImpl.validar(prestamo);
+        byte[] registro = codificarGuardado(prestamo);
+        long secuencia;
+        Runnable deshacer;
+        candadoEscritura.lock();
+        try {
+            validarExistente(prestamo.getId());
+            deshacer = capturar(List.of(prestamo.getId()));
+            secuencia = bitacora.agregar(registro);
+            memoria.update(prestamo);
+        } finally {
+            candadoEscritura.unlock();
+        }
+        confirmar(secuencia, deshacer);
+        return prestamo;
+    }
+
+    @Override
+    public void delete(String id) {
+        long secuencia;
+        Runnable deshacer;
+        candadoEscritura.lock();
+        try {
+            validarExistente(id);
+            byte[] registro = SerializadorEntidades.codificar(salida -> {
+                salida.writeByte(ELIMINAR);
+                salida.writeUTF(id);
+            });
+            deshacer = capturar(List.of(id));
+            secuencia = bitacora.agregar(registro);
+            memoria.delete(id);
+        } finally {
+            candadoEscritura.unlock();
+        }
+        confirmar(secuencia, deshacer);
+    }
+
+    @Override
+    public void deleteAll(Collection<String> ids) {
+        if (ids == null) {
+            throw new BibliotecaException("La colección de IDs no puede ser nula");
+        }
+        List<String> lote = new ArrayList<>(ids);
+        long secuencia;
+        Runnable deshacer;
+        candadoEscritura.lock();
+        try {
+            for (String id : lote) {
+                validarExistente(id);
+            }
+            byte[] registro = SerializadorEntidades.codificar(salida -> {
+                salida.writeByte(ELIMINAR_LOTE);
+                salida.writeInt(lote.size());
+                for (String id : lote) {
+                    salida.writeUTF(id);
+                }
+            });
+            deshacer = capturar(lote);
+            secuencia = bitacora.agregar(registro);
+            memoria.deleteAll(lote);
+        } finally {
+            candadoEscritura.unlock();
+        }
+        confirmar(secuencia, deshacer);
+    }
+
+    /**
+     * Escribe una instantánea con los préstamos actuales y vacía la bitácora.
+     * Las escrituras esperan mientras se genera.
+     */
+    public void tomarInstantanea() {
+        if (archivoInstantanea == null) {
+            throw new BibliotecaException("No hay un archivo de instantánea configurado");
+        }
+        candadoEscritura.lock();
+        try {
+            InstantaneaCatalogo.escribir(archivoInstantanea, List.of(), memoria.findAll());
+            bitacora.reiniciar();
+        } finally {
+            candadoEscritura.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        bitacora.close();
+    }
+
+    /**
+     * Confirma una escritura que ya se anexó y se aplicó en memoria. Si el fsync falla, el
+     * cambio se deshace antes de propagar el error, como en {@link PersistentBookRepository}.
+     */
+    private void confirmar(long secuencia, Runnable deshacer) {
+        try {
+            bitacora.sincronizar(secuencia);
+        } catch (RuntimeException e) {
+            candadoEscritura.lock();
+            try {
+                deshacer.run();
+            } finally {
+                candadoEscritura.unlock();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Captura el estado actual de los préstamos para restaurarlo si la escritura no llega a disco.
+     * Requiere el candado de escritura.
+     */
+    private Runnable capturar(Collection<String> ids) {
+        Map<String, Prestamo> anteriores = new HashMap<>();
+        for (String id : ids) {
+            anteriores.put(id, memoria.findById(id).orElse(null));
+        }
+        return () -> anteriores.forEach((id, anterior) -> {
+            if (anterior != null) {
+                memoria.save(anterior);
+            } else if (memoria.findById(id).isPresent()) {
+                memoria.delete(id);
+            }
+        });
+    }
+
+    private void validarExistente(String id) {
+        if (memoria.findById(id).isEmpty()) {
+            throw new BibliotecaException("No existe un préstamo con el ID: " + id);
+        }
+    }
+
+    private void aplicar(byte[] registro) {
+        try (DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(registro))) {
+            byte operacion = entrada.readByte();
+            if (operacion == GUARDAR || operacion == GUARDAR_V2) {
+                memoria.save(SerializadorEntidades.leerPrestamo(entrada, operacion == GUARDAR_V2));
+            } else if (operacion == ELIMINAR) {
+                reproducirEliminacion(entrada.readUTF());
+            } else if (operacion == GUARDAR_LOTE || operacion == GUARDAR_LOTE_V2) {
+                int cantidad = entrada.readInt();
+                List<Prestamo> lote = new ArrayList<>(cantidad);
+                for (int i = 0; i < cantidad; i++) {
+                    lote.add(SerializadorEntidades.leerPrestamo(entrada, operacion == GUARDAR_LOTE_V2));
+                }
+                memoria.saveAll(lote);
+            } else if (operacion == ELIMINAR_LOTE) {
+                int cantidad = entrada.readInt();
+                for (int i = 0; i < cantidad; i++) {
+                    reproducirEliminacion(entrada.readUTF());
+                }
+            } else {
+                throw new BibliotecaException("Operación desconocida en la bitácora de préstamos: " + operacion);
+            }
+        } catch (IOException e) {
+            throw new BibliotecaException("Registro inválido en la bitácora de préstamos", e);
+        }
+    }
+
+    private void reproducirEliminacion(String id) {
+        if (memoria.findById(id).isPresent()) {
+            memoria.delete(id);
+        }
+    }
+
+    private static byte[] codificarGuardado(Prestamo prestamo) {
+        return SerializadorEntidades.codificar(salida -> {
+            salida.writeByte(GUARDAR_V2);
+            SerializadorEntidades.escribirPrestamo(salida, prestamo);
+        });
+    }
+}
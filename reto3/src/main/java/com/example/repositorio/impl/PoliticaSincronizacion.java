@@ -0,0 +1,13 @@
+package com.example.repositorio.impl;
+
+/**
+ * Define cuándo se fuerzan a disco las escrituras de la bitácora.
+ */
+public enum PoliticaSincronizacion {
+    /** Cada operación fuerza el disco antes de confirmarse, sin agrupar. */
+    POR_OPERACION,
+    /** Commit agrupado: un solo fsync confirma todas las escrituras concurrentes pendientes. */
+    AGRUPADA,
+    /** Un hilo de fondo fuerza el disco periódicamente; las escrituras no esperan. */
+    POR_TIEMPO
+}
@@ -0,0 +1,106 @@
+package com.example.repositorio.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import com.example.exception.BibliotecaException;
+import com.example.modelo.Libro;
+import com.example.modelo.Prestamo;
+
+/**
+ * Codificación binaria de las entidades para la bitácora y las instantáneas.
+ */
+public final class SerializadorEntidades {
+
+    private SerializadorEntidades() {
+    }
+
+    /**
+     * Escribe un registro completo en un arreglo de bytes.
+     * @param escritor Escribe el contenido del registro
+     * @return Los bytes del registro
+     */
+    public static byte[] codificar(Escritor escritor) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream salida = new DataOutputStream(bytes)) {
+            escritor.escribir(salida);
+        } catch (IOException e) {
+            throw new BibliotecaException("No se pudo codificar el registro", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static void escribirLibro(DataOutput salida, Libro libro) throws IOException {
+        salida.writeUTF(libro.getIsbn());
+        salida.writeUTF(libro.getTitulo());
+        salida.writeUTF(libro.getAutor());
+        salida.writeUTF(libro.getCategoria());
+        salida.writeInt(libro.getEjemplaresDisponibles());
+    }
+
+    public static Libro leerLibro(DataInput entrada) throws IOException {
+        return new Libro(entrada.readUTF(), entrada.readUTF(), entrada.readUTF(), entrada.readUTF(), entrada.readInt());
+    }
+
+    public static void escribirPrestamo(DataOutput salida, Prestamo prestamo) throws IOException {
+        salida.writeUTF(prestamo.getId());
+        salida.writeUTF(prestamo.getLibroIsbn());
+        salida.writeUTF(prestamo.getUsuarioId());
+        escribirFecha(salida, prestamo.getFechaPrestamo());
+        escribirFecha(salida, prestamo.getFechaDevolucion());
+        escribirFecha(salida, prestamo.getFechaVencimiento());
+    }
+
+    public static Prestamo leerPrestamo(DataInput entrada) throws IOException {
+        return leerPrestamo(entrada, true);
+    }
+
+    /**
+     * Lee un préstamo.
+     * @param entrada La entrada a leer
+     * @param conVencimiento false para registros escritos antes de guardar la fecha de vencimiento;
+     *                       en ese caso se deriva del plazo estándar
+     * @return El préstamo leído
+     */
+    public static Prestamo leerPrestamo(DataInput entrada, boolean conVencimiento) throws IOException {
+        String id = entrada.readUTF();
+        String libroIsbn = entrada.readUTF();
+        String usuarioId = entrada.readUTF();
+        LocalDateTime fechaPrestamo = leerFecha(entrada);
+        LocalDateTime fechaDevolucion = leerFecha(entrada);
+        if (!conVencimiento) {
+            return new Prestamo(id, libroIsbn, usuarioId, fechaPrestamo, fechaDevolucion);
+        }
+        return new Prestamo(id, libroIsbn, usuarioId, fechaPrestamo, fechaDevolucion, leerFecha(entrada));
+    }
+
+    private static void escribirFecha(DataOutput salida, LocalDateTime fecha) throws IOException {
+        salida.writeBoolean(fecha != null);
+        if (fecha != null) {
+            salida.writeLong(fecha.toEpochSecond(ZoneOffset.UTC));
+            salida.writeInt(fecha.getNano());
+        }
+    }
+
+    private static LocalDateTime leerFecha(DataInput entrada) throws IOException {
+        if (!entrada.readBoolean()) {
+            return null;
+        }
+        long segundos = entrada.readLong();
+        int nanos = entrada.readInt();
+        return LocalDateTime.ofEpochSecond(segundos, nanos, ZoneOffset.UTC);
+    }
+
+    /**
+     * Escribe el contenido de un registro.
+     */
+    @FunctionalInterface
+    public interface Escritor {
+        void escribir(DataOutput salida) throws IOException;
+    }
+}
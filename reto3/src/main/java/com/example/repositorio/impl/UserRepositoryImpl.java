@@ -0,0 +1,88 @@
+package com.example.repositorio.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.example.exception.BibliotecaException;
+import com.example.modelo.NormalizadorTexto;
+import com.example.modelo.Usuario;
+import com.example.repositorio.UserRepository;
+
+public class UserRepositoryImpl implements UserRepository {
+    private final ConcurrentMap<String, Usuario> usuarios;
+
+    public UserRepositoryImpl() {
+        this.usuarios = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public Usuario save(Usuario usuario) {
+        validar(usuario);
+        usuarios.put(usuario.getId(), usuario);
+        return usuario;
+    }
+
+    @Override
+    public boolean saveIfAbsent(Usuario usuario) {
+        validar(usuario);
+        return usuarios.putIfAbsent(usuario.getId(), usuario) == null;
+    }
+
+    @Override
+    public Optional<Usuario> findById(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            throw new BibliotecaException("El ID del usuario no puede estar vacío");
+        }
+        return Optional.ofNullable(usuarios.get(id));
+    }
+
+    @Override
+    public List<Usuario> findAll() {
+        return new ArrayList<>(usuarios.values());
+    }
+
+    @Override
+    public List<Usuario> findByNombreContaining(String nombre) {
+        if (nombre == null || nombre.trim().isEmpty()) {
+            throw new BibliotecaException("El nombre no puede estar vacío");
+        }
+        String consulta = NormalizadorTexto.normalizar(nombre);
+        List<Usuario> resultado = new ArrayList<>();
+        for (Usuario usuario : usuarios.values()) {
+            if (usuario.getClaveNombre().contains(consulta)) {
+                resultado.add(usuario);
+            }
+        }
+        return resultado;
+    }
+
+    @Override
+    public void delete(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            throw new BibliotecaException("El ID del usuario no puede estar vacío");
+        }
+        if (usuarios.remove(id) == null) {
+            throw new BibliotecaException("No existe un usuario con el ID: " + id);
+        }
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            throw new BibliotecaException("El ID del usuario no puede estar vacío");
+        }
+        return usuarios.containsKey(id);
+    }
+
+    private void validar(Usuario usuario) {
+        if (usuario == null) {
+            throw new BibliotecaException("El usuario no puede ser nulo");
+        }
+        if (usuario.getId() == null || usuario.getId().trim().isEmpty()) {
+            throw new BibliotecaException("El ID del usuario no puede estar vacío");
+        }
+    }
+}
@@ -2,16 +2,30 @@ package com.example.servicio;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.example.exception.BibliotecaException;
+import com.example.metricas.MetricaOperacion;
+import com.example.metricas.RegistroMetricas;
 import com.example.modelo.Libro;
+import com.example.modelo.EstadoReserva;
 import com.example.modelo.Prestamo;
+import com.example.modelo.Reserva;
 import com.example.modelo.Usuario;
 import com.example.repositorio.BookRepository;
+import com.example.repositorio.FacetaCategoria;
 import com.example.repositorio.LoanRepository;
+import com.example.repositorio.OrdenLibros;
+import com.example.repositorio.Pagina;
+import com.example.repositorio.UserRepository;
+import com.example.repositorio.impl.UserRepositoryImpl;
 
 /**
  * Servicio principal para la gestión de la biblioteca.
@@ -20,14 +34,66 @@ import com.example.repositorio.LoanRepository;
 public class BibliotecaServicio {
     private final BookRepository bookRepository;
     private final LoanRepository loanRepository;
-    private final List<Usuario> usuarios;
+    private final UserRepository userRepository;
+    private final MotorCirculacion motorCirculacion;
+    private final GestorReservas reservas;
+    private final GeneradorIdPrestamo generadorId;
+    private final RegistroMetricas metricas;
+    private final MetricaOperacion metricaAgregarLibro;
+    private final MetricaOperacion metricaAgregarLibros;
+    private final MetricaOperacion metricaBuscarPorAutor;
+    private final MetricaOperacion metricaListarLibros;
+    private final MetricaOperacion metricaBuscarPorTitulo;
+    private final MetricaOperacion metricaPrestarLibro;
+    private final MetricaOperacion metricaPrestarLibros;
+    private final MetricaOperacion metricaDevolverLibro;
     private static final int MAX_PRESTAMOS_POR_USUARIO = 3;
-    private static final int DIAS_PRESTAMO = 15;
+    public static final int MAX_TAMANO_PAGINA = 1000;
+    private static final int LIBROS_POR_CONSULTA = 1000;
 
     public BibliotecaServicio(BookRepository bookRepository, LoanRepository loanRepository) {
+        this(bookRepository, loanRepository, new UserRepositoryImpl());
+    }
+
+    public BibliotecaServicio(BookRepository bookRepository, LoanRepository loanRepository, UserRepository userRepository) {
+        this(bookRepository, loanRepository, userRepository, new GeneradorIdTemporal());
+    }
+
+    public BibliotecaServicio(BookRepository bookRepository, LoanRepository loanRepository, UserRepository userRepository,
+                              GeneradorIdPrestamo generadorId) {
+        this(bookRepository, loanRepository, userRepository, generadorId, new RegistroMetricas());
+    }
+
+    public BibliotecaServicio(BookRepository bookRepository, LoanRepository loanRepository, UserRepository userRepository,
+                              GeneradorIdPrestamo generadorId, RegistroMetricas metricas) {
+        this(bookRepository, loanRepository, userRepository, generadorId, metricas, new GestorReservas());
+    }
+
+    public BibliotecaServicio(BookRepository bookRepository, LoanRepository loanRepository, UserRepository userRepository,
+                              GeneradorIdPrestamo generadorId, RegistroMetricas metricas, GestorReservas reservas) {
         this.bookRepository = bookRepository;
         this.loanRepository = loanRepository;
-        this.usuarios = new ArrayList<>();
+        this.userRepository = userRepository;
+        this.motorCirculacion = new MotorCirculacion();
+        this.reservas = reservas;
+        this.generadorId = generadorId;
+        this.metricas = metricas;
+        this.metricaAgregarLibro = metricas.operacion("servicio.agregarLibro");
+        this.metricaAgregarLibros = metricas.operacion("servicio.agregarLibros");
+        this.metricaBuscarPorAutor = metricas.operacion("servicio.buscarLibrosPorAutor");
+        this.metricaListarLibros = metricas.operacion("servicio.listarLibros");
+        this.metricaBuscarPorTitulo = metricas.operacion("servicio.buscarLibrosPorTitulo");
+        this.metricaPrestarLibro = metricas.operacion("servicio.prestarLibro");
+        this.metricaPrestarLibros = metricas.operacion("servicio.prestarLibros");
+        this.metricaDevolverLibro = metricas.operacion("servicio.devolverLibro");
+    }
+
+    /**
+     * Obtiene el registro con las métricas de las operaciones del servicio.
+     * @return El registro de métricas
+     */
+    public RegistroMetricas getMetricas() {
+        return metricas;
     }
 
     /**
@@ -37,16 +103,66 @@ public class BibliotecaServicio {
      * @throws BibliotecaException si el libro ya existe o los datos son inválidos
      */
     public Libro agregarLibro(Libro libro) {
+        return metricaAgregarLibro.medir(() -> agregarLibroInterno(libro));
+    }
+
+    private Libro agregarLibroInterno(Libro libro) {
         if (libro == null) {
             throw new BibliotecaException("El libro no puede ser nulo");
         }
         if (libro.getIsbn() == null || libro.getIsbn().trim().isEmpty()) {
             throw new BibliotecaException("El ISBN no puede estar vacío");
         }
-        if (bookRepository.existsById(libro.getIsbn())) {
-            throw new BibliotecaException("Ya existe un libro con el ISBN: " + libro.getIsbn());
+        // Bajo el candado del libro, dos altas del mismo ISBN no pueden pasar ambas la validación.
+        return motorCirculacion.ejecutarSobreLibro(libro.getIsbn(), () -> {
+            if (bookRepository.existsById(libro.getIsbn())) {
+                throw new BibliotecaException("Ya existe un libro con el ISBN: " + libro.getIsbn());
+            }
+            return bookRepository.save(libro);
+        });
+    }
+
+    /**
+     * Agrega un lote de libros al sistema. El lote se valida completo antes de guardarse,
+     * de modo que se agregan todos los libros o ninguno.
+     * @param libros Los libros a agregar
+     * @return Los libros agregados
+     * @throws BibliotecaException si algún libro ya existe, se repite en el lote o es inválido
+     */
+    public List<Libro> agregarLibros(Collection<Libro> libros) {
+        return metricaAgregarLibros.medir(() -> agregarLibrosInterno(libros));
+    }
+
+    private List<Libro> agregarLibrosInterno(Collection<Libro> libros) {
+        if (libros == null) {
+            throw new BibliotecaException("La colección de libros no puede ser nula");
+        }
+        Set<String> candados = new HashSet<>();
+        for (Libro libro : libros) {
+            if (libro != null && libro.getIsbn() != null) {
+                candados.add(libro.getIsbn());
+            }
         }
-        return bookRepository.save(libro);
+        // La validación ocurre bajo los candados de todos los libros del lote, así una alta
+        // concurrente del mismo ISBN no puede colarse entre la validación y el guardado.
+        return motorCirculacion.ejecutarSobreLibros(candados, () -> {
+            Set<String> isbns = new HashSet<>();
+            for (Libro libro : libros) {
+                if (libro == null) {
+                    throw new BibliotecaException("El libro no puede ser nulo");
+                }
+                if (libro.getIsbn() == null || libro.getIsbn().trim().isEmpty()) {
+                    throw new BibliotecaException("El ISBN no puede estar vacío");
+                }
+                if (!isbns.add(libro.getIsbn())) {
+                    throw new BibliotecaException("El ISBN está repetido en el lote: " + libro.getIsbn());
+                }
+                if (bookRepository.existsById(libro.getIsbn())) {
+                    throw new BibliotecaException("Ya existe un libro con el ISBN: " + libro.getIsbn());
+                }
+            }
+            return bookRepository.saveAll(libros);
+        });
     }
 
     /**
@@ -63,18 +179,32 @@ public class BibliotecaServicio {
                 .orElseThrow(() -> new BibliotecaException("No se encontró el libro con ISBN: " + isbn));
     }
 
+    /**
+     * Obtiene varios libros con una sola consulta al repositorio.
+     * @param isbns Los ISBN de los libros
+     * @return Los libros encontrados, en el orden de primera aparición; los que no existen se omiten
+     */
+    public List<Libro> obtenerLibrosPorIds(Collection<String> isbns) {
+        if (isbns == null) {
+            throw new BibliotecaException("La colección de ISBN no puede ser nula");
+        }
+        return bookRepository.findAllById(isbns);
+    }
+
     /**
      * Busca libros por autor.
      * @param autor El nombre del autor
      * @return Lista de libros del autor
      */
     public List<Libro> buscarLibrosPorAutor(String autor) {
+        return metricaBuscarPorAutor.medir(() -> buscarLibrosPorAutorInterno(autor));
+    }
+
+    private List<Libro> buscarLibrosPorAutorInterno(String autor) {
         if (autor == null || autor.trim().isEmpty()) {
             throw new BibliotecaException("El autor no puede estar vacío");
         }
-        return bookRepository.findAll().stream()
-                .filter(libro -> libro.getAutor().toLowerCase().contains(autor.toLowerCase()))
-                .collect(Collectors.toList());
+        return bookRepository.findByAutorContaining(autor);
     }
 
     /**
@@ -82,7 +212,39 @@ public class BibliotecaServicio {
      * @return Lista de todos los libros
      */
     public List<Libro> listarLibros() {
-        return new ArrayList<>(bookRepository.findAll());
+        return metricaListarLibros.medir(this::listarLibrosInterno);
+    }
+
+    private List<Libro> listarLibrosInterno() {
+        // El repositorio ya entrega una copia; no se vuelve a copiar.
+        return bookRepository.findAll();
+    }
+
+    /**
+     * Lista una página del catálogo en un orden estable.
+     * @param orden El orden del recorrido
+     * @param cursor El cursor de la página anterior, o null para la primera
+     * @param limite El número máximo de libros de la página
+     * @return La página con los libros y el cursor de la siguiente
+     * @throws BibliotecaException si el orden es nulo o el límite está fuera de rango
+     */
+    public Pagina<Libro> listarLibrosPaginados(OrdenLibros orden, String cursor, int limite) {
+        if (orden == null) {
+            throw new BibliotecaException("El orden no puede ser nulo");
+        }
+        if (limite <= 0 || limite > MAX_TAMANO_PAGINA) {
+            throw new BibliotecaException("El tamaño de página debe estar entre 1 y " + MAX_TAMANO_PAGINA);
+        }
+        return bookRepository.findPage(orden, cursor, limite);
+    }
+
+    /**
+     * Recorre todos los libros sin copiar el catálogo. El recorrido es débilmente
+     * consistente con las modificaciones concurrentes.
+     * @return Flujo de los libros del sistema
+     */
+    public Stream<Libro> recorrerLibros() {
+        return bookRepository.stream();
     }
 
     /**
@@ -91,12 +253,14 @@ public class BibliotecaServicio {
      * @return Lista de libros que coinciden con el título
      */
     public List<Libro> buscarLibrosPorTitulo(String titulo) {
+        return metricaBuscarPorTitulo.medir(() -> buscarLibrosPorTituloInterno(titulo));
+    }
+
+    private List<Libro> buscarLibrosPorTituloInterno(String titulo) {
         if (titulo == null || titulo.trim().isEmpty()) {
             throw new BibliotecaException("El título no puede estar vacío");
         }
-        return bookRepository.findAll().stream()
-                .filter(libro -> libro.getTitulo().toLowerCase().contains(titulo.toLowerCase()))
-                .collect(Collectors.toList());
+        return bookRepository.findByTituloContaining(titulo);
     }
 
     /**
@@ -104,9 +268,39 @@ public class BibliotecaServicio {
      * @return Lista de libros disponibles
      */
     public List<Libro> listarLibrosDisponibles() {
-        return bookRepository.findAll().stream()
-                .filter(libro -> libro.getEjemplaresDisponibles() > 0)
-                .collect(Collectors.toList());
+        return bookRepository.findAvailable();
+    }
+
+    /**
+     * Cuenta los libros que tienen ejemplares disponibles, sin listarlos.
+     * @return Número de libros disponibles
+     */
+    public long contarLibrosDisponibles() {
+        return bookRepository.countAvailable();
+    }
+
+    /**
+     * Busca los libros de una categoría.
+     * @param categoria La categoría exacta
+     * @param soloDisponibles Si solo se devuelven los libros con ejemplares disponibles
+     * @return Lista de libros de la categoría
+     * @throws BibliotecaException si la categoría está vacía
+     */
+    public List<Libro> buscarLibrosPorCategoria(String categoria, boolean soloDisponibles) {
+        if (categoria == null || categoria.trim().isEmpty()) {
+            throw new BibliotecaException("La categoría no puede estar vacía");
+        }
+        return soloDisponibles
+                ? bookRepository.findAvailableByCategoria(categoria)
+                : bookRepository.findByCategoria(categoria);
+    }
+
+    /**
+     * Obtiene, para cada categoría, el total de libros y cuántos están disponibles.
+     * @return Las facetas ordenadas por categoría
+     */
+    public List<FacetaCategoria> listarFacetasCategoria() {
+        return bookRepository.findFacetas();
     }
 
     /**
@@ -121,10 +315,9 @@ public class BibliotecaServicio {
         if (usuario.getId() == null || usuario.getId().trim().isEmpty()) {
             throw new BibliotecaException("El ID del usuario no puede estar vacío");
         }
-        if (usuarios.stream().anyMatch(u -> u.getId().equals(usuario.getId()))) {
+        if (!userRepository.saveIfAbsent(usuario)) {
             throw new BibliotecaException("Ya existe un usuario con el ID: " + usuario.getId());
         }
-        usuarios.add(usuario);
     }
 
     /**
@@ -137,9 +330,7 @@ public class BibliotecaServicio {
         if (id == null || id.trim().isEmpty()) {
             throw new BibliotecaException("El ID del usuario no puede estar vacío");
         }
-        return usuarios.stream()
-                .filter(u -> u.getId().equals(id))
-                .findFirst()
+        return userRepository.findById(id)
                 .orElseThrow(() -> new BibliotecaException("No se encontró el usuario con ID: " + id));
     }
 
@@ -152,9 +343,7 @@ public class BibliotecaServicio {
         if (nombre == null || nombre.trim().isEmpty()) {
             throw new BibliotecaException("El nombre no puede estar vacío");
         }
-        return usuarios.stream()
-                .filter(usuario -> usuario.getNombre().toLowerCase().contains(nombre.toLowerCase()))
-                .collect(Collectors.toList());
+        return userRepository.findByNombreContaining(nombre);
     }
 
     /**
@@ -164,6 +353,10 @@ public class BibliotecaServicio {
      * @throws BibliotecaException si el libro no está disponible o el usuario tiene demasiados préstamos
      */
     public void prestarLibro(String isbn, String usuarioId) {
+        metricaPrestarLibro.medir(() -> prestarLibroInterno(isbn, usuarioId));
+    }
+
+    private void prestarLibroInterno(String isbn, String usuarioId) {
         if (isbn == null || isbn.trim().isEmpty()) {
             throw new BibliotecaException("El ISBN no puede estar vacío");
         }
@@ -171,24 +364,99 @@ public class BibliotecaServicio {
             throw new BibliotecaException("El ID del usuario no puede estar vacío");
         }
 
-        Libro libro = obtenerLibroPorId(isbn);
-        Usuario usuario = obtenerUsuarioPorId(usuarioId);
+        // La validación y el descuento de ejemplares ocurren bajo los candados del usuario
+        // y del libro, así no se venden ejemplares de más ni se supera el límite de préstamos.
+        motorCirculacion.ejecutar(usuarioId, isbn, () -> {
+            Libro libro = obtenerLibroPorId(isbn);
+            obtenerUsuarioPorId(usuarioId);
+
+            // Un ejemplar apartado por una reserva no cuenta entre los disponibles.
+            Reserva reserva = reservas.buscarAsignada(isbn, usuarioId);
+            if (reserva == null) {
+                validarDisponibilidadLibro(libro);
+            }
+            validarLibroNoPrestado(isbn, usuarioId);
+            validarLimitePrestamos(usuarioId);
+
+            Prestamo prestamo = new Prestamo(
+                generadorId.siguienteId(),
+                isbn,
+                usuarioId,
+                LocalDateTime.now(),
+                null
+            );
+
+            if (reserva == null) {
+                libro.setEjemplaresDisponibles(libro.getEjemplaresDisponibles() - 1);
+            }
+            bookRepository.save(libro);
+            loanRepository.save(prestamo);
+            if (reserva != null) {
+                reservas.completar(reserva);
+            }
+        });
+    }
 
-        validarDisponibilidadLibro(libro);
-        validarLibroNoPrestado(isbn, usuarioId);
-        validarLimitePrestamos(usuarioId);
+    /**
+     * Presta varios libros a un usuario en una sola operación: se prestan todos o ninguno.
+     * @param isbns Los ISBN de los libros
+     * @param usuarioId El ID del usuario
+     * @return Los préstamos creados
+     * @throws BibliotecaException si algún libro no está disponible o se supera el límite de préstamos
+     */
+    public List<Prestamo> prestarLibros(Collection<String> isbns, String usuarioId) {
+        return metricaPrestarLibros.medir(() -> prestarLibrosInterno(isbns, usuarioId));
+    }
 
-        Prestamo prestamo = new Prestamo(
-            "P" + System.currentTimeMillis(),
-            isbn,
-            usuarioId,
-            LocalDateTime.now(),
-            LocalDateTime.now().plusDays(DIAS_PRESTAMO)
-        );
+    private List<Prestamo> prestarLibrosInterno(Collection<String> isbns, String usuarioId) {
+        if (isbns == null || isbns.isEmpty()) {
+            throw new BibliotecaException("La colección de ISBN no puede estar vacía");
+        }
+        if (usuarioId == null || usuarioId.trim().isEmpty()) {
+            throw new BibliotecaException("El ID del usuario no puede estar vacío");
+        }
+        Set<String> unicos = new LinkedHashSet<>();
+        for (String isbn : isbns) {
+            if (isbn == null || isbn.trim().isEmpty()) {
+                throw new BibliotecaException("El ISBN no puede estar vacío");
+            }
+            if (!unicos.add(isbn)) {
+                throw new BibliotecaException("El ISBN está repetido en el lote: " + isbn);
+            }
+        }
 
-        libro.setEjemplaresDisponibles(libro.getEjemplaresDisponibles() - 1);
-        bookRepository.save(libro);
-        loanRepository.save(prestamo);
+        return motorCirculacion.ejecutar(usuarioId, unicos, () -> {
+            obtenerUsuarioPorId(usuarioId);
+            List<Libro> libros = new ArrayList<>(unicos.size());
+            List<Reserva> asignadas = new ArrayList<>();
+            for (String isbn : unicos) {
+                Libro libro = obtenerLibroPorId(isbn);
+                Reserva reserva = reservas.buscarAsignada(isbn, usuarioId);
+                if (reserva == null) {
+                    validarDisponibilidadLibro(libro);
+                } else {
+                    asignadas.add(reserva);
+                }
+                validarLibroNoPrestado(isbn, usuarioId);
+                libros.add(libro);
+            }
+            if (loanRepository.findActiveByUserId(usuarioId).size() + libros.size() > MAX_PRESTAMOS_POR_USUARIO) {
+                throw new BibliotecaException("El usuario ha alcanzado el límite de préstamos permitidos");
+            }
+
+            LocalDateTime ahora = LocalDateTime.now();
+            List<Prestamo> prestamos = new ArrayList<>(libros.size());
+            for (Libro libro : libros) {
+                prestamos.add(new Prestamo(generadorId.siguienteId(), libro.getIsbn(), usuarioId, ahora, null));
+                if (reservas.buscarAsignada(libro.getIsbn(), usuarioId) == null) {
+                    libro.setEjemplaresDisponibles(libro.getEjemplaresDisponibles() - 1);
+                }
+            }
+            bookRepository.saveAll(libros);
+            loanRepository.saveAll(prestamos);
+            asignadas.forEach(reservas::completar);
+            return prestamos;
+        });
     }
 
     private void validarDisponibilidadLibro(Libro libro) {
@@ -217,6 +485,10 @@ public class BibliotecaServicio {
      * @throws BibliotecaException si el libro no está prestado por el usuario
      */
     public void devolverLibro(String isbn, String usuarioId) {
+        metricaDevolverLibro.medir(() -> devolverLibroInterno(isbn, usuarioId));
+    }
+
+    private void devolverLibroInterno(String isbn, String usuarioId) {
         if (isbn == null || isbn.trim().isEmpty()) {
             throw new BibliotecaException("El ISBN no puede estar vacío");
         }
@@ -224,14 +496,24 @@ public class BibliotecaServicio {
             throw new BibliotecaException("El ID del usuario no puede estar vacío");
         }
 
-        Libro libro = obtenerLibroPorId(isbn);
-        Prestamo prestamo = obtenerPrestamoActivo(isbn, usuarioId);
-
-        prestamo.setFechaDevolucion(LocalDateTime.now());
-        libro.setEjemplaresDisponibles(libro.getEjemplaresDisponibles() + 1);
-
-        bookRepository.save(libro);
-        loanRepository.save(prestamo);
+        motorCirculacion.ejecutar(usuarioId, isbn, () -> {
+            Libro libro = obtenerLibroPorId(isbn);
+            Prestamo prestamo = obtenerPrestamoActivo(isbn, usuarioId);
+
+            prestamo.setFechaDevolucion(LocalDateTime.now());
+            // Si alguien espera el libro, el ejemplar se le aparta en lugar de volver a los disponibles.
+            // La reserva se asigna después de guardar la devolución, como se completa en prestarLibro:
+            // si el guardado falla, nadie queda con un ejemplar apartado que no se devolvió.
+            boolean apartar = reservas.hayEspera(isbn);
+            if (!apartar) {
+                libro.setEjemplaresDisponibles(libro.getEjemplaresDisponibles() + 1);
+                bookRepository.save(libro);
+            }
+            loanRepository.save(prestamo);
+            if (apartar) {
+                reservas.asignarSiguiente(isbn);
+            }
+        });
     }
 
     private Prestamo obtenerPrestamoActivo(String isbn, String usuarioId) {
@@ -241,6 +523,126 @@ public class BibliotecaServicio {
                 .orElseThrow(() -> new BibliotecaException("No se encontró un préstamo activo para este libro y usuario"));
     }
 
+    /**
+     * Reserva un libro sin ejemplares disponibles. El usuario entra al final de la cola del
+     * libro y, al llegar su turno, una devolución le aparta el ejemplar hasta que lo recoja
+     * con {@link #prestarLibro(String, String)} o venza el plazo de recogida.
+     * @param isbn El ISBN del libro
+     * @param usuarioId El ID del usuario
+     * @return La reserva creada
+     * @throws BibliotecaException si hay ejemplares disponibles, el usuario ya tiene el libro o ya lo reservó
+     */
+    public Reserva reservarLibro(String isbn, String usuarioId) {
+        if (isbn == null || isbn.trim().isEmpty()) {
+            throw new BibliotecaException("El ISBN no puede estar vacío");
+        }
+        if (usuarioId == null || usuarioId.trim().isEmpty()) {
+            throw new BibliotecaException("El ID del usuario no puede estar vacío");
+        }
+
+        return motorCirculacion.ejecutar(usuarioId, isbn, () -> {
+            Libro libro = obtenerLibroPorId(isbn);
+            obtenerUsuarioPorId(usuarioId);
+            if (libro.getEjemplaresDisponibles() > 0) {
+                throw new BibliotecaException("Hay ejemplares disponibles del libro; se puede prestar directamente");
+            }
+            validarLibroNoPrestado(isbn, usuarioId);
+            return reservas.reservar(isbn, usuarioId);
+        });
+    }
+
+    /**
+     * Cancela la reserva activa de un usuario. Si tenía un ejemplar apartado, pasa a la
+     * siguiente reserva o vuelve a los disponibles.
+     * @param isbn El ISBN del libro
+     * @param usuarioId El ID del usuario
+     * @throws BibliotecaException si el usuario no tiene una reserva activa del libro
+     */
+    public void cancelarReserva(String isbn, String usuarioId) {
+        if (isbn == null || isbn.trim().isEmpty()) {
+            throw new BibliotecaException("El ISBN no puede estar vacío");
+        }
+        if (usuarioId == null || usuarioId.trim().isEmpty()) {
+            throw new BibliotecaException("El ID del usuario no puede estar vacío");
+        }
+
+        motorCirculacion.ejecutar(usuarioId, isbn, () -> {
+            Reserva reserva = obtenerReservaActiva(isbn, usuarioId);
+            if (reservas.cancelar(reserva) == EstadoReserva.ASIGNADA) {
+                liberarEjemplarApartado(isbn);
+            }
+        });
+    }
+
+    /**
+     * Obtiene la reserva activa de un usuario sobre un libro.
+     * @param isbn El ISBN del libro
+     * @param usuarioId El ID del usuario
+     * @return La reserva, en espera o con un ejemplar asignado
+     * @throws BibliotecaException si el usuario no tiene una reserva activa del libro
+     */
+    public Reserva obtenerReserva(String isbn, String usuarioId) {
+        if (isbn == null || isbn.trim().isEmpty()) {
+            throw new BibliotecaException("El ISBN no puede estar vacío");
+        }
+        if (usuarioId == null || usuarioId.trim().isEmpty()) {
+            throw new BibliotecaException("El ID del usuario no puede estar vacío");
+        }
+        return obtenerReservaActiva(isbn, usuarioId);
+    }
+
+    /**
+     * Obtiene la posición de la reserva de un usuario en la cola del libro, sin tomar candados.
+     * @param isbn El ISBN del libro
+     * @param usuarioId El ID del usuario
+     * @return 0 si el usuario ya tiene un ejemplar apartado, o su posición a partir de 1
+     * @throws BibliotecaException si el usuario no tiene una reserva activa del libro
+     */
+    public long obtenerPosicionReserva(String isbn, String usuarioId) {
+        return reservas.posicion(obtenerReserva(isbn, usuarioId));
+    }
+
+    /**
+     * Vence las reservas cuyo plazo de espera o de recogida ya pasó. Los ejemplares apartados
+     * de las reservas vencidas pasan a la siguiente reserva o vuelven a los disponibles.
+     * Está pensado para llamarse periódicamente, por ejemplo cada minuto.
+     * @return El número de reservas vencidas
+     */
+    public int procesarReservasVencidas() {
+        int vencidas = 0;
+        for (Reserva reserva : reservas.candidatasAVencer()) {
+            boolean vencida = motorCirculacion.ejecutarSobreLibro(reserva.getLibroIsbn(), () -> {
+                EstadoReserva anterior = reservas.vencer(reserva);
+                if (anterior == EstadoReserva.ASIGNADA) {
+                    liberarEjemplarApartado(reserva.getLibroIsbn());
+                }
+                return anterior != null;
+            });
+            if (vencida) {
+                vencidas++;
+            }
+        }
+        return vencidas;
+    }
+
+    private Reserva obtenerReservaActiva(String isbn, String usuarioId) {
+        Reserva reserva = reservas.buscar(isbn, usuarioId);
+        if (reserva == null) {
+            throw new BibliotecaException("No se encontró una reserva activa para este libro y usuario");
+        }
+        return reserva;
+    }
+
+    private void liberarEjemplarApartado(String isbn) {
+        if (reservas.asignarSiguiente(isbn) != null) {
+            return;
+        }
+        bookRepository.findById(isbn).ifPresent(libro -> {
+            libro.setEjemplaresDisponibles(libro.getEjemplaresDisponibles() + 1);
+            bookRepository.save(libro);
+        });
+    }
+
     /**
      * Obtiene todos los préstamos de un usuario.
      * @param usuarioId El ID del usuario
@@ -266,14 +668,54 @@ public class BibliotecaServicio {
     }
 
     /**
-     * Lista todos los libros prestados actualmente.
+     * Obtiene los préstamos activos de un libro, es decir, quién lo tiene actualmente.
+     * @param isbn El ISBN del libro
+     * @return Lista de préstamos activos del libro
+     */
+    public List<Prestamo> obtenerPrestamosActivosPorLibro(String isbn) {
+        if (isbn == null || isbn.trim().isEmpty()) {
+            throw new BibliotecaException("El ISBN no puede estar vacío");
+        }
+        return loanRepository.findActiveByLibroIsbn(isbn);
+    }
+
+    /**
+     * Lista los préstamos activos cuya fecha de vencimiento ya pasó.
+     * @return Lista de préstamos vencidos, del más antiguo al más reciente
+     */
+    public List<Prestamo> listarPrestamosVencidos() {
+        return loanRepository.findVencidos(LocalDateTime.now());
+    }
+
+    /**
+     * Lista los préstamos activos que vencen dentro de los próximos días.
+     * @param dias El número de días a considerar
+     * @return Lista de préstamos por vencer, ordenados por fecha de vencimiento
+     * @throws BibliotecaException si el número de días es negativo
+     */
+    public List<Prestamo> listarPrestamosPorVencer(int dias) {
+        if (dias < 0) {
+            throw new BibliotecaException("El número de días no puede ser negativo");
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+        return loanRepository.findPorVencer(ahora, ahora.plusDays(dias));
+    }
+
+    /**
+     * Lista los libros prestados actualmente, una vez cada uno aunque tenga varios préstamos activos.
+     * Primero se copian los ISBN del índice de préstamos activos y después se resuelven en
+     * tramos con una consulta por tramo, fuera del recorrido del repositorio de préstamos.
      * @return Lista de libros prestados
      */
     public List<Libro> listarLibrosPrestados() {
-        return loanRepository.findAll().stream()
-                .filter(Prestamo::isActivo)
-                .map(prestamo -> obtenerLibroPorId(prestamo.getLibroIsbn()))
-                .collect(Collectors.toList());
+        List<String> isbns = new ArrayList<>();
+        loanRepository.forEachActiveLibroIsbn(isbns::add);
+        List<Libro> prestados = new ArrayList<>(isbns.size());
+        for (int desde = 0; desde < isbns.size(); desde += LIBROS_POR_CONSULTA) {
+            int hasta = Math.min(desde + LIBROS_POR_CONSULTA, isbns.size());
+            prestados.addAll(bookRepository.findAllById(isbns.subList(desde, hasta)));
+        }
+        return prestados;
     }
 
     /**
@@ -285,10 +727,13 @@ public class BibliotecaServicio {
         if (isbn == null || isbn.trim().isEmpty()) {
             throw new BibliotecaException("El ISBN no puede estar vacío");
         }
-        if (loanRepository.existsActiveLoan(isbn)) {
-            throw new BibliotecaException("No se puede eliminar un libro que tiene préstamos activos");
-        }
-        bookRepository.delete(isbn);
+        motorCirculacion.ejecutarSobreLibro(isbn, () -> {
+            if (loanRepository.existsActiveLoan(isbn)) {
+                throw new BibliotecaException("No se puede eliminar un libro que tiene préstamos activos");
+            }
+            bookRepository.delete(isbn);
+            reservas.descartar(isbn);
+        });
     }
 
     /**
@@ -335,7 +780,7 @@ public class BibliotecaServicio {
         if (id == null || id.trim().isEmpty()) {
             throw new BibliotecaException("El ID del usuario no puede estar vacío");
         }
-        return usuarios.stream().anyMatch(u -> u.getId().equals(id));
+        return userRepository.existsById(id);
     }
 
     /**
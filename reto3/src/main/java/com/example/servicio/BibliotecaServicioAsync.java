@@ -0,0 +1,352 @@
+package com.example.servicio;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import com.example.exception.BibliotecaException;
+import com.example.modelo.Libro;
+import com.example.modelo.Prestamo;
+import com.example.modelo.Reserva;
+import com.example.modelo.Usuario;
+import com.example.repositorio.FacetaCategoria;
+import com.example.repositorio.OrdenLibros;
+import com.example.repositorio.Pagina;
+
+/**
+ * Fachada asíncrona de {@link BibliotecaServicio}: cada operación se ejecuta en el ejecutor
+ * configurado y devuelve un {@link CompletableFuture}, de modo que los llamadores pueden
+ * solapar consultas independientes. Por defecto usa un hilo virtual por operación, así que
+ * las esperas por disco o por candados no ocupan hilos del sistema.
+ * Los errores de negocio completan el futuro con la {@link BibliotecaException} original.
+ */
+public class BibliotecaServicioAsync implements AutoCloseable {
+    private final BibliotecaServicio servicio;
+    private final Executor ejecutor;
+    private final ExecutorService ejecutorPropio;
+
+    /**
+     * Crea la fachada con un ejecutor de hilos virtuales propio, que se cierra con {@link #close()}.
+     * @param servicio El servicio a envolver
+     */
+    public BibliotecaServicioAsync(BibliotecaServicio servicio) {
+        this(servicio, Executors.newVirtualThreadPerTaskExecutor(), true);
+    }
+
+    /**
+     * Crea la fachada sobre un ejecutor externo, que no se cierra con {@link #close()}.
+     * @param servicio El servicio a envolver
+     * @param ejecutor El ejecutor de las operaciones
+     */
+    public BibliotecaServicioAsync(BibliotecaServicio servicio, Executor ejecutor) {
+        this(servicio, ejecutor, false);
+    }
+
+    private BibliotecaServicioAsync(BibliotecaServicio servicio, Executor ejecutor, boolean propio) {
+        if (servicio == null) {
+            throw new BibliotecaException("El servicio de biblioteca no puede ser nulo");
+        }
+        if (ejecutor == null) {
+            throw new BibliotecaException("El ejecutor no puede ser nulo");
+        }
+        this.servicio = servicio;
+        this.ejecutor = ejecutor;
+        this.ejecutorPropio = propio ? (ExecutorService) ejecutor : null;
+    }
+
+    public BibliotecaServicio getServicio() {
+        return servicio;
+    }
+
+    /**
+     * Versión asíncrona de {@link BibliotecaServicio#agregarLibro(Libro)}.
+     */
+    public CompletableFuture<Libro> agregarLibro(Libro libro) {
+        return calcular(() -> servicio.agregarLibro(libro));
+    }
+
+    /**
+     * Versión asíncrona de {@link BibliotecaServicio#agregarLibros(Collection)}.
+     */
+    public CompletableFuture<List<Libro>> agregarLibros(Collection<Libro> libros) {
+        return calcular(() -> servicio.agregarLibros(libros));
+    }
+
+    /**
+     * Versión asíncrona de {@link BibliotecaServicio#obtenerLibroPorId(String)}.
+     */
+    public CompletableFuture<Libro> obtenerLibroPorId(String isbn) {
+        return calcular(() -> servicio.obtenerLibroPorId(isbn));
+    }
+
+    /**
+     * Versión asíncrona de {@link BibliotecaServicio#obtenerLibrosPorIds(Collection)}.
+     */
+    public CompletableFuture<List<Libro>> obtenerLibrosPorIds(Collection<String> isbns) {
+        return calcular(() -> servicio.obtenerLibrosPorIds(isbns));
+    }
+
+    /**
+     * Versión asíncrona de {@link BibliotecaServicio#buscarLibrosPorAutor(String)}.
+     */
+    public CompletableFuture<List<Libro>> buscarLibrosPorAutor(String autor) {
+        return calcular(() -> servicio.buscarLibrosPorAutor(autor));
+    }
+
+    /**
+     * Versión asíncrona de {@link BibliotecaServicio#listarLibros()}.
+     */
+    public CompletableFuture<List<Libro>> listarLibros() {
+        return calcular(() -> servicio.listarLibros());
+    }
+
+    /**
+     * Versión asíncrona de {@link BibliotecaServicio#listarLibrosPaginados(OrdenLibros,String,int)}.
+     */
+    public CompletableFuture<Pagina<Libro>> listarLibrosPaginados(OrdenLibros orden, String cursor, int limite) {
+        return calcular(() -> servicio.listarLibrosPaginados(orden, cursor, limite));
+    }
+
+    /**
+     * Versión asíncrona de {@link BibliotecaServicio#buscarLibrosPorTitulo(String)}.
+     */
+    public CompletableFuture<List<Libro>> buscarLibrosPorTitulo(String titulo) {
+        return calcular(() -> servicio.buscarLibrosPorTitulo(titulo));
+    }
+
+    /**
+     * Versión asíncrona de {@link BibliotecaServicio#listarLibrosDisponibles()}.
+     */
+    public CompletableFuture<List<Libro>> listarLibrosDisponibles() {
+        return calcular(() -> servicio.listarLibrosDisponibles());
+    }
+
+    /**
+     * Versión asíncrona de {@link BibliotecaServicio#contarLibrosDisponibles()}.
+     */
+    public CompletableFuture<Long> contarLibrosDisponibles() {
+        return calcular(() -> servicio.contarLibrosDisponibles());
+    }
+
+    /**
+     * Versión asíncrona de {@link BibliotecaServicio#buscarLibrosPorCategoria(String,boolean)}.
+     */
+    public CompletableFuture<List<Libro>> buscarLibrosPorCategoria(String categoria, boolean soloDisponibles) {
+        return calcular(() -> servicio.buscarLibrosPorCategoria(categoria, soloDisponibles));
+    }
+
+    /**
+     * Versión asíncrona de {@link BibliotecaServicio#listarFacetasCategoria()}.
+     */
+    public CompletableFuture<List<FacetaCategoria>> listarFacetasCategoria() {
+        return calcular(() -> servicio.listarFacetasCategoria());
+    }
+
+    /**
+     * Versión asíncrona de {@link BibliotecaServicio#crearUsuario(Usuario)}.
+     */
+    public CompletableFuture<Void> crearUsuario(Usuario usuario) {
+        return ejecutar(() -> servicio.crearUsuario(usuario));
+    }
+
+    /**
+     * Versión asíncrona de {@link BibliotecaServicio#obtenerUsuarioPorId(String)}.
+     */
+    public CompletableFuture<Usuario> obtenerUsuarioPorId(String id) {
+        return calcular(() -> servicio.obtenerUsuarioPorId(id));
+    }
+
+    /**
+     * Versión asíncrona de {@link BibliotecaServicio#buscarUsuariosPorNombre(String)}.
+     */
+    public CompletableFuture<List<Usuario>> buscarUsuariosPorNombre(String nombre) {
+        return calcular(() -> servicio.buscarUsuariosPorNombre(nombre));
+    }
+
+    /**
+     * Versión asíncrona de {@link BibliotecaServicio#prestarLibro(String,String)}.
+     */
+    public CompletableFuture<Void> prestarLibro(String isbn, String usuarioId) {
+        return ejecutar(() -> servicio.prestarLibro(isbn, usuarioId));
+    }
+
+    /**
+     * Versión asíncrona de {@link BibliotecaServicio#prestarLibros(Collection,String)}.
+     */
+    public CompletableFuture<List<Prestamo>> prestarLibros(Collection<String> isbns, String usuarioId) {
+        return calcular(() -> servicio.prestarLibros(isbns, usuarioId));
+    }
+
+    /**
+     * Versión asíncrona de {@link BibliotecaServicio#devolverLibro(String,String)}.
+     */
+    public CompletableFuture<Void> devolverLibro(String isbn, String usuarioId) {
+        return ejecutar(() -> servicio.devolverLibro(isbn, usuarioId));
+    }
+
+    /**
+     * Versión asíncrona de {@link BibliotecaServicio#reservarLibro(String,String)}.
+     */
+    public CompletableFuture<Reserva> reservarLibro(String isbn, String usuarioId) {
+        return calcular(() -> servicio.reservarLibro(isbn, usuarioId));
+    }
+
+    /**
+     * Versión asíncrona de {@link BibliotecaServicio#cancelarReserva(String,String)}.
+     */
+    public CompletableFuture<Void> cancelarReserva(String isbn, String usuarioId) {
+        return ejecutar(() -> servicio.cancelarReserva(isbn, usuarioId));
+    }
+
+    /**
+     * Versión asíncrona de {@link BibliotecaServicio#obtenerPosicionReserva(String,String)}.
+     */
+    public CompletableFuture<Long> obtenerPosicionReserva(String isbn, String usuarioId) {
+        return calcular(() -> servicio.obtenerPosicionReserva(isbn, usuarioId));
+    }
+
+    /**
+     * Versión asíncrona de {@link BibliotecaServicio#obtenerPrestamosPorUsuario(String)}.
+     */
+    public CompletableFuture<List<Prestamo>> obtenerPrestamosPorUsuario(String usuarioId) {
+        return calcular(() -> servicio.obtenerPrestamosPorUsuario(usuarioId));
+    }
+
+    /**
+     * Versión asíncrona de {@link BibliotecaServicio#obtenerPrestamosActivosPorUsuario(String)}.
+     */
+    public CompletableFuture<List<Prestamo>> obtenerPrestamosActivosPorUsuario(String usuarioId) {
+        return calcular(() -> servicio.obtenerPrestamosActivosPorUsuario(usuarioId));
+    }
+
+    /**
+     * Versión asíncrona de {@link BibliotecaServicio#obtenerPrestamosActivosPorLibro(String)}.
+     */
+    public CompletableFuture<List<Prestamo>> obtenerPrestamosActivosPorLibro(String isbn) {
+        return calcular(() -> servicio.obtenerPrestamosActivosPorLibro(isbn));
+    }
+
+    /**
+     * Versión asíncrona de {@link BibliotecaServicio#listarPrestamosVencidos()}.
+     */
+    public CompletableFuture<List<Prestamo>> listarPrestamosVencidos() {
+        return calcular(() -> servicio.listarPrestamosVencidos());
+    }
+
+    /**
+     * Versión asíncrona de {@link BibliotecaServicio#listarPrestamosPorVencer(int)}.
+     */
+    public CompletableFuture<List<Prestamo>> listarPrestamosPorVencer(int dias) {
+        return calcular(() -> servicio.listarPrestamosPorVencer(dias));
+    }
+
+    /**
+     * Versión asíncrona de {@link BibliotecaServicio#listarLibrosPrestados()}.
+     */
+    public CompletableFuture<List<Libro>> listarLibrosPrestados() {
+        return calcular(() -> servicio.listarLibrosPrestados());
+    }
+
+    /**
+     * Versión asíncrona de {@link BibliotecaServicio#eliminarLibro(String)}.
+     */
+    public CompletableFuture<Void> eliminarLibro(String isbn) {
+        return ejecutar(() -> servicio.eliminarLibro(isbn));
+    }
+
+    /**
+     * Versión asíncrona de {@link BibliotecaServicio#borrarHistorialPrestamo(String,String)}.
+     */
+    public CompletableFuture<Void> borrarHistorialPrestamo(String isbn, String usuarioId) {
+        return ejecutar(() -> servicio.borrarHistorialPrestamo(isbn, usuarioId));
+    }
+
+    /**
+     * Versión asíncrona de {@link BibliotecaServicio#existeLibro(String)}.
+     */
+    public CompletableFuture<Boolean> existeLibro(String isbn) {
+        return calcular(() -> servicio.existeLibro(isbn));
+    }
+
+    /**
+     * Versión asíncrona de {@link BibliotecaServicio#existeUsuario(String)}.
+     */
+    public CompletableFuture<Boolean> existeUsuario(String id) {
+        return calcular(() -> servicio.existeUsuario(id));
+    }
+
+    /**
+     * Versión asíncrona de {@link BibliotecaServicio#tienePrestamoActivo(String,String)}.
+     */
+    public CompletableFuture<Boolean> tienePrestamoActivo(String isbn, String usuarioId) {
+        return calcular(() -> servicio.tienePrestamoActivo(isbn, usuarioId));
+    }
+
+    /**
+     * Obtiene los préstamos de un usuario junto con sus libros. Los libros de todos los
+     * préstamos se resuelven con una sola consulta al repositorio. Un libro eliminado después
+     * del préstamo queda como null; cualquier otro error completa el futuro con ese error.
+     * @param usuarioId El ID del usuario
+     * @return Los préstamos con su libro, en el orden de {@link BibliotecaServicio#obtenerPrestamosPorUsuario}
+     */
+    public CompletableFuture<List<PrestamoConLibro>> obtenerPrestamosConLibros(String usuarioId) {
+        return calcular(() -> {
+            List<Prestamo> prestamos = servicio.obtenerPrestamosPorUsuario(usuarioId);
+            List<String> isbns = new ArrayList<>(prestamos.size());
+            for (Prestamo prestamo : prestamos) {
+                isbns.add(prestamo.getLibroIsbn());
+            }
+            Map<String, Libro> libros = new HashMap<>();
+            for (Libro libro : servicio.obtenerLibrosPorIds(isbns)) {
+                libros.put(libro.getIsbn(), libro);
+            }
+            List<PrestamoConLibro> resultado = new ArrayList<>(prestamos.size());
+            for (Prestamo prestamo : prestamos) {
+                resultado.add(new PrestamoConLibro(prestamo, libros.get(prestamo.getLibroIsbn())));
+            }
+            return resultado;
+        });
+    }
+
+    /**
+     * Espera el resultado de una operación y relanza su error original, sin envolverlo.
+     * @param futuro El futuro de la operación
+     * @return El resultado de la operación
+     */
+    public static <T> T esperar(CompletableFuture<T> futuro) {
+        try {
+            return futuro.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Cierra el ejecutor propio, esperando las operaciones en curso. Un ejecutor externo no se toca.
+     */
+    @Override
+    public void close() {
+        if (ejecutorPropio != null) {
+            ejecutorPropio.close();
+        }
+    }
+
+    private <T> CompletableFuture<T> calcular(Supplier<T> operacion) {
+        return CompletableFuture.supplyAsync(operacion, ejecutor);
+    }
+
+    private CompletableFuture<Void> ejecutar(Runnable operacion) {
+        return CompletableFuture.runAsync(operacion, ejecutor);
+    }
+}
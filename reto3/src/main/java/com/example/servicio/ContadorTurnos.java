@@ -0,0 +1,154 @@
+package com.example.servicio;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Árbol de Fenwick sobre los turnos de una cola de reservas: cuenta en O(log n) cuántos turnos
+ * siguen en espera antes de uno dado, de modo que las reservas canceladas o vencidas se
+ * descuentan en cuanto terminan y no al llegar al frente. El árbol solo cubre desde el primer
+ * turno que sigue en espera; al crecer descarta los anteriores, así que su tamaño depende de
+ * cuántas reservas hay en la cola y no de cuántas pasaron por ella.
+ * <p>
+ * Los turnos se agregan en orden creciente y las escrituras deben estar serializadas, como lo
+ * están bajo el candado del libro. Las lecturas pueden hacerse desde cualquier hilo: se intentan
+ * sin bloquear y solo esperan si coinciden con una escritura.
+ */
+class ContadorTurnos {
+    private static final int CAPACIDAD_INICIAL = 16;
+
+    private final StampedLock candado = new StampedLock();
+    /** Índices desde 1; el índice i corresponde al turno {@code base + i}. */
+    private long[] arbol = new long[CAPACIDAD_INICIAL + 1];
+    private long base;
+    private long total;
+
+    /**
+     * Registra un turno nuevo en espera.
+     * @param turno El turno, mayor que todos los registrados antes
+     */
+    void agregar(long turno) {
+        long sello = candado.writeLock();
+        try {
+            if (turno - base >= arbol.length) {
+                reconstruir(turno);
+            }
+            sumar(turno - base, 1);
+            total++;
+        } finally {
+            candado.unlockWrite(sello);
+        }
+    }
+
+    /**
+     * Retira un turno que deja de estar en espera.
+     * @param turno Un turno registrado con {@link #agregar(long)} y todavía no retirado
+     */
+    void quitar(long turno) {
+        long sello = candado.writeLock();
+        try {
+            if (turno <= base || turno - base >= arbol.length) {
+                throw new IllegalArgumentException("Turno no registrado: " + turno);
+            }
+            sumar(turno - base, -1);
+            total--;
+        } finally {
+            candado.unlockWrite(sello);
+        }
+    }
+
+    /**
+     * Cuenta los turnos en espera anteriores a uno dado.
+     * @param turno El turno
+     * @return El número de turnos menores que siguen en espera
+     */
+    long anteriores(long turno) {
+        long sello = candado.tryOptimisticRead();
+        long resultado = contarAnteriores(turno);
+        if (!candado.validate(sello)) {
+            sello = candado.readLock();
+            try {
+                resultado = contarAnteriores(turno);
+            } finally {
+                candado.unlockRead(sello);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Cuenta todos los turnos en espera.
+     * @return El número de turnos en espera
+     */
+    long enEspera() {
+        long sello = candado.tryOptimisticRead();
+        long resultado = total;
+        if (!candado.validate(sello)) {
+            sello = candado.readLock();
+            try {
+                resultado = total;
+            } finally {
+                candado.unlockRead(sello);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Suma los turnos anteriores. En una lectura optimista los campos pueden ser de versiones
+     * distintas: el índice se acota al arreglo leído y el resultado se descarta si no se valida.
+     */
+    private long contarAnteriores(long turno) {
+        long[] actual = arbol;
+        long indice = Math.min(turno - base - 1, actual.length - 1);
+        long suma = 0;
+        for (int i = (int) Math.max(indice, 0); i > 0; i -= i & -i) {
+            suma += actual[i];
+        }
+        return suma;
+    }
+
+    private void sumar(long posicion, long delta) {
+        for (int i = (int) posicion; i < arbol.length; i += i & -i) {
+            arbol[i] += delta;
+        }
+    }
+
+    /**
+     * Reconstruye el árbol desde el primer turno en espera, con espacio para el turno nuevo.
+     * Cuesta O(n) y se amortiza porque la capacidad al menos se duplica respecto de los turnos vivos.
+     */
+    private void reconstruir(long turnoNuevo) {
+        int capacidad = arbol.length - 1;
+        // Deshace la construcción en O(n): cada nodo resta su valor acumulado al de su padre,
+        // de mayor a menor índice, y queda el valor de cada turno.
+        long[] valores = arbol.clone();
+        for (int i = capacidad; i > 0; i--) {
+            int padre = i + (i & -i);
+            if (padre <= capacidad) {
+                valores[padre] -= valores[i];
+            }
+        }
+        int primero = 1;
+        while (primero <= capacidad && valores[primero] == 0) {
+            primero++;
+        }
+        long nuevaBase = base + primero - 1;
+        long vivos = turnoNuevo - nuevaBase;
+        int nuevaCapacidad = CAPACIDAD_INICIAL;
+        while (nuevaCapacidad < 2 * vivos) {
+            nuevaCapacidad <<= 1;
+        }
+        long[] nuevo = new long[nuevaCapacidad + 1];
+        for (int i = primero; i <= capacidad; i++) {
+            nuevo[i - primero + 1] = valores[i];
+        }
+        for (int i = 1; i <= nuevaCapacidad; i++) {
+            int padre = i + (i & -i);
+            if (padre <= nuevaCapacidad) {
+                nuevo[padre] += nuevo[i];
+            }
+        }
+        arbol = nuevo;
+        base = nuevaBase;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.servicio;
+
+/**
+ * Genera identificadores únicos para los préstamos.
+ */
+public interface GeneradorIdPrestamo {
+    String siguienteId();
+}
@@ -0,0 +1,53 @@
+package com.example.servicio;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generador de IDs sin bloqueos que combina tiempo, nodo y secuencia en un long.
+ * Usa 41 bits para los milisegundos desde 2024-01-01 UTC, 10 bits para el nodo
+ * y 12 bits para la secuencia dentro del mismo milisegundo. Cuando la secuencia
+ * se agota, toma prestado el milisegundo siguiente en lugar de esperar, por lo que
+ * los IDs son únicos y quedan aproximadamente ordenados por tiempo.
+ */
+public class GeneradorIdTemporal implements GeneradorIdPrestamo {
+    private static final long EPOCA = 1704067200000L;
+    private static final int BITS_NODO = 10;
+    private static final int BITS_SECUENCIA = 12;
+    public static final int MAX_NODO = (1 << BITS_NODO) - 1;
+
+    private final int nodo;
+    private final AtomicLong estado;
+
+    public GeneradorIdTemporal() {
+        this(0);
+    }
+
+    public GeneradorIdTemporal(int nodo) {
+        if (nodo < 0 || nodo > MAX_NODO) {
+            throw new IllegalArgumentException("El nodo debe estar entre 0 y " + MAX_NODO);
+        }
+        this.nodo = nodo;
+        this.estado = new AtomicLong();
+    }
+
+    @Override
+    public String siguienteId() {
+        return "P" + Long.toString(siguienteValor(), Character.MAX_RADIX);
+    }
+
+    /**
+     * Genera el siguiente ID numérico.
+     * @return Un valor único para este nodo, creciente en el tiempo
+     */
+    public long siguienteValor() {
+        long ahora = (System.currentTimeMillis() - EPOCA) << BITS_SECUENCIA;
+        // El estado guarda milisegundos y secuencia juntos; avanzar en uno desborda
+        // la secuencia hacia el milisegundo siguiente.
+        long siguiente = estado.updateAndGet(actual -> Math.max(actual + 1, ahora));
+        long milisegundos = siguiente >>> BITS_SECUENCIA;
+        long secuencia = siguiente & ((1L << BITS_SECUENCIA) - 1);
+        return (milisegundos << (BITS_NODO + BITS_SECUENCIA))
+                | ((long) nodo << BITS_SECUENCIA)
+                | secuencia;
+    }
+}
@@ -0,0 +1,278 @@
+package com.example.servicio;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.example.exception.BibliotecaException;
+import com.example.modelo.EstadoReserva;
+import com.example.modelo.Reserva;
+
+/**
+ * Colas de reservas por ISBN para los libros sin ejemplares disponibles.
+ * Cada libro tiene una cola FIFO sin bloqueos, un contador de turnos entregados y un
+ * {@link ContadorTurnos} con los turnos que siguen en espera. La posición de una reserva es el
+ * número de turnos anteriores en espera más uno, en O(log n), y la reserva activa de un usuario
+ * se encuentra por una tabla hash en O(1); ninguna de las dos consultas toma el candado del libro. Los vencimientos se programan en una {@link RuedaTemporizadora},
+ * que solo guarda el plazo vigente de cada reserva activa: al asignarse, cancelarse, completarse
+ * o vencer una reserva, su entrada anterior se retira de la rueda.
+ * <p>
+ * Los cambios de una cola deben hacerse con el candado de su libro tomado, como lo hace
+ * {@link BibliotecaServicio}; las consultas pueden hacerse desde cualquier hilo.
+ */
+public class GestorReservas {
+    public static final Duration PLAZO_ESPERA_POR_DEFECTO = Duration.ofDays(30);
+    public static final Duration PLAZO_RECOGIDA_POR_DEFECTO = Duration.ofDays(3);
+    private static final long DURACION_TICK = Duration.ofMinutes(1).toMillis();
+    private static final int RANURAS = 1024;
+
+    private final ConcurrentMap<String, ColaReservas> colas = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Reserva> activas = new ConcurrentHashMap<>();
+    private final RuedaTemporizadora<Reserva> rueda;
+    private final ConcurrentMap<Reserva, RuedaTemporizadora.Entrada<Reserva>> temporizadores = new ConcurrentHashMap<>();
+    private final Duration plazoEspera;
+    private final Duration plazoRecogida;
+    private final Clock reloj;
+
+    public GestorReservas() {
+        this(PLAZO_ESPERA_POR_DEFECTO, PLAZO_RECOGIDA_POR_DEFECTO, Clock.systemDefaultZone());
+    }
+
+    /**
+     * @param plazoEspera Cuánto puede esperar una reserva en la cola
+     * @param plazoRecogida Cuánto se aparta un ejemplar para el usuario al llegar su turno
+     * @param reloj El reloj con el que se calculan los vencimientos
+     */
+    public GestorReservas(Duration plazoEspera, Duration plazoRecogida, Clock reloj) {
+        if (plazoEspera == null || plazoEspera.isNegative() || plazoEspera.isZero()
+                || plazoRecogida == null || plazoRecogida.isNegative() || plazoRecogida.isZero()) {
+            throw new BibliotecaException("Los plazos de reserva deben ser positivos");
+        }
+        if (reloj == null) {
+            throw new BibliotecaException("El reloj no puede ser nulo");
+        }
+        this.plazoEspera = plazoEspera;
+        this.plazoRecogida = plazoRecogida;
+        this.reloj = reloj;
+        this.rueda = new RuedaTemporizadora<>(DURACION_TICK, RANURAS, reloj.millis());
+    }
+
+    /**
+     * Agrega una reserva al final de la cola del libro.
+     * @param isbn El ISBN del libro
+     * @param usuarioId El ID del usuario
+     * @return La reserva creada, en espera
+     * @throws BibliotecaException si el usuario ya tiene una reserva activa del libro
+     */
+    Reserva reservar(String isbn, String usuarioId) {
+        if (activas.containsKey(clave(isbn, usuarioId))) {
+            throw new BibliotecaException("El usuario ya tiene una reserva de este libro");
+        }
+        ColaReservas cola = colas.computeIfAbsent(isbn, i -> new ColaReservas());
+        LocalDateTime ahora = LocalDateTime.now(reloj);
+        Reserva reserva = new Reserva(cola.entregados.incrementAndGet(), isbn, usuarioId, ahora, ahora.plus(plazoEspera));
+        activas.put(clave(isbn, usuarioId), reserva);
+        cola.turnos.agregar(reserva.getTurno());
+        cola.espera.add(reserva);
+        programar(reserva, plazoEspera);
+        return reserva;
+    }
+
+    /**
+     * Busca la reserva activa de un usuario sobre un libro.
+     * @return La reserva, o null si no hay ninguna activa
+     */
+    Reserva buscar(String isbn, String usuarioId) {
+        return activas.get(clave(isbn, usuarioId));
+    }
+
+    /**
+     * Busca la reserva de un usuario que tiene un ejemplar apartado del libro.
+     * @return La reserva asignada, o null si no la hay
+     */
+    Reserva buscarAsignada(String isbn, String usuarioId) {
+        Reserva reserva = activas.get(clave(isbn, usuarioId));
+        return reserva != null && reserva.getEstado() == EstadoReserva.ASIGNADA ? reserva : null;
+    }
+
+    /**
+     * Calcula la posición de una reserva en la cola de su libro. Solo cuentan las reservas
+     * por delante que siguen en espera.
+     * @param reserva La reserva activa
+     * @return 0 si ya tiene un ejemplar apartado, o su posición a partir de 1
+     */
+    long posicion(Reserva reserva) {
+        if (reserva.getEstado() != EstadoReserva.ESPERANDO) {
+            return 0;
+        }
+        ColaReservas cola = colas.get(reserva.getLibroIsbn());
+        return cola == null ? 1 : cola.turnos.anteriores(reserva.getTurno()) + 1;
+    }
+
+    /**
+     * Indica si alguna reserva espera el libro, es decir, si {@link #asignarSiguiente(String)}
+     * apartaría el ejemplar. La respuesta se mantiene mientras se tenga el candado del libro.
+     * @param isbn El ISBN del libro
+     * @return true si hay al menos una reserva en espera
+     */
+    boolean hayEspera(String isbn) {
+        ColaReservas cola = colas.get(isbn);
+        return cola != null && cola.turnos.enEspera() > 0;
+    }
+
+    /**
+     * Aparta un ejemplar para la primera reserva en espera del libro.
+     * @param isbn El ISBN del libro
+     * @return La reserva que recibe el ejemplar, o null si nadie espera el libro
+     */
+    Reserva asignarSiguiente(String isbn) {
+        ColaReservas cola = colas.get(isbn);
+        if (cola == null) {
+            return null;
+        }
+        Reserva reserva;
+        while ((reserva = cola.espera.poll()) != null) {
+            if (reserva.getEstado() == EstadoReserva.ESPERANDO) {
+                cola.turnos.quitar(reserva.getTurno());
+                reserva.setEstado(EstadoReserva.ASIGNADA);
+                reserva.setFechaVencimiento(LocalDateTime.now(reloj).plus(plazoRecogida));
+                cola.asignadas.add(reserva);
+                programar(reserva, plazoRecogida);
+                return reserva;
+            }
+        }
+        if (cola.asignadas.isEmpty()) {
+            colas.remove(isbn, cola);
+        }
+        return null;
+    }
+
+    /**
+     * Marca como recogido el ejemplar apartado de una reserva.
+     * @param reserva La reserva asignada
+     */
+    void completar(Reserva reserva) {
+        finalizar(reserva, EstadoReserva.COMPLETADA);
+    }
+
+    /**
+     * Cancela una reserva activa.
+     * @param reserva La reserva
+     * @return El estado que tenía; si era {@link EstadoReserva#ASIGNADA}, su ejemplar queda libre
+     */
+    EstadoReserva cancelar(Reserva reserva) {
+        return finalizar(reserva, EstadoReserva.CANCELADA);
+    }
+
+    /**
+     * Vence una reserva si sigue activa y su plazo ya pasó.
+     * @param reserva La reserva entregada por {@link #candidatasAVencer()}
+     * @return El estado que tenía, o null si no correspondía vencerla
+     */
+    EstadoReserva vencer(Reserva reserva) {
+        if (!reserva.isActiva() || reserva.getFechaVencimiento().isAfter(LocalDateTime.now(reloj))) {
+            return null;
+        }
+        return finalizar(reserva, EstadoReserva.VENCIDA);
+    }
+
+    /**
+     * Avanza la rueda de vencimientos.
+     * @return Las reservas cuyo plazo programado ya pasó; se confirman con {@link #vencer(Reserva)}
+     */
+    List<Reserva> candidatasAVencer() {
+        List<Reserva> candidatas = rueda.avanzar(reloj.millis());
+        for (Reserva reserva : candidatas) {
+            temporizadores.remove(reserva);
+        }
+        // Una reserva pudo terminar entre el avance y este filtro; las activas se confirman
+        // después contra su fecha de vencimiento vigente.
+        candidatas.removeIf(reserva -> !reserva.isActiva());
+        return candidatas;
+    }
+
+    /**
+     * Cancela todas las reservas activas de un libro, por ejemplo al darlo de baja.
+     * @param isbn El ISBN del libro
+     * @return Las reservas canceladas
+     */
+    List<Reserva> descartar(String isbn) {
+        ColaReservas cola = colas.remove(isbn);
+        List<Reserva> canceladas = new ArrayList<>();
+        if (cola == null) {
+            return canceladas;
+        }
+        for (Reserva reserva : cola.asignadas) {
+            canceladas.add(reserva);
+        }
+        for (Reserva reserva : cola.espera) {
+            if (reserva.isActiva()) {
+                canceladas.add(reserva);
+            }
+        }
+        for (Reserva reserva : canceladas) {
+            finalizar(reserva, EstadoReserva.CANCELADA);
+        }
+        return canceladas;
+    }
+
+    /**
+     * Cuenta los vencimientos que siguen programados en la rueda.
+     * @return El número de vencimientos pendientes
+     */
+    int vencimientosProgramados() {
+        return rueda.pendientes();
+    }
+
+    /**
+     * Programa el vencimiento de la reserva y retira de la rueda el que tenía antes.
+     */
+    private void programar(Reserva reserva, Duration plazo) {
+        RuedaTemporizadora.Entrada<Reserva> anterior =
+                temporizadores.put(reserva, rueda.programar(reserva, reloj.millis() + plazo.toMillis()));
+        if (anterior != null) {
+            rueda.cancelar(anterior);
+        }
+    }
+
+    private EstadoReserva finalizar(Reserva reserva, EstadoReserva estado) {
+        EstadoReserva anterior = reserva.getEstado();
+        reserva.setEstado(estado);
+        RuedaTemporizadora.Entrada<Reserva> temporizador = temporizadores.remove(reserva);
+        if (temporizador != null) {
+            rueda.cancelar(temporizador);
+        }
+        activas.remove(clave(reserva.getLibroIsbn(), reserva.getUsuarioId()), reserva);
+        ColaReservas cola = colas.get(reserva.getLibroIsbn());
+        if (cola != null) {
+            if (anterior == EstadoReserva.ESPERANDO) {
+                cola.turnos.quitar(reserva.getTurno());
+            }
+            cola.asignadas.remove(reserva);
+            if (cola.espera.isEmpty() && cola.asignadas.isEmpty()) {
+                colas.remove(reserva.getLibroIsbn(), cola);
+            }
+        }
+        // Las reservas en espera se quedan en la cola y se descartan al llegar al frente;
+        // el contador de turnos ya no las cuenta para la posición de las siguientes.
+        return anterior;
+    }
+
+    private static String clave(String isbn, String usuarioId) {
+        return isbn + '\u0000' + usuarioId;
+    }
+
+    private static final class ColaReservas {
+        private final ConcurrentLinkedQueue<Reserva> espera = new ConcurrentLinkedQueue<>();
+        private final Set<Reserva> asignadas = ConcurrentHashMap.newKeySet();
+        private final AtomicLong entregados = new AtomicLong();
+        private final ContadorTurnos turnos = new ContadorTurnos();
+    }
+}
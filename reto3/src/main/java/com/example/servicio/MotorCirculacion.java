@@ -0,0 +1,182 @@
+package com.example.servicio;
+
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializa las operaciones de circulación que comparten usuario o libro.
+ * Usa candados segmentados por ID de usuario y por ISBN, de modo que préstamos
+ * sobre usuarios y libros distintos avanzan en paralelo sin un candado global.
+ * Los candados siempre se toman en el orden usuario y luego libro, y varios libros en
+ * orden creciente de segmento, para evitar interbloqueos.
+ */
+public class MotorCirculacion {
+    private static final int SEGMENTOS_POR_PROCESADOR = 16;
+
+    private final ReentrantLock[] candadosUsuario;
+    private final ReentrantLock[] candadosLibro;
+
+    public MotorCirculacion() {
+        this(Runtime.getRuntime().availableProcessors() * SEGMENTOS_POR_PROCESADOR);
+    }
+
+    public MotorCirculacion(int segmentos) {
+        if (segmentos <= 0) {
+            throw new IllegalArgumentException("El número de segmentos debe ser positivo");
+        }
+        int tamano = Integer.highestOneBit(segmentos - 1) << 1;
+        if (tamano <= 0) {
+            tamano = 1;
+        }
+        this.candadosUsuario = crearCandados(tamano);
+        this.candadosLibro = crearCandados(tamano);
+    }
+
+    /**
+     * Ejecuta una operación con exclusión mutua sobre el usuario y el libro.
+     * @param usuarioId El ID del usuario
+     * @param isbn El ISBN del libro
+     * @param operacion La operación a ejecutar
+     */
+    public void ejecutar(String usuarioId, String isbn, Runnable operacion) {
+        ejecutar(usuarioId, isbn, sinResultado(operacion));
+    }
+
+    /**
+     * Calcula un resultado con exclusión mutua sobre el usuario y el libro.
+     * @param usuarioId El ID del usuario
+     * @param isbn El ISBN del libro
+     * @param operacion La operación a ejecutar
+     * @return El resultado de la operación
+     */
+    public <T> T ejecutar(String usuarioId, String isbn, Supplier<T> operacion) {
+        ReentrantLock candadoUsuario = candado(candadosUsuario, usuarioId);
+        ReentrantLock candadoLibro = candado(candadosLibro, isbn);
+        candadoUsuario.lock();
+        try {
+            candadoLibro.lock();
+            try {
+                return operacion.get();
+            } finally {
+                candadoLibro.unlock();
+            }
+        } finally {
+            candadoUsuario.unlock();
+        }
+    }
+
+    /**
+     * Ejecuta una operación con exclusión mutua sobre el usuario y varios libros.
+     * @param usuarioId El ID del usuario
+     * @param isbns Los ISBN de los libros
+     * @param operacion La operación a ejecutar
+     */
+    public void ejecutar(String usuarioId, Collection<String> isbns, Runnable operacion) {
+        ejecutar(usuarioId, isbns, sinResultado(operacion));
+    }
+
+    /**
+     * Calcula un resultado con exclusión mutua sobre el usuario y varios libros.
+     * @param usuarioId El ID del usuario
+     * @param isbns Los ISBN de los libros
+     * @param operacion La operación a ejecutar
+     * @return El resultado de la operación
+     */
+    public <T> T ejecutar(String usuarioId, Collection<String> isbns, Supplier<T> operacion) {
+        ReentrantLock candadoUsuario = candado(candadosUsuario, usuarioId);
+        candadoUsuario.lock();
+        try {
+            return ejecutarSobreLibros(isbns, operacion);
+        } finally {
+            candadoUsuario.unlock();
+        }
+    }
+
+    /**
+     * Ejecuta una operación con exclusión mutua solo sobre varios libros.
+     * @param isbns Los ISBN de los libros
+     * @param operacion La operación a ejecutar
+     */
+    public void ejecutarSobreLibros(Collection<String> isbns, Runnable operacion) {
+        ejecutarSobreLibros(isbns, sinResultado(operacion));
+    }
+
+    /**
+     * Calcula un resultado con exclusión mutua solo sobre varios libros.
+     * @param isbns Los ISBN de los libros
+     * @param operacion La operación a ejecutar
+     * @return El resultado de la operación
+     */
+    public <T> T ejecutarSobreLibros(Collection<String> isbns, Supplier<T> operacion) {
+        TreeSet<Integer> segmentos = new TreeSet<>();
+        for (String isbn : isbns) {
+            segmentos.add(segmento(candadosLibro, isbn));
+        }
+        int tomados = 0;
+        try {
+            for (int segmento : segmentos) {
+                candadosLibro[segmento].lock();
+                tomados++;
+            }
+            return operacion.get();
+        } finally {
+            for (int segmento : segmentos) {
+                if (tomados-- == 0) {
+                    break;
+                }
+                candadosLibro[segmento].unlock();
+            }
+        }
+    }
+
+    /**
+     * Ejecuta una operación con exclusión mutua solo sobre el libro.
+     * @param isbn El ISBN del libro
+     * @param operacion La operación a ejecutar
+     */
+    public void ejecutarSobreLibro(String isbn, Runnable operacion) {
+        ejecutarSobreLibro(isbn, sinResultado(operacion));
+    }
+
+    /**
+     * Calcula un resultado con exclusión mutua solo sobre el libro.
+     * @param isbn El ISBN del libro
+     * @param operacion La operación a ejecutar
+     * @return El resultado de la operación
+     */
+    public <T> T ejecutarSobreLibro(String isbn, Supplier<T> operacion) {
+        ReentrantLock candadoLibro = candado(candadosLibro, isbn);
+        candadoLibro.lock();
+        try {
+            return operacion.get();
+        } finally {
+            candadoLibro.unlock();
+        }
+    }
+
+    private static Supplier<Void> sinResultado(Runnable operacion) {
+        return () -> {
+            operacion.run();
+            return null;
+        };
+    }
+
+    private static ReentrantLock candado(ReentrantLock[] candados, String clave) {
+        return candados[segmento(candados, clave)];
+    }
+
+    private static int segmento(ReentrantLock[] candados, String clave) {
+        int h = clave.hashCode();
+        return (h ^ (h >>> 16)) & (candados.length - 1);
+    }
+
+    private static ReentrantLock[] crearCandados(int tamano) {
+        ReentrantLock[] candados = new ReentrantLock[tamano];
+        for (int i = 0; i < tamano; i++) {
+            candados[i] = new ReentrantLock();
+        }
+        return candados;
+    }
+}
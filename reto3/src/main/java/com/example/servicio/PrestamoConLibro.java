@@ -0,0 +1,29 @@
+package com.example.servicio;
+
+import com.example.modelo.Libro;
+import com.example.modelo.Prestamo;
+
+/**
+ * Un préstamo junto con el libro prestado, resueltos por {@link BibliotecaServicioAsync}.
+ */
+public class PrestamoConLibro {
+    private final Prestamo prestamo;
+    private final Libro libro;
+
+    public PrestamoConLibro(Prestamo prestamo, Libro libro) {
+        this.prestamo = prestamo;
+        this.libro = libro;
+    }
+
+    public Prestamo getPrestamo() {
+        return prestamo;
+    }
+
+    /**
+     * Obtiene el libro prestado.
+     * @return El libro, o null si ya no existe en el catálogo
+     */
+    public Libro getLibro() {
+        return libro;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.servicio;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rueda de temporizadores con ranuras: programar y cancelar un vencimiento cuesta O(1) y avanzar
+ * la rueda solo recorre las ranuras de los ticks transcurridos, sin ordenar todos los pendientes.
+ * Un vencimiento más lejano que una vuelta completa espera en su ranura las vueltas necesarias.
+ * Los elementos entregados pueden haber cambiado desde que se programaron, así que quien
+ * los recibe debe comprobar su estado.
+ * @param <T> El tipo de los elementos programados
+ */
+class RuedaTemporizadora<T> {
+    private static final int SIN_POSICION = -1;
+
+    private final long duracionTick;
+    private final List<List<Entrada<T>>> ranuras;
+    private long ultimoTick;
+
+    /**
+     * @param duracionTick La duración de un tick en milisegundos
+     * @param ranuras El número de ranuras, redondeado a la siguiente potencia de dos
+     * @param ahora El instante inicial en milisegundos
+     */
+    RuedaTemporizadora(long duracionTick, int ranuras, long ahora) {
+        if (duracionTick <= 0 || ranuras <= 0) {
+            throw new IllegalArgumentException("La duración del tick y las ranuras deben ser positivas");
+        }
+        int tamano = ranuras == 1 ? 1 : Integer.highestOneBit(ranuras - 1) << 1;
+        this.duracionTick = duracionTick;
+        this.ranuras = new ArrayList<>(tamano);
+        for (int i = 0; i < tamano; i++) {
+            this.ranuras.add(new ArrayList<>());
+        }
+        this.ultimoTick = ahora / duracionTick;
+    }
+
+    /**
+     * Programa un elemento para que se entregue al avanzar la rueda más allá de su vencimiento.
+     * @param elemento El elemento
+     * @param vencimiento El vencimiento en milisegundos
+     * @return La entrada programada, para {@link #cancelar(Entrada)}
+     */
+    synchronized Entrada<T> programar(T elemento, long vencimiento) {
+        // Lo que ya venció se entrega en el próximo avance. Se redondea hacia arriba para
+        // no entregar nada antes de su vencimiento.
+        long tick = Math.max(Math.floorDiv(vencimiento + duracionTick - 1, duracionTick), ultimoTick + 1);
+        List<Entrada<T>> ranura = ranuras.get(indiceRanura(tick));
+        Entrada<T> entrada = new Entrada<>(elemento, tick, ranura.size());
+        ranura.add(entrada);
+        return entrada;
+    }
+
+    /**
+     * Quita una entrada de su ranura antes de que venza.
+     * @param entrada La entrada devuelta por {@link #programar(Object, long)}
+     * @return false si la entrada ya se había entregado o cancelado
+     */
+    synchronized boolean cancelar(Entrada<T> entrada) {
+        if (entrada.posicion == SIN_POSICION) {
+            return false;
+        }
+        quitar(ranuras.get(indiceRanura(entrada.tick)), entrada.posicion);
+        return true;
+    }
+
+    /**
+     * Avanza la rueda hasta el instante dado.
+     * @param ahora El instante actual en milisegundos
+     * @return Los elementos cuyo vencimiento ya pasó
+     */
+    synchronized List<T> avanzar(long ahora) {
+        long tickActual = ahora / duracionTick;
+        List<T> vencidos = new ArrayList<>();
+        // Tras una pausa de más de una vuelta basta con recorrer cada ranura una vez.
+        long desde = Math.max(ultimoTick + 1, tickActual - ranuras.size() + 1);
+        for (long tick = desde; tick <= tickActual; tick++) {
+            List<Entrada<T>> ranura = ranuras.get(indiceRanura(tick));
+            for (int i = ranura.size() - 1; i >= 0; i--) {
+                Entrada<T> entrada = ranura.get(i);
+                if (entrada.tick <= tickActual) {
+                    vencidos.add(entrada.elemento);
+                    quitar(ranura, i);
+                }
+            }
+        }
+        ultimoTick = Math.max(ultimoTick, tickActual);
+        return vencidos;
+    }
+
+    /**
+     * Cuenta los elementos programados que aún no se han entregado.
+     * @return El número de elementos pendientes
+     */
+    synchronized int pendientes() {
+        int total = 0;
+        for (List<Entrada<T>> ranura : ranuras) {
+            total += ranura.size();
+        }
+        return total;
+    }
+
+    private int indiceRanura(long tick) {
+        return (int) (tick & (ranuras.size() - 1));
+    }
+
+    /**
+     * Quita la entrada intercambiándola con la última, para no desplazar la lista.
+     */
+    private static <T> void quitar(List<Entrada<T>> ranura, int posicion) {
+        Entrada<T> quitada = ranura.get(posicion);
+        Entrada<T> ultima = ranura.remove(ranura.size() - 1);
+        if (ultima != quitada) {
+            ranura.set(posicion, ultima);
+            ultima.posicion = posicion;
+        }
+        quitada.posicion = SIN_POSICION;
+    }
+
+    /**
+     * Un elemento programado. Guarda su posición en la ranura para poder cancelarlo sin buscarlo.
+     */
+    static final class Entrada<T> {
+        private final T elemento;
+        private final long tick;
+        private int posicion;
+
+        private Entrada(T elemento, long tick, int posicion) {
+            this.elemento = elemento;
+            this.tick = tick;
+            this.posicion = posicion;
+        }
+    }
+}
@@ -1,15 +1,20 @@
 package com.example.servicio;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import com.example.modelo.Usuario;
+import com.example.repositorio.UserRepository;
+import com.example.repositorio.impl.UserRepositoryImpl;
 
 public class UsuarioServicio {
-    private List<Usuario> usuarios;
+    private final UserRepository userRepository;
 
     public UsuarioServicio() {
-        this.usuarios = new ArrayList<>();
+        this(new UserRepositoryImpl());
+    }
+
+    public UsuarioServicio(UserRepository userRepository) {
+        this.userRepository = userRepository;
     }
 
     public void registrarUsuario(Usuario usuario) {
@@ -22,21 +27,19 @@ public class UsuarioServicio {
         if (usuario.getNombre() == null || usuario.getNombre().trim().isEmpty()) {
             throw new IllegalArgumentException("El nombre de usuario no puede estar vacío");
         }
-        if (usuarios.stream().anyMatch(u -> u.getId().equals(usuario.getId()))) {
+        if (!userRepository.saveIfAbsent(usuario)) {
             throw new IllegalArgumentException("Ya existe un usuario con el ID: " + usuario.getId());
         }
-        usuarios.add(usuario);
     }
 
     public List<Usuario> listarUsuarios() {
-        return new ArrayList<>(usuarios);
+        return userRepository.findAll();
     }
 
     public boolean existeUsuario(String usuarioId) {
         if (usuarioId == null || usuarioId.trim().isEmpty()) {
             throw new IllegalArgumentException("El ID de usuario no puede estar vacío");
         }
-        return usuarios.stream()
-                .anyMatch(usuario -> usuario.getId().equals(usuarioId));
+        return userRepository.existsById(usuarioId);
     }
-} 
\ No newline at end of file
+}
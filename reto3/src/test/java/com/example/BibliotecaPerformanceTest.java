@@ -70,7 +70,7 @@ class BibliotecaPerformanceTest {
         for (int i = 0; i < numLibros; i++) {
             libros.add(new Libro("L" + i, "Título " + i, "Autor " + i, "Categoría", 1));
         }
-        when(bookRepository.findAll()).thenReturn(libros);
+        when(bookRepository.findByTituloContaining("Título")).thenReturn(libros);
         
         // Medir tiempo de búsqueda por título
         long startTime = System.nanoTime();
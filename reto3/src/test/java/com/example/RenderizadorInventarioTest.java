@@ -0,0 +1,59 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.modelo.Libro;
+import com.example.repositorio.OrdenLibros;
+import com.example.repositorio.impl.BookRepositoryImpl;
+import com.example.repositorio.impl.LoanRepositoryImpl;
+import com.example.servicio.BibliotecaServicio;
+
+class RenderizadorInventarioTest {
+    private RenderizadorInventario renderizador;
+
+    @BeforeEach
+    void setUp() {
+        BibliotecaServicio biblioteca = new BibliotecaServicio(new BookRepositoryImpl(), new LoanRepositoryImpl());
+        biblioteca.agregarLibro(new Libro("3", "Cien años de soledad", "Gabriel García Márquez", "Novela", 3));
+        biblioteca.agregarLibro(new Libro("1", "Rayuela", "Julio Cortázar", "Novela", 1));
+        biblioteca.agregarLibro(new Libro("2", "El túnel", "Ernesto Sábato", "Novela", 2));
+        renderizador = new RenderizadorInventario(biblioteca);
+    }
+
+    @Test
+    void testRecorrePorPaginasConConteoAcumulado() throws Exception {
+        StringWriter salida = new StringWriter();
+        List<Long> conteos = new ArrayList<>();
+
+        long mostrados = renderizador.renderizar(OrdenLibros.TITULO, 2, salida, (total, hayMas) -> {
+            conteos.add(total);
+            return true;
+        });
+
+        String texto = salida.toString();
+        assertEquals(3, mostrados);
+        assertEquals(List.of(2L, 3L), conteos);
+        assertTrue(texto.indexOf("Cien años") < texto.indexOf("El túnel"));
+        assertTrue(texto.indexOf("El túnel") < texto.indexOf("Rayuela"));
+        assertTrue(texto.contains("[2 libros mostrados]"));
+        assertTrue(texto.endsWith("[3 libros mostrados]\n"));
+    }
+
+    @Test
+    void testSeDetieneCuandoElControlLoPide() throws Exception {
+        StringWriter salida = new StringWriter();
+
+        long mostrados = renderizador.renderizar(OrdenLibros.ISBN, 1, salida, (total, hayMas) -> false);
+
+        assertEquals(1, mostrados);
+        assertTrue(salida.toString().contains("ID: 1"));
+        assertFalse(salida.toString().contains("ID: 2"));
+    }
+}
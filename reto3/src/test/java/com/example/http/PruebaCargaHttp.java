@@ -0,0 +1,97 @@
+package com.example.http;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.example.metricas.HistogramaLatencia;
+import com.example.modelo.Libro;
+import com.example.modelo.Usuario;
+import com.example.repositorio.impl.BookRepositoryImpl;
+import com.example.repositorio.impl.LoanRepositoryImpl;
+import com.example.servicio.BibliotecaServicio;
+
+/**
+ * Prueba de carga local del servidor HTTP: cada terminal simulada, en su propio hilo virtual,
+ * repite préstamo, búsqueda y devolución contra el servidor durante el tiempo indicado.
+ * Uso: PruebaCargaHttp [terminales] [segundos] [libros]
+ */
+public class PruebaCargaHttp {
+
+    public static void main(String[] args) throws Exception {
+        int terminales = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int segundos = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int numLibros = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        if (System.getProperty(ServidorHttp.PROPIEDAD_SIN_RETARDO) == null) {
+            System.setProperty(ServidorHttp.PROPIEDAD_SIN_RETARDO, "true");
+        }
+
+        BibliotecaServicio biblioteca = new BibliotecaServicio(new BookRepositoryImpl(), new LoanRepositoryImpl());
+        for (int i = 0; i < numLibros; i++) {
+            biblioteca.agregarLibro(new Libro("L" + i, "Título " + i, "Autor " + (i % 500), "General", 5));
+        }
+        for (int i = 0; i < terminales; i++) {
+            biblioteca.crearUsuario(new Usuario("U" + i, "Usuario " + i));
+        }
+
+        HistogramaLatencia latencias = new HistogramaLatencia();
+        LongAdder errores = new LongAdder();
+        try (ServidorHttp servidor = new ServidorHttp(biblioteca, new InetSocketAddress("127.0.0.1", 0));
+             HttpClient cliente = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build()) {
+            servidor.iniciar();
+            String base = "http://127.0.0.1:" + servidor.getPuerto();
+            long fin = System.nanoTime() + TimeUnit.SECONDS.toNanos(segundos);
+            long inicio = System.nanoTime();
+            try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int t = 0; t < terminales; t++) {
+                    String usuario = "U" + t;
+                    int semilla = t;
+                    ejecutor.submit(() -> {
+                        for (int vuelta = 0; System.nanoTime() < fin; vuelta++) {
+                            int libro = Math.floorMod(semilla * 31 + vuelta, numLibros);
+                            String isbn = "L" + libro;
+                            String titulo = URLEncoder.encode("Título " + libro, StandardCharsets.UTF_8);
+                            enviar(cliente, "POST", base + "/prestamos?isbn=" + isbn + "&usuario=" + usuario, latencias, errores);
+                            enviar(cliente, "GET", base + "/libros?titulo=" + titulo, latencias, errores);
+                            enviar(cliente, "POST", base + "/devoluciones?isbn=" + isbn + "&usuario=" + usuario, latencias, errores);
+                        }
+                        return null;
+                    });
+                }
+            }
+            double transcurrido = (System.nanoTime() - inicio) / 1e9;
+            System.out.printf("Terminales: %d, peticiones: %d (%.0f/s), errores: %d%n", terminales,
+                    latencias.getTotal(), latencias.getTotal() / transcurrido, errores.sum());
+            System.out.printf("Latencia p50: %.2f ms, p99: %.2f ms, p99.9: %.2f ms, máx: %.2f ms%n",
+                    latencias.percentil(0.5) / 1e6, latencias.percentil(0.99) / 1e6,
+                    latencias.percentil(0.999) / 1e6, latencias.getMaximo() / 1e6);
+        }
+    }
+
+    private static void enviar(HttpClient cliente, String metodo, String uri, HistogramaLatencia latencias,
+                               LongAdder errores) {
+        HttpRequest peticion = HttpRequest.newBuilder(URI.create(uri))
+                .method(metodo, HttpRequest.BodyPublishers.noBody())
+                .timeout(Duration.ofSeconds(30))
+                .build();
+        long inicio = System.nanoTime();
+        try {
+            HttpResponse<Void> respuesta = cliente.send(peticion, HttpResponse.BodyHandlers.discarding());
+            if (respuesta.statusCode() >= 500) {
+                errores.increment();
+            }
+        } catch (Exception e) {
+            errores.increment();
+        }
+        latencias.registrar(System.nanoTime() - inicio);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.http;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.modelo.Libro;
+import com.example.modelo.Usuario;
+import com.example.repositorio.impl.BookRepositoryImpl;
+import com.example.repositorio.impl.LoanRepositoryImpl;
+import com.example.servicio.BibliotecaServicio;
+
+class ServidorHttpTest {
+    private static final int EJEMPLARES = 10;
+    private static final int TERMINALES = 200;
+
+    private BibliotecaServicio biblioteca;
+    private ServidorHttp servidor;
+    private HttpClient cliente;
+
+    @BeforeEach
+    void setUp() {
+        biblioteca = new BibliotecaServicio(new BookRepositoryImpl(), new LoanRepositoryImpl());
+        biblioteca.agregarLibro(new Libro("123", "El \"Quijote\"", "Miguel de Cervantes", "Novela", EJEMPLARES));
+        for (int i = 0; i < TERMINALES; i++) {
+            biblioteca.crearUsuario(new Usuario("U" + i, "Usuario " + i));
+        }
+        servidor = new ServidorHttp(biblioteca, new InetSocketAddress("127.0.0.1", 0));
+        servidor.iniciar();
+        cliente = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        servidor.close();
+        cliente.close();
+    }
+
+    @Test
+    void testPrestamoDevolucionYBusqueda() throws Exception {
+        assertEquals(204, enviar("POST", "/prestamos?isbn=123&usuario=U1").statusCode());
+        assertEquals(EJEMPLARES - 1, biblioteca.obtenerLibroPorId("123").getEjemplaresDisponibles());
+
+        HttpResponse<String> prestamos = enviar("GET", "/usuarios/prestamos?usuario=U1");
+        assertTrue(prestamos.body().contains("\"isbn\":\"123\""));
+
+        HttpResponse<String> busqueda = enviar("GET", "/libros?titulo=quijote");
+        assertEquals(200, busqueda.statusCode());
+        assertTrue(busqueda.body().contains("\"titulo\":\"El \\\"Quijote\\\"\""));
+
+        assertEquals(204, enviar("POST", "/devoluciones?isbn=123&usuario=U1").statusCode());
+        assertEquals(EJEMPLARES, biblioteca.obtenerLibroPorId("123").getEjemplaresDisponibles());
+    }
+
+    @Test
+    void testErroresDeNegocioYRutas() throws Exception {
+        HttpResponse<String> sinLibro = enviar("POST", "/prestamos?isbn=999&usuario=U1");
+        assertEquals(400, sinLibro.statusCode());
+        assertTrue(sinLibro.body().startsWith("{\"error\":"));
+
+        assertEquals(405, enviar("GET", "/prestamos?isbn=123&usuario=U1").statusCode());
+        assertEquals(404, enviar("GET", "/libros/otra").statusCode());
+        assertEquals(400, enviar("GET", "/inventario?limite=0").statusCode());
+    }
+
+    @Test
+    void testTerminalesConcurrentesNoPrestanEjemplaresDeMas() throws Exception {
+        ExecutorService terminales = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<Integer>> respuestas = new ArrayList<>();
+        for (int i = 0; i < TERMINALES; i++) {
+            String ruta = "/prestamos?isbn=123&usuario=U" + i;
+            respuestas.add(terminales.submit(() -> enviar("POST", ruta).statusCode()));
+        }
+        int exitosos = 0;
+        for (Future<Integer> respuesta : respuestas) {
+            if (respuesta.get() == 204) {
+                exitosos++;
+            }
+        }
+        terminales.close();
+
+        assertEquals(EJEMPLARES, exitosos);
+        assertEquals(0, biblioteca.obtenerLibroPorId("123").getEjemplaresDisponibles());
+        assertTrue(enviar("GET", "/inventario?orden=isbn").body().contains("\"siguienteCursor\":null"));
+    }
+
+    @Test
+    void testCuerpoDemasiadoGrandeSeRechazaSinAtenderLaPeticion() throws Exception {
+        HttpRequest peticion = HttpRequest.newBuilder(
+                        URI.create("http://127.0.0.1:" + servidor.getPuerto() + "/prestamos?isbn=123&usuario=U1"))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(new byte[100_000]))
+                .build();
+
+        HttpResponse<String> respuesta = cliente.send(peticion, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(413, respuesta.statusCode());
+        assertTrue(respuesta.body().startsWith("{\"error\":"));
+        assertEquals(EJEMPLARES, biblioteca.obtenerLibroPorId("123").getEjemplaresDisponibles());
+        assertEquals(204, enviar("POST", "/prestamos?isbn=123&usuario=U1").statusCode());
+    }
+
+    @Test
+    void testErrorInesperadoRespondeUnMensajeGenerico() throws Exception {
+        servidor.close();
+        BibliotecaServicio conFallas = new BibliotecaServicio(new BookRepositoryImpl(), new LoanRepositoryImpl()) {
+            @Override
+            public List<Libro> buscarLibrosPorTitulo(String titulo) {
+                throw new IllegalStateException("índice de títulos corrupto en /datos/libros.snap");
+            }
+        };
+        servidor = new ServidorHttp(conFallas, new InetSocketAddress("127.0.0.1", 0));
+        servidor.iniciar();
+
+        HttpResponse<String> respuesta = enviar("GET", "/libros?titulo=quijote");
+
+        assertEquals(500, respuesta.statusCode());
+        assertEquals("{\"error\":\"Error interno del servidor\"}", respuesta.body());
+    }
+
+    private HttpResponse<String> enviar(String metodo, String ruta) throws Exception {
+        HttpRequest peticion = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + servidor.getPuerto() + ruta))
+                .method(metodo, HttpRequest.BodyPublishers.noBody())
+                .build();
+        return cliente.send(peticion, HttpResponse.BodyHandlers.ofString());
+    }
+}
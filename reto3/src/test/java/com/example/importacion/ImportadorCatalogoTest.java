@@ -0,0 +1,200 @@
+package com.example.importacion;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.modelo.Libro;
+import com.example.modelo.Usuario;
+import com.example.repositorio.impl.BookRepositoryImpl;
+import com.example.repositorio.impl.LoanRepositoryImpl;
+import com.example.servicio.BibliotecaServicio;
+
+class ImportadorCatalogoTest {
+    @TempDir
+    Path directorio;
+
+    @Test
+    void testImportarCsvConRechazos() throws IOException {
+        Path archivo = directorio.resolve("catalogo.csv");
+        Files.write(archivo, List.of(
+                "isbn,titulo,autor,categoria,ejemplares",
+                "1,\"Cien años de soledad\",Gabriel García Márquez,Novela,3",
+                "2,\"Ficciones, cuentos\",Jorge Luis Borges,Cuento,1",
+                "3,,Autor,Novela,2",
+                "4,Título,Autor,Novela,muchos",
+                "",
+                "5,\"El \"\"Aleph\"\"\",Jorge Luis Borges,Cuento,2"), StandardCharsets.UTF_8);
+        Path rechazos = directorio.resolve("catalogo.rechazos");
+        BookRepositoryImpl repositorio = new BookRepositoryImpl();
+
+        ResultadoImportacion resultado = new ImportadorCatalogo(servicio(repositorio), 2, 2, 1)
+                .importar(archivo, FormatoCatalogo.CSV, rechazos, null);
+
+        assertEquals(5, resultado.getLeidos());
+        assertEquals(3, resultado.getImportados());
+        assertEquals(2, resultado.getRechazados());
+        assertEquals("Ficciones, cuentos", repositorio.findById("2").orElseThrow().getTitulo());
+        assertEquals("El \"Aleph\"", repositorio.findById("5").orElseThrow().getTitulo());
+        List<String> lineas = Files.readAllLines(rechazos, StandardCharsets.UTF_8);
+        assertEquals(2, lineas.size());
+        assertTrue(lineas.stream().anyMatch(l -> l.startsWith("4\t") && l.contains("título")));
+        assertTrue(lineas.stream().anyMatch(l -> l.startsWith("5\t") && l.contains("muchos")));
+    }
+
+    @Test
+    void testImportarMarc() throws IOException {
+        Path archivo = directorio.resolve("catalogo.mrk");
+        Files.write(archivo, List.of(
+                "=LDR  00000nam",
+                "=020  978-0307474728",
+                "=245  Cien años de soledad",
+                "=100  Gabriel García Márquez",
+                "=650  Novela",
+                "=949  4",
+                "",
+                "=020  978-8437604572",
+                "=245  Rayuela",
+                "=650  Novela",
+                "=949  1"), StandardCharsets.UTF_8);
+        Path rechazos = directorio.resolve("catalogo.rechazos");
+        BookRepositoryImpl repositorio = new BookRepositoryImpl();
+
+        ResultadoImportacion resultado = new ImportadorCatalogo(servicio(repositorio))
+                .importar(archivo, FormatoCatalogo.MARC, rechazos, null);
+
+        assertEquals(2, resultado.getLeidos());
+        assertEquals(1, resultado.getImportados());
+        assertEquals(4, repositorio.findById("978-0307474728").orElseThrow().getEjemplaresDisponibles());
+        List<String> lineas = Files.readAllLines(rechazos, StandardCharsets.UTF_8);
+        assertEquals(1, lineas.size());
+        assertTrue(lineas.get(0).contains("autor"));
+        assertTrue(lineas.get(0).contains("=245  Rayuela"));
+    }
+
+    @Test
+    void testImportarArchivoGrandeConIsbnRepetidosPrevaleceLaPrimeraFila() throws IOException {
+        Path archivo = directorio.resolve("grande.csv");
+        int filas = 20_000;
+        try (BufferedWriter escritor = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < filas; i++) {
+                escritor.write((i % 5_000) + ",Título " + i + ",Autor " + i + ",General," + (i % 7));
+                escritor.newLine();
+            }
+        }
+        BookRepositoryImpl repositorio = new BookRepositoryImpl();
+        List<ResultadoImportacion> avances = new ArrayList<>();
+
+        ResultadoImportacion resultado = new ImportadorCatalogo(servicio(repositorio), 100, 4, 5_000)
+                .importar(archivo, FormatoCatalogo.CSV, null, avances::add);
+
+        assertEquals(5_000, resultado.getImportados());
+        assertEquals(filas - 5_000, resultado.getRechazados());
+        assertEquals(5_000, repositorio.findAll().size());
+        assertEquals("Título 0", repositorio.findById("0").orElseThrow().getTitulo());
+        assertEquals("Título 4999", repositorio.findById("4999").orElseThrow().getTitulo());
+        assertEquals(5, avances.size());
+        assertEquals(filas, avances.get(avances.size() - 1).getLeidos());
+    }
+
+    @Test
+    void testImportarNoPisaUnLibroConEjemplaresPrestados() throws IOException {
+        BookRepositoryImpl repositorio = new BookRepositoryImpl();
+        BibliotecaServicio biblioteca = servicio(repositorio);
+        biblioteca.agregarLibro(new Libro("1", "Rayuela", "Julio Cortázar", "Novela", 2));
+        biblioteca.crearUsuario(new Usuario("U1", "Ana"));
+        biblioteca.prestarLibro("1", "U1");
+        Path archivo = directorio.resolve("catalogo.csv");
+        Files.write(archivo, List.of(
+                "1,Otro título,Otro autor,Ensayo,5",
+                "2,Ficciones,Jorge Luis Borges,Cuento,1"), StandardCharsets.UTF_8);
+        Path rechazos = directorio.resolve("catalogo.rechazos");
+
+        ResultadoImportacion resultado = new ImportadorCatalogo(biblioteca, 10, 1, 1)
+                .importar(archivo, FormatoCatalogo.CSV, rechazos, null);
+
+        assertEquals(1, resultado.getImportados());
+        assertEquals(1, resultado.getRechazados());
+        Libro prestado = biblioteca.obtenerLibroPorId("1");
+        assertEquals("Rayuela", prestado.getTitulo());
+        assertEquals(1, prestado.getEjemplaresDisponibles());
+        assertEquals(2, biblioteca.contarLibrosDisponibles());
+        assertTrue(biblioteca.buscarLibrosPorCategoria("Ensayo", false).isEmpty());
+        List<String> lineas = Files.readAllLines(rechazos, StandardCharsets.UTF_8);
+        assertEquals(1, lineas.size());
+        assertTrue(lineas.get(0).startsWith("1\tYa existe un libro con el ISBN: 1"));
+    }
+
+    @Test
+    void testFilasMalFormadasSeRechazanYSoloSeOmiteLaCabeceraExacta() throws IOException {
+        Path archivo = directorio.resolve("catalogo.csv");
+        Files.write(archivo, List.of(
+                "isbn,titulo,autor,categoria,ejemplares,precio",
+                "1,Rayuela,Julio Cortázar,Novela,2",
+                "2,Ficciones,Jorge Luis Borges,Cuento,1,9.99",
+                "3,\"Sin cerrar,Autor,Novela,1",
+                "4,Pedro Páramo,Juan Rulfo"), StandardCharsets.UTF_8);
+        Path rechazos = directorio.resolve("catalogo.rechazos");
+        BookRepositoryImpl repositorio = new BookRepositoryImpl();
+
+        ResultadoImportacion resultado = new ImportadorCatalogo(servicio(repositorio), 10, 1, 1)
+                .importar(archivo, FormatoCatalogo.CSV, rechazos, null);
+
+        assertEquals(5, resultado.getLeidos());
+        assertEquals(1, resultado.getImportados());
+        assertEquals(4, resultado.getRechazados());
+        assertTrue(repositorio.findById("1").isPresent());
+        List<String> lineas = Files.readAllLines(rechazos, StandardCharsets.UTF_8);
+        assertTrue(lineas.stream().anyMatch(l -> l.startsWith("1\tSe esperaban 5 columnas y hay 6")));
+        assertTrue(lineas.stream().anyMatch(l -> l.startsWith("3\tSe esperaban 5 columnas y hay 6")));
+        assertTrue(lineas.stream().anyMatch(l -> l.startsWith("4\tComillas sin cerrar")));
+        assertTrue(lineas.stream().anyMatch(l -> l.startsWith("5\tSe esperaban 5 columnas y hay 3")));
+    }
+
+    @Test
+    void testReimportarDescartaLosExistentesSinGuardarFilaPorFila() throws IOException {
+        AtomicInteger guardadosSueltos = new AtomicInteger();
+        BookRepositoryImpl repositorio = new BookRepositoryImpl() {
+            @Override
+            public Libro save(Libro libro) {
+                guardadosSueltos.incrementAndGet();
+                return super.save(libro);
+            }
+        };
+        Path archivo = directorio.resolve("catalogo.csv");
+        List<String> filas = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            filas.add(i + ",Título " + i + ",Autor,General,1");
+        }
+        Files.write(archivo, filas, StandardCharsets.UTF_8);
+        ImportadorCatalogo importador = new ImportadorCatalogo(servicio(repositorio), 10, 2, 1);
+        importador.importar(archivo, FormatoCatalogo.CSV, null, null);
+        filas.add("50,Título 50,Autor,General,1");
+        Files.write(archivo, filas, StandardCharsets.UTF_8);
+        Path rechazos = directorio.resolve("catalogo.rechazos");
+
+        ResultadoImportacion resultado = importador.importar(archivo, FormatoCatalogo.CSV, rechazos, null);
+
+        assertEquals(1, resultado.getImportados());
+        assertEquals(50, resultado.getRechazados());
+        assertEquals(51, repositorio.findAll().size());
+        assertEquals(0, guardadosSueltos.get());
+        List<String> lineas = Files.readAllLines(rechazos, StandardCharsets.UTF_8);
+        assertEquals(50, lineas.size());
+        assertTrue(lineas.stream().allMatch(l -> l.contains("\tYa existe un libro con el ISBN: ")));
+    }
+
+    private static BibliotecaServicio servicio(BookRepositoryImpl repositorio) {
+        return new BibliotecaServicio(repositorio, new LoanRepositoryImpl());
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.lote;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.modelo.Libro;
+import com.example.repositorio.impl.BookRepositoryImpl;
+import com.example.repositorio.impl.LoanRepositoryImpl;
+import com.example.servicio.BibliotecaServicio;
+
+class ProcesadorLoteTest {
+    private BibliotecaServicio biblioteca;
+
+    @BeforeEach
+    void setUp() {
+        biblioteca = new BibliotecaServicio(new BookRepositoryImpl(), new LoanRepositoryImpl());
+    }
+
+    @Test
+    void testEjecutaLosComandosEnOrdenYReportaCadaLinea() {
+        String comandos = String.join("\n",
+                "# alta de datos",
+                "AGREGAR_LIBRO\t123\tEl Quijote\tMiguel de Cervantes\tNovela\t1",
+                "CREAR_USUARIO\tU1\tAna",
+                "",
+                "PRESTAR\t123\tU1",
+                "PRESTAR\t123\tU1",
+                "BUSCAR_TITULO\tquijote",
+                "DEVOLVER\t123\tU1");
+        StringWriter salida = new StringWriter();
+
+        ResultadoLote resultado = new ProcesadorLote(biblioteca, 2).ejecutar(new StringReader(comandos), salida);
+
+        String[] lineas = salida.toString().split("\n");
+        assertEquals("2\tOK", lineas[0]);
+        assertEquals("5\tOK", lineas[2]);
+        assertTrue(lineas[3].startsWith("6\tERROR\t"));
+        assertEquals("7\tLIBRO\t123\tEl Quijote\tMiguel de Cervantes\tNovela\t0", lineas[4]);
+        assertEquals("7\tOK", lineas[5]);
+        assertEquals("8\tOK", lineas[6]);
+        assertEquals(6, resultado.getLeidos());
+        assertEquals(1, resultado.getFallidos());
+        assertEquals(1, biblioteca.obtenerLibroPorId("123").getEjemplaresDisponibles());
+    }
+
+    @Test
+    void testLineasMalFormadasNoDetienenElLote() {
+        String comandos = "SALTAR\t1\nPRESTAR\t123\nAGREGAR_LIBRO\t1\tT\tA\tC\tmuchos\nCREAR_USUARIO\tU1\tAna\n";
+        StringWriter salida = new StringWriter();
+
+        ResultadoLote resultado = new ProcesadorLote(biblioteca).ejecutar(new StringReader(comandos), salida);
+
+        String[] lineas = salida.toString().split("\n");
+        assertEquals("1\tERROR\tComando desconocido: SALTAR", lineas[0]);
+        assertEquals("2\tERROR\tPRESTAR espera 2 argumentos y recibió 1", lineas[1]);
+        assertEquals("3\tERROR\tNúmero no válido: muchos", lineas[2]);
+        assertEquals("4\tOK", lineas[3]);
+        assertEquals(3, resultado.getFallidos());
+        assertTrue(biblioteca.existeUsuario("U1"));
+    }
+
+    @Test
+    void testErrorInesperadoSeReportaConSuLineaYElLoteSigue() {
+        BibliotecaServicio conFallas = new BibliotecaServicio(new BookRepositoryImpl() {
+            @Override
+            public List<Libro> findByTituloContaining(String titulo) {
+                throw new IllegalStateException("índice no disponible");
+            }
+        }, new LoanRepositoryImpl());
+        String comandos = "CREAR_USUARIO\tU1\tAna\nBUSCAR_TITULO\tquijote\nCREAR_USUARIO\tU2\tLuis\n";
+        StringWriter salida = new StringWriter();
+
+        ResultadoLote resultado = new ProcesadorLote(conFallas).ejecutar(new StringReader(comandos), salida);
+
+        String[] lineas = salida.toString().split("\n");
+        assertEquals("1\tOK", lineas[0]);
+        assertEquals("2\tERROR\tError interno: java.lang.IllegalStateException: índice no disponible", lineas[1]);
+        assertEquals("3\tOK", lineas[2]);
+        assertEquals(1, resultado.getFallidos());
+        assertTrue(conFallas.existeUsuario("U2"));
+    }
+
+    @Test
+    void testFalloInesperadoDeLaEntradaSeRelanzaSinBloquear() {
+        Reader entrada = new Reader() {
+            private final StringReader inicio = new StringReader("CREAR_USUARIO\tU1\tAna\n");
+
+            @Override
+            public int read(char[] buffer, int desde, int cantidad) throws IOException {
+                int leidos = inicio.read(buffer, desde, cantidad);
+                if (leidos < 0) {
+                    throw new IllegalStateException("flujo corrupto");
+                }
+                return leidos;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        StringWriter salida = new StringWriter();
+
+        IllegalStateException error = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> assertThrows(IllegalStateException.class,
+                        () -> new ProcesadorLote(biblioteca).ejecutar(entrada, salida)));
+
+        assertEquals("flujo corrupto", error.getMessage());
+        assertEquals("1\tOK\n", salida.toString());
+        assertTrue(biblioteca.existeUsuario("U1"));
+    }
+}
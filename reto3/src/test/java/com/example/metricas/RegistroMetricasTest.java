@@ -0,0 +1,89 @@
+package com.example.metricas;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.exception.BibliotecaException;
+import com.example.modelo.Libro;
+import com.example.repositorio.impl.BookRepositoryImpl;
+import com.example.repositorio.impl.LoanRepositoryImpl;
+import com.example.repositorio.impl.MeteredBookRepository;
+import com.example.repositorio.impl.UserRepositoryImpl;
+import com.example.servicio.BibliotecaServicio;
+import com.example.servicio.GeneradorIdTemporal;
+
+class RegistroMetricasTest {
+    @Test
+    void testCubetasCubrenTodoElRangoConErrorAcotado() {
+        long[] valores = {0, 1, 15, 16, 17, 31, 32, 1_000, 123_456_789, Long.MAX_VALUE};
+        for (long valor : valores) {
+            int cubeta = HistogramaLatencia.cubeta(valor);
+            long superior = HistogramaLatencia.limiteSuperior(cubeta);
+            assertTrue(superior >= valor, "Límite menor que el valor " + valor);
+            assertTrue(superior - valor <= valor / 16, "Error relativo excesivo para " + valor);
+        }
+    }
+
+    @Test
+    void testPercentiles() {
+        HistogramaLatencia histograma = new HistogramaLatencia();
+        for (int i = 1; i <= 1000; i++) {
+            histograma.registrar(i * 1_000L);
+        }
+
+        assertEquals(1000, histograma.getTotal());
+        assertEquals(1_000_000, histograma.getMaximo());
+        assertEquals(500_000, histograma.percentil(0.5), 500_000 / 16.0);
+        assertEquals(990_000, histograma.percentil(0.99), 990_000 / 16.0);
+        assertEquals(1_000_000, histograma.percentil(1.0));
+        assertEquals(0, new HistogramaLatencia().percentil(0.99));
+    }
+
+    @Test
+    void testRegistroConcurrenteNoPierdeMuestras() throws InterruptedException {
+        HistogramaLatencia histograma = new HistogramaLatencia();
+        ExecutorService ejecutor = Executors.newFixedThreadPool(4);
+        for (int h = 0; h < 4; h++) {
+            ejecutor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histograma.registrar(i);
+                }
+            });
+        }
+        ejecutor.shutdown();
+        assertTrue(ejecutor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(40_000, histograma.getTotal());
+        assertEquals(9_999, histograma.getMaximo());
+    }
+
+    @Test
+    void testErroresPorCategoriaYExportacion() {
+        RegistroMetricas metricas = new RegistroMetricas();
+        BibliotecaServicio servicio = new BibliotecaServicio(
+                new MeteredBookRepository(new BookRepositoryImpl(), metricas), new LoanRepositoryImpl(),
+                new UserRepositoryImpl(), new GeneradorIdTemporal(), metricas);
+        servicio.agregarLibro(new Libro("1", "Rayuela", "Julio Cortázar", "Novela", 1));
+        assertThrows(BibliotecaException.class, () -> servicio.agregarLibro(new Libro("1", "Otro", "Autor", "Novela", 1)));
+        assertThrows(BibliotecaException.class, () -> servicio.prestarLibro("2", "U1"));
+        assertThrows(BibliotecaException.class, () -> servicio.prestarLibro("3", "U1"));
+
+        MetricaOperacion agregar = metricas.operacion("servicio.agregarLibro");
+        assertEquals(2, agregar.getLlamadas());
+        assertEquals(1, agregar.getErrores());
+        MetricaOperacion prestar = metricas.operacion("servicio.prestarLibro");
+        assertEquals(1, prestar.getErroresPorCategoria().size());
+        assertEquals(2L, prestar.getErroresPorCategoria().values().iterator().next());
+
+        String texto = metricas.exportarPrometheus();
+        assertTrue(texto.contains("biblioteca_operaciones_total{operacion=\"servicio.agregarLibro\"} 2"));
+        assertTrue(texto.contains("biblioteca_errores_total{operacion=\"servicio.agregarLibro\",categoria=\"Ya existe un libro con el ISBN\"} 1"));
+        assertTrue(texto.contains("biblioteca_latencia_segundos{operacion=\"libros.save\",quantile=\"0.99\"}"));
+        assertTrue(texto.contains("biblioteca_latencia_segundos_count{operacion=\"servicio.prestarLibro\"} 2"));
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.modelo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class NormalizadorTextoTest {
+
+    @Test
+    void testQuitaAcentosMayusculasYEspaciosRepetidos() {
+        assertEquals("titulo de la cancion", NormalizadorTexto.normalizar("  Título\tde  la CANCIÓN "));
+        assertEquals("nino pinguino", NormalizadorTexto.normalizar("Niño pingüino"));
+    }
+
+    @Test
+    void testDevuelveElMismoTextoSiYaEstaNormalizado() {
+        String texto = "cien anos de soledad";
+        assertSame(texto, NormalizadorTexto.normalizar(texto));
+    }
+
+    @Test
+    void testClavesSeRecalculanAlCambiarElNombre() {
+        Usuario usuario = new Usuario("U1", "José Pérez");
+        assertEquals("jose perez", usuario.getClaveNombre());
+
+        usuario.setNombre("María  Gómez");
+        assertEquals("maria gomez", usuario.getClaveNombre());
+        assertEquals("garcia marquez", new Libro("1", "T", "García Márquez", "Novela", 1).getClaveAutor());
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.repositorio.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.exception.BibliotecaException;
+import com.example.modelo.Libro;
+import com.example.repositorio.FacetaCategoria;
+import com.example.repositorio.OrdenLibros;
+import com.example.repositorio.Pagina;
+
+class BookRepositoryImplTest {
+    private BookRepositoryImpl repositorio;
+
+    @BeforeEach
+    void setUp() {
+        repositorio = new BookRepositoryImpl();
+        repositorio.save(new Libro("1", "Java Programming", "Joshua Bloch", "Programación", 2));
+        repositorio.save(new Libro("2", "Python Programming", "Mark Lutz", "Programación", 1));
+        repositorio.save(new Libro("3", "Cien años de soledad", "Gabriel García Márquez", "Novela", 3));
+    }
+
+    @Test
+    void testBuscarPorTituloConservaCoincidenciaPorSubcadena() {
+        assertEquals(2, repositorio.findByTituloContaining("programming").size());
+        assertEquals(1, repositorio.findByTituloContaining("AVA PRO").size());
+        assertEquals(1, repositorio.findByTituloContaining("ja").size());
+        assertTrue(repositorio.findByTituloContaining("ruby").isEmpty());
+    }
+
+    @Test
+    void testBusquedasIgnoranAcentosYEspacios() {
+        repositorio.save(new Libro("4", "El  Túnel", "Ernesto Sábato", "Novela", 1));
+
+        assertEquals(1, repositorio.findByTituloContaining("el tunel").size());
+        assertEquals(1, repositorio.findByTituloContaining("CIEN AÑOS").size());
+        assertEquals(1, repositorio.findByAutorContaining("sabato").size());
+        assertEquals(1, repositorio.findByAutorContaining("garcia").size());
+    }
+
+    @Test
+    void testBuscarPorAutor() {
+        List<Libro> resultado = repositorio.findByAutorContaining("garcía");
+
+        assertEquals(1, resultado.size());
+        assertEquals("3", resultado.get(0).getIsbn());
+    }
+
+    @Test
+    void testIndiceSeActualizaAlReemplazarYEliminar() {
+        repositorio.save(new Libro("2", "Effective Python", "Brett Slatkin", "Programación", 1));
+        repositorio.delete("1");
+
+        assertTrue(repositorio.findByTituloContaining("programming").isEmpty());
+        assertEquals(1, repositorio.findByTituloContaining("effective").size());
+        assertTrue(repositorio.findByAutorContaining("lutz").isEmpty());
+    }
+
+    @Test
+    void testSaveAllEsTodoONada() {
+        List<Libro> lote = Arrays.asList(new Libro("4", "Rayuela", "Julio Cortázar", "Novela", 1), null);
+
+        assertThrows(BibliotecaException.class, () -> repositorio.saveAll(lote));
+        assertFalse(repositorio.existsById("4"));
+
+        repositorio.saveAll(lote.subList(0, 1));
+        assertTrue(repositorio.existsById("4"));
+    }
+
+    @Test
+    void testDeleteAllEsTodoONada() {
+        assertThrows(BibliotecaException.class, () -> repositorio.deleteAll(Arrays.asList("1", "no-existe")));
+        assertTrue(repositorio.existsById("1"));
+
+        repositorio.deleteAll(Arrays.asList("1", "2"));
+        assertEquals(1, repositorio.findAll().size());
+    }
+
+    @Test
+    void testFindAllByIdOmiteRepetidosEInexistentes() {
+        List<Libro> libros = repositorio.findAllById(Arrays.asList("2", "1", "2", "no-existe"));
+
+        assertEquals(2, libros.size());
+        assertEquals("2", libros.get(0).getIsbn());
+        assertEquals("1", libros.get(1).getIsbn());
+        assertThrows(BibliotecaException.class, () -> repositorio.findAllById(null));
+    }
+
+    @Test
+    void testPaginasPorTituloSonEstablesConModificacionesEntrePaginas() {
+        Pagina<Libro> primera = repositorio.findPage(OrdenLibros.TITULO, null, 2);
+        assertEquals(Arrays.asList("3", "1"), isbns(primera));
+        assertTrue(primera.hayMas());
+
+        repositorio.save(new Libro("0", "Algoritmos", "Autor", "Programación", 1));
+        repositorio.save(new Libro("4", "Zen", "Autor", "Filosofía", 1));
+        Pagina<Libro> segunda = repositorio.findPage(OrdenLibros.TITULO, primera.getSiguienteCursor(), 2);
+        assertEquals(Arrays.asList("2", "4"), isbns(segunda));
+        assertFalse(segunda.hayMas());
+    }
+
+    @Test
+    void testPaginasPorIsbnRecorrenTodoElCatalogo() {
+        repositorio.delete("2");
+        Pagina<Libro> primera = repositorio.findPage(OrdenLibros.ISBN, null, 1);
+        Pagina<Libro> segunda = repositorio.findPage(OrdenLibros.ISBN, primera.getSiguienteCursor(), 1);
+
+        assertEquals(Arrays.asList("1"), isbns(primera));
+        assertEquals(Arrays.asList("3"), isbns(segunda));
+        assertNull(segunda.getSiguienteCursor());
+        assertEquals(2, repositorio.stream().count());
+        assertThrows(BibliotecaException.class, () -> repositorio.findPage(OrdenLibros.ISBN, null, 0));
+    }
+
+    @Test
+    void testIndiceDeDisponibilidadSigueLosCambiosDeEjemplares() {
+        Libro libro = repositorio.findById("2").get();
+        libro.setEjemplaresDisponibles(0);
+        repositorio.save(libro);
+        assertEquals(2, repositorio.countAvailable());
+
+        repositorio.save(new Libro("4", "Rayuela", "Julio Cortázar", "Novela", 0));
+        repositorio.delete("1");
+        assertEquals(Arrays.asList("3"), repositorio.findAvailable().stream()
+                .map(Libro::getIsbn).collect(Collectors.toList()));
+
+        libro.setEjemplaresDisponibles(1);
+        repositorio.save(libro);
+        assertEquals(2, repositorio.findAvailable().size());
+        assertEquals(2, repositorio.countAvailable());
+    }
+
+    @Test
+    void testFacetasPorCategoriaSeMantienenConPrestamosYBajas() {
+        Libro libro = repositorio.findById("2").get();
+        libro.setEjemplaresDisponibles(0);
+        repositorio.save(libro);
+        repositorio.save(new Libro("3", "Cien años de soledad", "Gabriel García Márquez", "Realismo mágico", 3));
+
+        List<FacetaCategoria> facetas = repositorio.findFacetas();
+        assertEquals(Arrays.asList("Programación", "Realismo mágico"), facetas.stream()
+                .map(FacetaCategoria::getCategoria).collect(Collectors.toList()));
+        assertEquals(2, facetas.get(0).getTotal());
+        assertEquals(1, facetas.get(0).getDisponibles());
+        assertEquals(2, repositorio.findByCategoria("Programación").size());
+        assertEquals("1", repositorio.findAvailableByCategoria("Programación").get(0).getIsbn());
+
+        repositorio.delete("1");
+        assertTrue(repositorio.findAvailableByCategoria("Programación").isEmpty());
+        repositorio.delete("2");
+        assertEquals(1, repositorio.findFacetas().size());
+        assertTrue(repositorio.findByCategoria("Programación").isEmpty());
+    }
+
+    @Test
+    void testAutorYCategoriaSeGuardanComoInstanciasCompartidas() {
+        Libro otro = new Libro("4", "Effective Java", new String("Joshua Bloch"), new String("Programación"), 1);
+        repositorio.save(otro);
+
+        Libro primero = repositorio.findById("1").get();
+        assertSame(primero.getAutor(), otro.getAutor());
+        assertSame(primero.getCategoria(), otro.getCategoria());
+        assertEquals(3, repositorio.findByCategoria(new String("Programación")).size());
+        assertTrue(repositorio.findByCategoria("Poesía").isEmpty());
+    }
+
+    @Test
+    void testDiccionarioAsignaCodigosDensos() {
+        DiccionarioCadenas diccionario = new DiccionarioCadenas();
+
+        assertEquals(0, diccionario.codificar("Novela"));
+        assertEquals(1, diccionario.codificar("Ensayo"));
+        assertEquals(0, diccionario.codificar(new String("Novela")));
+        assertEquals("Ensayo", diccionario.valor(1));
+        assertEquals(DiccionarioCadenas.SIN_CODIGO, diccionario.codigo("Poesía"));
+        assertEquals(2, diccionario.tamano());
+    }
+
+    private static List<String> isbns(Pagina<Libro> pagina) {
+        return pagina.getElementos().stream().map(Libro::getIsbn).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.repositorio.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.exception.BibliotecaException;
+import com.example.modelo.Prestamo;
+
+class ColumnarLoanRepositoryTest {
+    private static final LocalDateTime AHORA = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    private ColumnarLoanRepository repositorio;
+
+    @BeforeEach
+    void setUp() {
+        repositorio = new ColumnarLoanRepository();
+    }
+
+    @Test
+    void testMaterializaElPrestamoGuardado() {
+        Prestamo prestamo = new Prestamo("P1", "L1", "U1", AHORA.minusDays(3), AHORA, AHORA.plusDays(1));
+        repositorio.save(prestamo);
+
+        assertEquals(prestamo, repositorio.findById("P1").get());
+        assertNotSame(prestamo, repositorio.findById("P1").get());
+        assertTrue(repositorio.findById("P2").isEmpty());
+    }
+
+    @Test
+    void testDevolucionMueveElPrestamoAlHistorico() {
+        Prestamo prestamo = new Prestamo("P1", "L1", "U1", AHORA, null);
+        repositorio.save(prestamo);
+        repositorio.save(new Prestamo("P2", "L1", "U2", AHORA, null));
+        assertTrue(repositorio.existsActiveLoan("L1"));
+        assertEquals(2, repositorio.findActiveByLibroIsbn("L1").size());
+
+        prestamo.setFechaDevolucion(AHORA.plusDays(1));
+        repositorio.update(prestamo);
+        repositorio.delete("P2");
+
+        assertTrue(repositorio.findActiveByUserId("U1").isEmpty());
+        assertEquals(1, repositorio.findByUserId("U1").size());
+        assertFalse(repositorio.existsActiveLoan("L1"));
+        assertTrue(isbnsActivos().isEmpty());
+        assertThrows(BibliotecaException.class, () -> repositorio.update(new Prestamo("P2", "L1", "U2")));
+    }
+
+    @Test
+    void testCambioDeUsuarioReubicaLaFila() {
+        repositorio.save(new Prestamo("P1", "L1", "U1", AHORA, null));
+        repositorio.save(new Prestamo("P1", "L2", "U2", AHORA, null));
+
+        assertTrue(repositorio.findByUserId("U1").isEmpty());
+        assertEquals(List.of("L2"), isbnsActivos());
+        assertEquals(1, repositorio.findAll().size());
+    }
+
+    @Test
+    void testTablaDeIdsSobreviveAMuchasAltasYBajas() {
+        for (int i = 0; i < 5000; i++) {
+            repositorio.save(new Prestamo("P" + i, "L" + (i % 50), "U" + (i % 70), AHORA, null));
+        }
+        for (int i = 0; i < 5000; i += 2) {
+            repositorio.delete("P" + i);
+        }
+
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(i % 2 == 1, repositorio.findById("P" + i).isPresent(), "P" + i);
+        }
+        assertEquals(2500, repositorio.findAll().size());
+        assertThrows(BibliotecaException.class, () -> repositorio.deleteAll(List.of("P1", "P0")));
+        assertTrue(repositorio.findById("P1").isPresent());
+    }
+
+    @Test
+    void testVencimientosSeFiltranSobreLosActivos() {
+        repositorio.save(new Prestamo("P1", "L1", "U1", AHORA.minusDays(20), null));
+        repositorio.save(new Prestamo("P2", "L2", "U1", AHORA.minusDays(30), null));
+        repositorio.save(new Prestamo("P3", "L3", "U2", AHORA.minusDays(10), null));
+        repositorio.save(new Prestamo("P4", "L4", "U3", AHORA.minusDays(40), AHORA.minusDays(1)));
+
+        assertEquals(List.of("P2", "P1"), repositorio.findVencidos(AHORA).stream().map(Prestamo::getId).toList());
+        List<Prestamo> porVencer = repositorio.findPorVencer(AHORA, AHORA.plusDays(7));
+        assertEquals(List.of("P3"), porVencer.stream().map(Prestamo::getId).toList());
+        assertEquals(AHORA.plusDays(5), porVencer.get(0).getFechaVencimiento());
+    }
+
+    @Test
+    void testLasFilasEliminadasSeReutilizan() {
+        for (int ronda = 0; ronda < 20; ronda++) {
+            for (int i = 0; i < 100; i++) {
+                repositorio.save(new Prestamo("R" + ronda + "-" + i, "L" + (i % 7), "U" + (i % 3), AHORA, null));
+            }
+            for (int i = 0; i < 100; i++) {
+                repositorio.delete("R" + ronda + "-" + i);
+            }
+        }
+        repositorio.save(new Prestamo("P1", "L1", "U1", AHORA.minusDays(2), null));
+        repositorio.save(new Prestamo("P2", "L1", "U1", AHORA.minusDays(1), AHORA));
+
+        assertEquals(100, repositorio.filasReservadas());
+        assertEquals(List.of("P2", "P1"), repositorio.findByUserId("U1").stream().map(Prestamo::getId).toList());
+        assertEquals(List.of("P1"), repositorio.findActiveByLibroIsbn("L1").stream().map(Prestamo::getId).toList());
+        assertEquals(List.of("L1"), isbnsActivos());
+    }
+
+    @Test
+    void testIndiceDeVencimientosSigueAltasDevolucionesYCambiosDeFecha() {
+        List<Prestamo> esperados = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            Prestamo prestamo = new Prestamo("P" + i, "L" + (i % 40), "U" + (i % 90),
+                    AHORA.minusDays(40).plusMinutes(i * 17L % 2000), null);
+            repositorio.save(prestamo);
+            esperados.add(prestamo);
+        }
+        for (int i = 0; i < 3000; i += 3) {
+            Prestamo prestamo = esperados.get(i);
+            prestamo.setFechaDevolucion(AHORA);
+            repositorio.update(prestamo);
+        }
+        for (int i = 1; i < 3000; i += 3) {
+            Prestamo prestamo = new Prestamo("P" + i, "L" + (i % 40), "U" + (i % 90),
+                    AHORA.minusDays(40), null, AHORA.plusDays(i % 5));
+            repositorio.update(prestamo);
+            esperados.set(i, prestamo);
+        }
+        for (int i = 2; i < 3000; i += 9) {
+            repositorio.delete("P" + i);
+            esperados.set(i, null);
+        }
+
+        LocalDateTime desde = AHORA.minusDays(25);
+        LocalDateTime hasta = AHORA.plusDays(2);
+        List<String> porVencer = esperados.stream()
+                .filter(p -> p != null && p.isActivo())
+                .filter(p -> !p.getFechaVencimiento().isBefore(desde) && !p.getFechaVencimiento().isAfter(hasta))
+                .sorted(Comparator.comparing(Prestamo::getFechaVencimiento).thenComparing(Prestamo::getId))
+                .map(Prestamo::getId)
+                .toList();
+        assertFalse(porVencer.isEmpty());
+        assertEquals(porVencer, repositorio.findPorVencer(desde, hasta).stream().map(Prestamo::getId).toList());
+        long vencidos = esperados.stream()
+                .filter(p -> p != null && p.isActivo() && p.getFechaVencimiento().isBefore(AHORA))
+                .count();
+        assertEquals(vencidos, repositorio.findVencidos(AHORA).size());
+    }
+
+    private List<String> isbnsActivos() {
+        List<String> isbns = new ArrayList<>();
+        repositorio.forEachActiveLibroIsbn(isbns::add);
+        return isbns;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.repositorio.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.modelo.Prestamo;
+
+class LoanRepositoryImplTest {
+    private LoanRepositoryImpl repositorio;
+
+    @BeforeEach
+    void setUp() {
+        repositorio = new LoanRepositoryImpl();
+    }
+
+    @Test
+    void testIndicePorUsuarioSeparaActivosEHistoricos() {
+        repositorio.save(new Prestamo("P1", "L1", "U1"));
+        repositorio.save(new Prestamo("P2", "L2", "U1", LocalDateTime.now().minusDays(3), LocalDateTime.now()));
+        repositorio.save(new Prestamo("P3", "L1", "U2"));
+
+        assertEquals(2, repositorio.findByUserId("U1").size());
+        List<Prestamo> activos = repositorio.findActiveByUserId("U1");
+        assertEquals(1, activos.size());
+        assertEquals("P1", activos.get(0).getId());
+        assertTrue(repositorio.findByUserId("U3").isEmpty());
+    }
+
+    @Test
+    void testDevolucionMueveElPrestamoAlHistorico() {
+        Prestamo prestamo = new Prestamo("P1", "L1", "U1");
+        repositorio.save(prestamo);
+
+        prestamo.setFechaDevolucion(LocalDateTime.now());
+        repositorio.update(prestamo);
+
+        assertTrue(repositorio.findActiveByUserId("U1").isEmpty());
+        assertEquals(1, repositorio.findByUserId("U1").size());
+    }
+
+    @Test
+    void testEliminarQuitaElPrestamoDelIndice() {
+        repositorio.save(new Prestamo("P1", "L1", "U1"));
+
+        repositorio.delete("P1");
+
+        assertTrue(repositorio.findByUserId("U1").isEmpty());
+        assertTrue(repositorio.findActiveByUserId("U1").isEmpty());
+    }
+
+    @Test
+    void testIndicePorIsbnSigueLosPrestamosActivos() {
+        Prestamo prestamo = new Prestamo("P1", "L1", "U1");
+        repositorio.save(prestamo);
+        repositorio.save(new Prestamo("P2", "L1", "U2"));
+
+        assertTrue(repositorio.existsActiveLoan("L1"));
+        assertEquals(2, repositorio.findActiveByLibroIsbn("L1").size());
+
+        prestamo.setFechaDevolucion(LocalDateTime.now());
+        repositorio.update(prestamo);
+        repositorio.delete("P2");
+
+        assertFalse(repositorio.existsActiveLoan("L1"));
+        assertTrue(repositorio.findActiveByLibroIsbn("L1").isEmpty());
+    }
+
+    @Test
+    void testForEachActiveLibroIsbnEntregaCadaLibroUnaVez() {
+        repositorio.save(new Prestamo("P1", "L1", "U1"));
+        repositorio.save(new Prestamo("P2", "L1", "U2"));
+        Prestamo prestamo = new Prestamo("P3", "L2", "U1");
+        repositorio.save(prestamo);
+        prestamo.setFechaDevolucion(LocalDateTime.now());
+
+        // P3 ya se devolvió aunque todavía no se guardó: L2 no debe aparecer.
+        assertEquals(List.of("L1"), isbnsActivos());
+    }
+
+    @Test
+    void testIndiceDeVencimientosDevuelveRangosOrdenados() {
+        LocalDateTime ahora = LocalDateTime.now();
+        repositorio.save(new Prestamo("P1", "L1", "U1", ahora.minusDays(20), null));
+        repositorio.save(new Prestamo("P2", "L2", "U1", ahora.minusDays(30), null));
+        repositorio.save(new Prestamo("P3", "L3", "U2", ahora.minusDays(10), null));
+        repositorio.save(new Prestamo("P4", "L4", "U2", ahora.minusDays(1), null, ahora.plusDays(30)));
+        Prestamo devuelto = new Prestamo("P5", "L5", "U3", ahora.minusDays(40), null);
+        repositorio.save(devuelto);
+        devuelto.setFechaDevolucion(ahora);
+        repositorio.save(devuelto);
+
+        List<Prestamo> vencidos = repositorio.findVencidos(ahora);
+        assertEquals(List.of("P2", "P1"), vencidos.stream().map(Prestamo::getId).toList());
+        assertTrue(vencidos.stream().allMatch(p -> p.estaVencidoEn(ahora)));
+
+        List<Prestamo> porVencer = repositorio.findPorVencer(ahora, ahora.plusDays(7));
+        assertEquals(List.of("P3"), porVencer.stream().map(Prestamo::getId).toList());
+        assertEquals(ahora.minusDays(10).plusDays(Prestamo.DIAS_PRESTAMO), porVencer.get(0).getFechaVencimiento());
+        assertEquals(2, repositorio.findPorVencer(ahora, ahora.plusDays(30)).size());
+    }
+
+    private List<String> isbnsActivos() {
+        List<String> isbns = new ArrayList<>();
+        repositorio.forEachActiveLibroIsbn(isbns::add);
+        return isbns;
+    }
+}
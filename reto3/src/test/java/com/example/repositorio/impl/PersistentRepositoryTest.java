@@ -0,0 +1,251 @@
+package com.example.repositorio.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.exception.BibliotecaException;
+import com.example.modelo.Libro;
+import com.example.modelo.Prestamo;
+
+class PersistentRepositoryTest {
+    @TempDir
+    Path directorio;
+
+    @Test
+    void testReproducirReconstruyeLibros() {
+        Path archivo = directorio.resolve("libros.log");
+        try (PersistentBookRepository repositorio = new PersistentBookRepository(archivo, PoliticaSincronizacion.POR_OPERACION)) {
+            repositorio.save(new Libro("1", "Rayuela", "Julio Cortázar", "Novela", 2));
+            repositorio.save(new Libro("2", "Ficciones", "Jorge Luis Borges", "Cuento", 1));
+            Libro libro = repositorio.findById("1").orElseThrow();
+            libro.setEjemplaresDisponibles(1);
+            repositorio.save(libro);
+            repositorio.delete("2");
+        }
+
+        try (PersistentBookRepository repositorio = new PersistentBookRepository(archivo, PoliticaSincronizacion.POR_OPERACION)) {
+            assertEquals(1, repositorio.findAll().size());
+            assertEquals(1, repositorio.findById("1").orElseThrow().getEjemplaresDisponibles());
+            assertFalse(repositorio.existsById("2"));
+            assertEquals(1, repositorio.findByAutorContaining("cortázar").size());
+        }
+    }
+
+    @Test
+    void testCommitAgrupadoConEscritoresConcurrentes() throws Exception {
+        Path archivo = directorio.resolve("prestamos.log");
+        int hilos = 8;
+        int porHilo = 200;
+        try (PersistentLoanRepository repositorio = new PersistentLoanRepository(archivo, PoliticaSincronizacion.AGRUPADA)) {
+            ExecutorService executor = Executors.newFixedThreadPool(hilos);
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int i = 0; i < hilos; i++) {
+                int hilo = i;
+                tareas.add(executor.submit(() -> {
+                    for (int j = 0; j < porHilo; j++) {
+                        repositorio.save(new Prestamo("P" + hilo + "-" + j, "L" + j, "U" + hilo));
+                    }
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get(60, TimeUnit.SECONDS);
+            }
+            executor.shutdown();
+
+            Prestamo devuelto = repositorio.findById("P0-0").orElseThrow();
+            devuelto.setFechaDevolucion(LocalDateTime.now());
+            repositorio.update(devuelto);
+        }
+
+        try (PersistentLoanRepository repositorio = new PersistentLoanRepository(archivo, PoliticaSincronizacion.AGRUPADA)) {
+            assertEquals(hilos * porHilo, repositorio.findAll().size());
+            assertEquals(porHilo - 1, repositorio.findActiveByUserId("U0").size());
+            assertFalse(repositorio.findById("P0-0").orElseThrow().isActivo());
+        }
+    }
+
+    @Test
+    void testColaCorruptaSeDescarta() throws Exception {
+        Path archivo = directorio.resolve("libros.log");
+        try (PersistentBookRepository repositorio = new PersistentBookRepository(archivo, PoliticaSincronizacion.POR_TIEMPO)) {
+            repositorio.save(new Libro("1", "Rayuela", "Julio Cortázar", "Novela", 2));
+        }
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            canal.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 40, 1, 2}));
+        }
+
+        try (PersistentBookRepository repositorio = new PersistentBookRepository(archivo, PoliticaSincronizacion.POR_TIEMPO)) {
+            assertEquals(1, repositorio.findAll().size());
+            repositorio.save(new Libro("2", "Ficciones", "Jorge Luis Borges", "Cuento", 1));
+        }
+        try (PersistentBookRepository repositorio = new PersistentBookRepository(archivo, PoliticaSincronizacion.POR_TIEMPO)) {
+            assertEquals(2, repositorio.findAll().size());
+        }
+    }
+
+    @Test
+    void testInstantaneaMasBitacoraPosterior() {
+        Path bitacora = directorio.resolve("libros.log");
+        Path instantanea = directorio.resolve("libros.snap");
+        try (PersistentBookRepository repositorio = new PersistentBookRepository(bitacora, instantanea, PoliticaSincronizacion.AGRUPADA)) {
+            for (int i = 0; i < 100; i++) {
+                repositorio.save(new Libro("L" + i, "Título " + i, "Autor " + i, "General", 1));
+            }
+            repositorio.tomarInstantanea();
+            repositorio.delete("L5");
+            repositorio.save(new Libro("L100", "Título 100", "Autor 100", "General", 1));
+        }
+
+        try (PersistentBookRepository repositorio = new PersistentBookRepository(bitacora, instantanea, PoliticaSincronizacion.AGRUPADA)) {
+            assertEquals("Título 42", repositorio.findById("L42").orElseThrow().getTitulo());
+            assertFalse(repositorio.existsById("L5"));
+            assertTrue(repositorio.existsById("L100"));
+            assertEquals(100, repositorio.findAll().size());
+        }
+    }
+
+    @Test
+    void testInstantaneaDePrestamos() {
+        Path bitacora = directorio.resolve("prestamos.log");
+        Path instantanea = directorio.resolve("prestamos.snap");
+        LocalDateTime inicio = LocalDateTime.now();
+        try (PersistentLoanRepository repositorio = new PersistentLoanRepository(bitacora, instantanea, PoliticaSincronizacion.AGRUPADA)) {
+            repositorio.save(new Prestamo("P1", "L1", "U1"));
+            repositorio.save(new Prestamo("P2", "L2", "U1", LocalDateTime.now().minusDays(2), LocalDateTime.now()));
+            repositorio.save(new Prestamo("P4", "L4", "U2", inicio, null, inicio.plusDays(3)));
+            repositorio.tomarInstantanea();
+            repositorio.save(new Prestamo("P3", "L3", "U1"));
+            repositorio.save(new Prestamo("P5", "L5", "U2", inicio, null, inicio.plusDays(5)));
+        }
+
+        try (PersistentLoanRepository repositorio = new PersistentLoanRepository(bitacora, instantanea, PoliticaSincronizacion.AGRUPADA)) {
+            assertEquals(3, repositorio.findByUserId("U1").size());
+            assertEquals(2, repositorio.findActiveByUserId("U1").size());
+            assertEquals(inicio.plusDays(3), repositorio.findById("P4").orElseThrow().getFechaVencimiento());
+            assertEquals(inicio.plusDays(5), repositorio.findById("P5").orElseThrow().getFechaVencimiento());
+        }
+    }
+
+    @Test
+    void testBitacoraSinVencimientoDerivaElPlazoEstandar() {
+        Path archivo = directorio.resolve("prestamos.log");
+        LocalDateTime fecha = LocalDateTime.of(2024, 3, 1, 10, 0);
+        try (BitacoraEscritura bitacora = new BitacoraEscritura(archivo, PoliticaSincronizacion.POR_OPERACION)) {
+            // Registro GUARDAR en el formato anterior: sin la fecha de vencimiento.
+            bitacora.escribir(SerializadorEntidades.codificar(salida -> {
+                salida.writeByte(1);
+                salida.writeUTF("P1");
+                salida.writeUTF("L1");
+                salida.writeUTF("U1");
+                salida.writeBoolean(true);
+                salida.writeLong(fecha.toEpochSecond(ZoneOffset.UTC));
+                salida.writeInt(0);
+                salida.writeBoolean(false);
+            }));
+        }
+
+        try (PersistentLoanRepository repositorio = new PersistentLoanRepository(archivo, PoliticaSincronizacion.POR_OPERACION)) {
+            Prestamo prestamo = repositorio.findById("P1").orElseThrow();
+            assertEquals(fecha.plusDays(Prestamo.DIAS_PRESTAMO), prestamo.getFechaVencimiento());
+            assertEquals(1, repositorio.findVencidos(fecha.plusDays(Prestamo.DIAS_PRESTAMO + 1)).size());
+        }
+    }
+
+    @Test
+    void testLotesSeReproducenComoUnaUnidad() {
+        Path archivo = directorio.resolve("libros.log");
+        try (PersistentBookRepository repositorio = new PersistentBookRepository(archivo, PoliticaSincronizacion.AGRUPADA)) {
+            List<Libro> lote = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                lote.add(new Libro("L" + i, "Título " + i, "Autor " + i, "General", 1));
+            }
+            repositorio.saveAll(lote);
+            repositorio.deleteAll(List.of("L0", "L1"));
+        }
+
+        try (PersistentBookRepository repositorio = new PersistentBookRepository(archivo, PoliticaSincronizacion.AGRUPADA)) {
+            assertEquals(48, repositorio.findAll().size());
+            assertFalse(repositorio.existsById("L1"));
+        }
+    }
+
+    @Test
+    void testFallaDeLaBitacoraNoCambiaLosRepositorios() {
+        BitacoraConFallas libros = new BitacoraConFallas(directorio.resolve("libros.log"));
+        BitacoraConFallas prestamos = new BitacoraConFallas(directorio.resolve("prestamos.log"));
+        try (PersistentBookRepository repositorioLibros = new PersistentBookRepository(libros);
+             PersistentLoanRepository repositorioPrestamos = new PersistentLoanRepository(prestamos)) {
+            repositorioLibros.save(new Libro("1", "Rayuela", "Julio Cortázar", "Novela", 2));
+            repositorioPrestamos.save(new Prestamo("P1", "1", "U1"));
+
+            libros.fallarAlAnexar = true;
+            prestamos.fallarAlAnexar = true;
+            assertThrows(BibliotecaException.class,
+                    () -> repositorioLibros.save(new Libro("2", "Ficciones", "Jorge Luis Borges", "Cuento", 1)));
+            assertThrows(BibliotecaException.class, () -> repositorioLibros.delete("1"));
+            assertThrows(BibliotecaException.class, () -> repositorioPrestamos.save(new Prestamo("P2", "1", "U2")));
+            assertFalse(repositorioLibros.existsById("2"));
+            assertTrue(repositorioLibros.existsById("1"));
+            assertTrue(repositorioPrestamos.findById("P2").isEmpty());
+
+            libros.fallarAlAnexar = false;
+            prestamos.fallarAlAnexar = false;
+            libros.fallarAlSincronizar = true;
+            prestamos.fallarAlSincronizar = true;
+            Libro otro = new Libro("1", "Rayuela (2.ª ed.)", "Julio Cortázar", "Novela", 5);
+            assertThrows(BibliotecaException.class, () -> repositorioLibros.save(otro));
+            assertThrows(BibliotecaException.class, () -> repositorioLibros.deleteAll(List.of("1")));
+            assertThrows(BibliotecaException.class, () -> repositorioPrestamos.delete("P1"));
+            assertThrows(BibliotecaException.class, () -> repositorioPrestamos.saveAll(List.of(new Prestamo("P3", "1", "U3"))));
+            assertEquals("Rayuela", repositorioLibros.findById("1").orElseThrow().getTitulo());
+            assertEquals(1, repositorioLibros.findByTituloContaining("rayuela").size());
+            assertTrue(repositorioPrestamos.findById("P1").isPresent());
+            assertTrue(repositorioPrestamos.findById("P3").isEmpty());
+            assertEquals(1, repositorioPrestamos.findActiveByUserId("U1").size());
+        }
+    }
+
+    /**
+     * Bitácora que simula errores de E/S al anexar o al sincronizar.
+     */
+    private static final class BitacoraConFallas extends BitacoraEscritura {
+        private volatile boolean fallarAlAnexar;
+        private volatile boolean fallarAlSincronizar;
+
+        private BitacoraConFallas(Path archivo) {
+            super(archivo, PoliticaSincronizacion.AGRUPADA);
+        }
+
+        @Override
+        public long agregar(byte[] registro) {
+            if (fallarAlAnexar) {
+                throw new BibliotecaException("No se pudo escribir en la bitácora", new IOException("Disco lleno"));
+            }
+            return super.agregar(registro);
+        }
+
+        @Override
+        public void sincronizar(long secuencia) {
+            if (fallarAlSincronizar) {
+                throw new BibliotecaException("No se pudo sincronizar la bitácora", new IOException("Error de E/S"));
+            }
+            super.sincronizar(secuencia);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.servicio;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.exception.BibliotecaException;
+import com.example.modelo.Libro;
+import com.example.modelo.Usuario;
+import com.example.repositorio.impl.BookRepositoryImpl;
+import com.example.repositorio.impl.LoanRepositoryImpl;
+
+class BibliotecaServicioAsyncTest {
+    private BibliotecaServicio bibliotecaServicio;
+    private BibliotecaServicioAsync asincrono;
+
+    @BeforeEach
+    void setUp() {
+        bibliotecaServicio = new BibliotecaServicio(new BookRepositoryImpl(), new LoanRepositoryImpl());
+        bibliotecaServicio.agregarLibro(new Libro("1", "El Quijote", "Miguel de Cervantes", "Novela", 2));
+        bibliotecaServicio.agregarLibro(new Libro("2", "Rayuela", "Julio Cortázar", "Novela", 2));
+        bibliotecaServicio.agregarLibro(new Libro("3", "Ficciones", "Jorge Luis Borges", "Cuento", 2));
+        bibliotecaServicio.crearUsuario(new Usuario("U1", "Ana"));
+        asincrono = new BibliotecaServicioAsync(bibliotecaServicio);
+    }
+
+    @AfterEach
+    void tearDown() {
+        asincrono.close();
+    }
+
+    @Test
+    void testOperacionesAsincronasDelegaEnElServicio() {
+        BibliotecaServicioAsync.esperar(asincrono.prestarLibro("1", "U1"));
+
+        assertEquals(1, BibliotecaServicioAsync.esperar(asincrono.obtenerPrestamosActivosPorUsuario("U1")).size());
+        assertEquals(1, asincrono.obtenerLibroPorId("1").join().getEjemplaresDisponibles());
+        assertTrue(asincrono.tienePrestamoActivo("1", "U1").join());
+    }
+
+    @Test
+    void testEsperarRelanzaLaExcepcionOriginal() {
+        BibliotecaException e = assertThrows(BibliotecaException.class,
+                () -> BibliotecaServicioAsync.esperar(asincrono.obtenerLibroPorId("no-existe")));
+
+        assertEquals("No se encontró el libro con ISBN: no-existe", e.getMessage());
+    }
+
+    @Test
+    void testPrestamosConLibrosConservaElOrdenYToleraLibrosEliminados() {
+        bibliotecaServicio.prestarLibro("1", "U1");
+        bibliotecaServicio.prestarLibro("2", "U1");
+        bibliotecaServicio.devolverLibro("2", "U1");
+        bibliotecaServicio.eliminarLibro("2");
+        bibliotecaServicio.prestarLibro("3", "U1");
+
+        List<PrestamoConLibro> detalles = BibliotecaServicioAsync.esperar(asincrono.obtenerPrestamosConLibros("U1"));
+
+        assertEquals(bibliotecaServicio.obtenerPrestamosPorUsuario("U1").stream()
+                        .map(prestamo -> prestamo.getLibroIsbn()).collect(Collectors.toList()),
+                detalles.stream().map(detalle -> detalle.getPrestamo().getLibroIsbn()).collect(Collectors.toList()));
+        for (PrestamoConLibro detalle : detalles) {
+            if (detalle.getPrestamo().getLibroIsbn().equals("2")) {
+                assertNull(detalle.getLibro());
+            } else {
+                assertEquals(detalle.getPrestamo().getLibroIsbn(), detalle.getLibro().getIsbn());
+            }
+        }
+        assertThrows(BibliotecaException.class,
+                () -> BibliotecaServicioAsync.esperar(asincrono.obtenerPrestamosConLibros(" ")));
+    }
+
+    @Test
+    void testPrestamosConLibrosPropagaLosErroresQueNoSonLibrosEliminados() {
+        BibliotecaServicio conFallas = new BibliotecaServicio(new BookRepositoryImpl() {
+            @Override
+            public List<Libro> findAllById(Collection<String> isbns) {
+                throw new IllegalStateException("catálogo no disponible");
+            }
+        }, new LoanRepositoryImpl());
+        conFallas.agregarLibro(new Libro("1", "El Quijote", "Miguel de Cervantes", "Novela", 2));
+        conFallas.crearUsuario(new Usuario("U1", "Ana"));
+        conFallas.prestarLibro("1", "U1");
+
+        try (BibliotecaServicioAsync fallido = new BibliotecaServicioAsync(conFallas)) {
+            IllegalStateException e = assertThrows(IllegalStateException.class,
+                    () -> BibliotecaServicioAsync.esperar(fallido.obtenerPrestamosConLibros("U1")));
+            assertEquals("catálogo no disponible", e.getMessage());
+        }
+    }
+
+    @Test
+    void testEjecutorExternoNoSeCierra() {
+        ExecutorService ejecutor = Executors.newSingleThreadExecutor();
+        try (BibliotecaServicioAsync externo = new BibliotecaServicioAsync(bibliotecaServicio, ejecutor)) {
+            assertEquals(3, externo.listarLibros().join().size());
+        }
+
+        assertFalse(ejecutor.isShutdown());
+        ejecutor.shutdown();
+        assertThrows(BibliotecaException.class, () -> new BibliotecaServicioAsync(bibliotecaServicio, null));
+    }
+}
@@ -6,6 +6,8 @@ import static org.mockito.Mockito.*;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -65,6 +67,83 @@ class BibliotecaServicioTest {
         assertThrows(BibliotecaException.class, () -> bibliotecaServicio.agregarLibro(libro));
     }
 
+    @Test
+    void testAgregarLibrosEnLote() {
+        // Arrange
+        List<Libro> libros = Arrays.asList(
+            new Libro("123", "El Quijote", "Miguel de Cervantes", "Novela", 5),
+            new Libro("456", "La Celestina", "Fernando de Rojas", "Teatro", 2));
+        when(bookRepository.existsById(anyString())).thenReturn(false);
+        when(bookRepository.saveAll(libros)).thenReturn(libros);
+
+        // Act
+        List<Libro> resultado = bibliotecaServicio.agregarLibros(libros);
+
+        // Assert
+        assertEquals(2, resultado.size());
+        verify(bookRepository).saveAll(libros);
+    }
+
+    @Test
+    void testListarLibrosPrestadosResuelveLosLibrosDelIndice() {
+        // Arrange
+        Libro quijote = new Libro("123", "El Quijote", "Miguel de Cervantes", "Novela", 4);
+        Libro celestina = new Libro("456", "La Celestina", "Fernando de Rojas", "Teatro", 1);
+        doAnswer(invocacion -> {
+            Consumer<String> accion = invocacion.getArgument(0);
+            accion.accept("123");
+            accion.accept("456");
+            accion.accept("eliminado");
+            return null;
+        }).when(loanRepository).forEachActiveLibroIsbn(any());
+        when(bookRepository.findAllById(Arrays.asList("123", "456", "eliminado")))
+                .thenReturn(Arrays.asList(quijote, celestina));
+
+        // Act
+        List<Libro> resultado = bibliotecaServicio.listarLibrosPrestados();
+
+        // Assert
+        assertEquals(Arrays.asList(quijote, celestina), resultado);
+        verify(loanRepository, never()).findAll();
+        verify(bookRepository, never()).findById(any());
+    }
+
+    @Test
+    void testListarLibrosPrestadosConsultaLosLibrosPorTramos() {
+        // Arrange
+        doAnswer(invocacion -> {
+            Consumer<String> accion = invocacion.getArgument(0);
+            for (int i = 0; i < 2500; i++) {
+                accion.accept("isbn-" + i);
+            }
+            return null;
+        }).when(loanRepository).forEachActiveLibroIsbn(any());
+        when(bookRepository.findAllById(anyCollection()))
+                .thenAnswer(invocacion -> invocacion.<List<String>>getArgument(0).stream()
+                        .map(isbn -> new Libro(isbn, "Título", "Autor", "General", 1))
+                        .collect(Collectors.toList()));
+
+        // Act
+        List<Libro> resultado = bibliotecaServicio.listarLibrosPrestados();
+
+        // Assert
+        assertEquals(2500, resultado.size());
+        verify(bookRepository, times(3)).findAllById(anyCollection());
+    }
+
+    @Test
+    void testAgregarLibrosConIsbnRepetidoNoGuardaNada() {
+        // Arrange
+        List<Libro> libros = Arrays.asList(
+            new Libro("123", "El Quijote", "Miguel de Cervantes", "Novela", 5),
+            new Libro("123", "Otro título", "Otro autor", "Novela", 1));
+        when(bookRepository.existsById("123")).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(BibliotecaException.class, () -> bibliotecaServicio.agregarLibros(libros));
+        verify(bookRepository, never()).saveAll(any());
+    }
+
     @Test
     void testObtenerLibroPorId() {
         // Arrange
@@ -151,6 +230,22 @@ class BibliotecaServicioTest {
         assertThrows(BibliotecaException.class, () -> bibliotecaServicio.prestarLibro("123", "U1"));
     }
 
+    @Test
+    void testPrestarLibrosSuperandoLimiteNoPrestaNinguno() {
+        // Arrange
+        Usuario usuario = new Usuario("U1", "Juan Pérez");
+        bibliotecaServicio.crearUsuario(usuario);
+        when(bookRepository.findById(anyString())).thenAnswer(
+            i -> Optional.of(new Libro(i.getArgument(0), "Título", "Autor", "Novela", 1)));
+        when(loanRepository.findActiveByUserId("U1")).thenReturn(List.of(new Prestamo("P1", "999", "U1")));
+
+        // Act & Assert
+        assertThrows(BibliotecaException.class,
+            () -> bibliotecaServicio.prestarLibros(Arrays.asList("1", "2", "3"), "U1"));
+        verify(bookRepository, never()).saveAll(any());
+        verify(loanRepository, never()).saveAll(any());
+    }
+
     @Test
     void testObtenerPrestamosPorUsuario() {
         // Arrange
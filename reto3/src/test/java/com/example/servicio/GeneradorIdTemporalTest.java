@@ -0,0 +1,60 @@
+package com.example.servicio;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class GeneradorIdTemporalTest {
+
+    @Test
+    void testIdsUnicosEntreHilos() throws Exception {
+        GeneradorIdTemporal generador = new GeneradorIdTemporal(7);
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        int hilos = 8;
+        int porHilo = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        List<Future<?>> tareas = new ArrayList<>();
+
+        for (int i = 0; i < hilos; i++) {
+            tareas.add(executor.submit(() -> {
+                for (int j = 0; j < porHilo; j++) {
+                    ids.add(generador.siguienteId());
+                }
+            }));
+        }
+        for (Future<?> tarea : tareas) {
+            tarea.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(hilos * porHilo, ids.size());
+    }
+
+    @Test
+    void testIdsCrecientesYDistintosPorNodo() {
+        GeneradorIdTemporal nodoA = new GeneradorIdTemporal(1);
+        GeneradorIdTemporal nodoB = new GeneradorIdTemporal(2);
+
+        long anterior = nodoA.siguienteValor();
+        for (int i = 0; i < 10_000; i++) {
+            long actual = nodoA.siguienteValor();
+            assertTrue(actual > anterior);
+            anterior = actual;
+        }
+        assertNotEquals(nodoA.siguienteValor(), nodoB.siguienteValor());
+    }
+
+    @Test
+    void testNodoFueraDeRango() {
+        assertThrows(IllegalArgumentException.class, () -> new GeneradorIdTemporal(GeneradorIdTemporal.MAX_NODO + 1));
+    }
+}
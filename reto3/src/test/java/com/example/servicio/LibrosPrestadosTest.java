@@ -0,0 +1,48 @@
+package com.example.servicio;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.modelo.Libro;
+import com.example.modelo.Usuario;
+import com.example.repositorio.impl.BookRepositoryImpl;
+import com.example.repositorio.impl.LoanRepositoryImpl;
+
+class LibrosPrestadosTest {
+    private BibliotecaServicio bibliotecaServicio;
+
+    @BeforeEach
+    void setUp() {
+        bibliotecaServicio = new BibliotecaServicio(new BookRepositoryImpl(), new LoanRepositoryImpl());
+        bibliotecaServicio.agregarLibro(new Libro("1", "El Quijote", "Miguel de Cervantes", "Novela", 3));
+        bibliotecaServicio.agregarLibro(new Libro("2", "Rayuela", "Julio Cortázar", "Novela", 1));
+        bibliotecaServicio.agregarLibro(new Libro("3", "Ficciones", "Jorge Luis Borges", "Cuento", 1));
+        bibliotecaServicio.crearUsuario(new Usuario("U1", "Ana"));
+        bibliotecaServicio.crearUsuario(new Usuario("U2", "Luis"));
+    }
+
+    @Test
+    void testLibroConVariosPrestamosActivosApareceUnaVez() {
+        bibliotecaServicio.prestarLibro("1", "U1");
+        bibliotecaServicio.prestarLibro("1", "U2");
+        bibliotecaServicio.prestarLibro("2", "U1");
+        bibliotecaServicio.prestarLibro("3", "U2");
+        bibliotecaServicio.devolverLibro("3", "U2");
+
+        List<String> prestados = bibliotecaServicio.listarLibrosPrestados().stream()
+                .map(Libro::getIsbn).sorted().collect(Collectors.toList());
+
+        assertEquals(List.of("1", "2"), prestados);
+
+        bibliotecaServicio.devolverLibro("1", "U1");
+        assertEquals(2, bibliotecaServicio.listarLibrosPrestados().size());
+        bibliotecaServicio.devolverLibro("1", "U2");
+        assertEquals("2", bibliotecaServicio.listarLibrosPrestados().get(0).getIsbn());
+        assertEquals(1, bibliotecaServicio.listarLibrosPrestados().size());
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.servicio;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.exception.BibliotecaException;
+import com.example.modelo.Libro;
+import com.example.modelo.Usuario;
+import com.example.repositorio.impl.BookRepositoryImpl;
+import com.example.repositorio.impl.LoanRepositoryImpl;
+
+class PrestamoConcurrenteTest {
+    private static final int HILOS = 16;
+    private static final int USUARIOS = 200;
+    private static final int EJEMPLARES = 25;
+    private static final int LIBROS = 20;
+    private static final int MAX_PRESTAMOS_POR_USUARIO = 3;
+
+    private BibliotecaServicio bibliotecaServicio;
+
+    @BeforeEach
+    void setUp() {
+        bibliotecaServicio = new BibliotecaServicio(new BookRepositoryImpl(), new LoanRepositoryImpl());
+        bibliotecaServicio.agregarLibro(new Libro("123", "El Quijote", "Miguel de Cervantes", "Novela", EJEMPLARES));
+        for (int i = 0; i < LIBROS; i++) {
+            bibliotecaServicio.agregarLibro(new Libro("L" + i, "Título " + i, "Autor " + i, "General", EJEMPLARES));
+        }
+        for (int i = 0; i < USUARIOS; i++) {
+            bibliotecaServicio.crearUsuario(new Usuario("U" + i, "Usuario " + i));
+        }
+    }
+
+    @Test
+    void testPrestamosConcurrentesNoVendenEjemplaresDeMas() throws Exception {
+        AtomicInteger exitosos = new AtomicInteger();
+        AtomicInteger rechazados = new AtomicInteger();
+        CountDownLatch inicio = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        List<Future<?>> tareas = new ArrayList<>();
+
+        for (int i = 0; i < USUARIOS; i++) {
+            String usuarioId = "U" + i;
+            tareas.add(executor.submit(() -> {
+                inicio.await();
+                try {
+                    bibliotecaServicio.prestarLibro("123", usuarioId);
+                    exitosos.incrementAndGet();
+                } catch (BibliotecaException e) {
+                    rechazados.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        inicio.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(EJEMPLARES, exitosos.get());
+        assertEquals(USUARIOS - EJEMPLARES, rechazados.get());
+        assertEquals(0, bibliotecaServicio.obtenerLibroPorId("123").getEjemplaresDisponibles());
+    }
+
+    @Test
+    void testPrestamosConcurrentesRespetanElLimitePorUsuario() throws Exception {
+        AtomicInteger exitosos = new AtomicInteger();
+        CountDownLatch inicio = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        List<Future<?>> tareas = new ArrayList<>();
+
+        for (int i = 0; i < LIBROS; i++) {
+            String isbn = "L" + i;
+            tareas.add(executor.submit(() -> {
+                inicio.await();
+                try {
+                    bibliotecaServicio.prestarLibro(isbn, "U0");
+                    exitosos.incrementAndGet();
+                } catch (BibliotecaException e) {
+                    // Rechazado por el límite de préstamos
+                }
+                return null;
+            }));
+        }
+        inicio.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(MAX_PRESTAMOS_POR_USUARIO, exitosos.get());
+        assertEquals(MAX_PRESTAMOS_POR_USUARIO, bibliotecaServicio.obtenerPrestamosActivosPorUsuario("U0").size());
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.servicio;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.exception.BibliotecaException;
+import com.example.metricas.RegistroMetricas;
+import com.example.modelo.EstadoReserva;
+import com.example.modelo.Libro;
+import com.example.modelo.Prestamo;
+import com.example.modelo.Reserva;
+import com.example.modelo.Usuario;
+import com.example.repositorio.impl.BookRepositoryImpl;
+import com.example.repositorio.impl.LoanRepositoryImpl;
+import com.example.repositorio.impl.UserRepositoryImpl;
+
+class ReservaTest {
+    private RelojAjustable reloj;
+    private BibliotecaServicio bibliotecaServicio;
+
+    @BeforeEach
+    void setUp() {
+        reloj = new RelojAjustable(Instant.parse("2024-01-01T10:00:00Z"));
+        GestorReservas reservas = new GestorReservas(Duration.ofDays(10), Duration.ofDays(1), reloj);
+        bibliotecaServicio = new BibliotecaServicio(new BookRepositoryImpl(), new LoanRepositoryImpl(),
+                new UserRepositoryImpl(), new GeneradorIdTemporal(), new RegistroMetricas(), reservas);
+        bibliotecaServicio.agregarLibro(new Libro("1", "El Quijote", "Miguel de Cervantes", "Novela", 1));
+        for (String id : Arrays.asList("U1", "U2", "U3")) {
+            bibliotecaServicio.crearUsuario(new Usuario(id, "Usuario " + id));
+        }
+        bibliotecaServicio.prestarLibro("1", "U1");
+    }
+
+    @Test
+    void testLaDevolucionApartaElEjemplarParaLaPrimeraReserva() {
+        bibliotecaServicio.reservarLibro("1", "U2");
+        bibliotecaServicio.reservarLibro("1", "U3");
+        assertEquals(1, bibliotecaServicio.obtenerPosicionReserva("1", "U2"));
+        assertEquals(2, bibliotecaServicio.obtenerPosicionReserva("1", "U3"));
+
+        bibliotecaServicio.devolverLibro("1", "U1");
+
+        assertEquals(0, bibliotecaServicio.obtenerLibroPorId("1").getEjemplaresDisponibles());
+        assertEquals(EstadoReserva.ASIGNADA, bibliotecaServicio.obtenerReserva("1", "U2").getEstado());
+        assertEquals(0, bibliotecaServicio.obtenerPosicionReserva("1", "U2"));
+        assertEquals(1, bibliotecaServicio.obtenerPosicionReserva("1", "U3"));
+        assertThrows(BibliotecaException.class, () -> bibliotecaServicio.prestarLibro("1", "U3"));
+
+        bibliotecaServicio.prestarLibro("1", "U2");
+        assertTrue(bibliotecaServicio.tienePrestamoActivo("1", "U2"));
+        assertEquals(0, bibliotecaServicio.obtenerLibroPorId("1").getEjemplaresDisponibles());
+        assertThrows(BibliotecaException.class, () -> bibliotecaServicio.obtenerReserva("1", "U2"));
+    }
+
+    @Test
+    void testSiLaDevolucionNoSeGuardaLaReservaSigueEsperando() {
+        AtomicBoolean fallar = new AtomicBoolean();
+        LoanRepositoryImpl prestamos = new LoanRepositoryImpl() {
+            @Override
+            public Prestamo save(Prestamo prestamo) {
+                if (fallar.get()) {
+                    throw new BibliotecaException("No se pudo escribir la bitácora");
+                }
+                return super.save(prestamo);
+            }
+        };
+        BibliotecaServicio servicio = new BibliotecaServicio(new BookRepositoryImpl(), prestamos,
+                new UserRepositoryImpl(), new GeneradorIdTemporal(), new RegistroMetricas(),
+                new GestorReservas(Duration.ofDays(10), Duration.ofDays(1), reloj));
+        servicio.agregarLibro(new Libro("1", "El Quijote", "Miguel de Cervantes", "Novela", 1));
+        servicio.crearUsuario(new Usuario("U1", "Usuario U1"));
+        servicio.crearUsuario(new Usuario("U2", "Usuario U2"));
+        servicio.prestarLibro("1", "U1");
+        servicio.reservarLibro("1", "U2");
+        fallar.set(true);
+
+        assertThrows(BibliotecaException.class, () -> servicio.devolverLibro("1", "U1"));
+
+        assertEquals(EstadoReserva.ESPERANDO, servicio.obtenerReserva("1", "U2").getEstado());
+        assertEquals(1, servicio.obtenerPosicionReserva("1", "U2"));
+        assertEquals(0, servicio.obtenerLibroPorId("1").getEjemplaresDisponibles());
+    }
+
+    @Test
+    void testSoloSeReservaSinEjemplaresYUnaVezPorUsuario() {
+        bibliotecaServicio.agregarLibro(new Libro("2", "Rayuela", "Julio Cortázar", "Novela", 1));
+
+        assertThrows(BibliotecaException.class, () -> bibliotecaServicio.reservarLibro("2", "U2"));
+        assertThrows(BibliotecaException.class, () -> bibliotecaServicio.reservarLibro("1", "U1"));
+        bibliotecaServicio.reservarLibro("1", "U2");
+        assertThrows(BibliotecaException.class, () -> bibliotecaServicio.reservarLibro("1", "U2"));
+        assertThrows(BibliotecaException.class, () -> bibliotecaServicio.reservarLibro("1", "no-existe"));
+    }
+
+    @Test
+    void testLasReservasCanceladasSeSaltanAlAsignar() {
+        bibliotecaServicio.reservarLibro("1", "U2");
+        bibliotecaServicio.reservarLibro("1", "U3");
+        bibliotecaServicio.cancelarReserva("1", "U2");
+
+        bibliotecaServicio.devolverLibro("1", "U1");
+
+        assertEquals(EstadoReserva.ASIGNADA, bibliotecaServicio.obtenerReserva("1", "U3").getEstado());
+        bibliotecaServicio.cancelarReserva("1", "U3");
+        assertEquals(1, bibliotecaServicio.obtenerLibroPorId("1").getEjemplaresDisponibles());
+        assertThrows(BibliotecaException.class, () -> bibliotecaServicio.cancelarReserva("1", "U3"));
+    }
+
+    @Test
+    void testLaPosicionDescuentaEnseguidaLasReservasQueSalenDeLaCola() {
+        bibliotecaServicio.crearUsuario(new Usuario("U4", "Usuario U4"));
+        bibliotecaServicio.reservarLibro("1", "U2");
+        bibliotecaServicio.reservarLibro("1", "U3");
+        reloj.avanzar(Duration.ofDays(5));
+        bibliotecaServicio.reservarLibro("1", "U4");
+        assertEquals(3, bibliotecaServicio.obtenerPosicionReserva("1", "U4"));
+
+        bibliotecaServicio.cancelarReserva("1", "U3");
+        assertEquals(1, bibliotecaServicio.obtenerPosicionReserva("1", "U2"));
+        assertEquals(2, bibliotecaServicio.obtenerPosicionReserva("1", "U4"));
+
+        reloj.avanzar(Duration.ofDays(5).plusMinutes(1));
+        assertEquals(1, bibliotecaServicio.procesarReservasVencidas());
+        assertEquals(1, bibliotecaServicio.obtenerPosicionReserva("1", "U4"));
+    }
+
+    @Test
+    void testContadorTurnosCoincideConUnConteoDirecto() {
+        ContadorTurnos contador = new ContadorTurnos();
+        Random aleatorio = new Random(42);
+        TreeSet<Long> enEspera = new TreeSet<>();
+        long siguiente = 1;
+        for (int paso = 0; paso < 20_000; paso++) {
+            // La cola crece y se vacía por tramos, como la de un libro muy pedido.
+            if (enEspera.isEmpty() || aleatorio.nextInt(100) < (paso / 2_000 % 2 == 0 ? 60 : 40)) {
+                contador.agregar(siguiente);
+                enEspera.add(siguiente++);
+            } else {
+                Long turno = aleatorio.nextBoolean() ? enEspera.first()
+                        : enEspera.ceiling(enEspera.first() + aleatorio.nextInt(50));
+                if (turno == null) {
+                    turno = enEspera.last();
+                }
+                contador.quitar(turno);
+                enEspera.remove(turno);
+            }
+            long consultado = enEspera.isEmpty() ? siguiente : enEspera.first() + aleatorio.nextInt(100);
+            assertEquals(enEspera.headSet(consultado).size(), contador.anteriores(consultado));
+            assertEquals(enEspera.size(), contador.enEspera());
+        }
+    }
+
+    @Test
+    void testElEjemplarNoRecogidoPasaALaSiguienteReservaAlVencer() {
+        bibliotecaServicio.reservarLibro("1", "U2");
+        reloj.avanzar(Duration.ofDays(2));
+        bibliotecaServicio.reservarLibro("1", "U3");
+        bibliotecaServicio.devolverLibro("1", "U1");
+        Reserva apartada = bibliotecaServicio.obtenerReserva("1", "U2");
+
+        reloj.avanzar(Duration.ofHours(12));
+        assertEquals(0, bibliotecaServicio.procesarReservasVencidas());
+
+        reloj.avanzar(Duration.ofHours(13));
+        assertEquals(1, bibliotecaServicio.procesarReservasVencidas());
+        assertEquals(EstadoReserva.VENCIDA, apartada.getEstado());
+        assertEquals(EstadoReserva.ASIGNADA, bibliotecaServicio.obtenerReserva("1", "U3").getEstado());
+
+        reloj.avanzar(Duration.ofDays(20));
+        assertEquals(1, bibliotecaServicio.procesarReservasVencidas());
+        assertEquals(1, bibliotecaServicio.obtenerLibroPorId("1").getEjemplaresDisponibles());
+    }
+
+    @Test
+    void testLaEsperaEnColaVenceAunqueNoHayaDevoluciones() {
+        bibliotecaServicio.reservarLibro("1", "U2");
+
+        reloj.avanzar(Duration.ofDays(10).plusMinutes(1));
+
+        assertEquals(1, bibliotecaServicio.procesarReservasVencidas());
+        assertThrows(BibliotecaException.class, () -> bibliotecaServicio.obtenerPosicionReserva("1", "U2"));
+        bibliotecaServicio.devolverLibro("1", "U1");
+        assertEquals(1, bibliotecaServicio.obtenerLibroPorId("1").getEjemplaresDisponibles());
+    }
+
+    @Test
+    void testRuedaEntregaSoloLoVencidoAunqueSupereUnaVuelta() {
+        RuedaTemporizadora<String> rueda = new RuedaTemporizadora<>(10, 4, 0);
+        rueda.programar("cercano", 25);
+        rueda.programar("lejano", 95);
+        rueda.programar("pasado", -5);
+
+        assertEquals(Arrays.asList("pasado"), rueda.avanzar(15));
+        assertEquals(Arrays.asList("cercano"), rueda.avanzar(30));
+        assertTrue(rueda.avanzar(90).isEmpty());
+        List<String> vencidos = rueda.avanzar(500);
+        assertEquals(Arrays.asList("lejano"), vencidos);
+        assertEquals(0, rueda.pendientes());
+    }
+
+    @Test
+    void testRuedaCancelaEntradasSinEntregarlas() {
+        RuedaTemporizadora<String> rueda = new RuedaTemporizadora<>(10, 4, 0);
+        RuedaTemporizadora.Entrada<String> primera = rueda.programar("primera", 25);
+        rueda.programar("segunda", 25);
+        RuedaTemporizadora.Entrada<String> tercera = rueda.programar("tercera", 25);
+
+        assertTrue(rueda.cancelar(primera));
+        assertFalse(rueda.cancelar(primera));
+        assertTrue(rueda.cancelar(tercera));
+        assertEquals(1, rueda.pendientes());
+        assertEquals(Arrays.asList("segunda"), rueda.avanzar(30));
+        assertFalse(rueda.cancelar(tercera));
+    }
+
+    @Test
+    void testLasReservasTerminadasSalenDeLaRueda() {
+        GestorReservas gestor = new GestorReservas(Duration.ofDays(10), Duration.ofDays(1), reloj);
+        Reserva cancelada = gestor.reservar("1", "U1");
+        gestor.reservar("1", "U2");
+        gestor.reservar("1", "U3");
+        assertEquals(3, gestor.vencimientosProgramados());
+
+        gestor.cancelar(cancelada);
+        assertEquals(2, gestor.vencimientosProgramados());
+        Reserva asignada = gestor.asignarSiguiente("1");
+        assertEquals("U2", asignada.getUsuarioId());
+        assertEquals(2, gestor.vencimientosProgramados());
+        gestor.completar(asignada);
+        assertEquals(1, gestor.vencimientosProgramados());
+        gestor.descartar("1");
+        assertEquals(0, gestor.vencimientosProgramados());
+    }
+
+    private static final class RelojAjustable extends Clock {
+        private Instant instante;
+
+        private RelojAjustable(Instant instante) {
+            this.instante = instante;
+        }
+
+        private void avanzar(Duration duracion) {
+            instante = instante.plus(duracion);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zona) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instante;
+        }
+    }
+}